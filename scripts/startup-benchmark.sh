@@ -0,0 +1,64 @@
+#!/bin/sh
+# Startup and first-game latency of the headless CLI (main.Cli) on the plain JVM,
+# with C1 only, with an AppCDS archive, with both, and as a GraalVM native image
+# when native-image is on the PATH. Each run is one process that plays one complete game and exits,
+# timed from launch to exit.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+set -eu
+
+RUNS=${1:-20}
+TARGET_MS=50
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=$ROOT/build/startup
+GAME="replay --seed 1 --policy greedy --quiet"
+
+rm -rf "$OUT"
+mkdir -p "$OUT/classes"
+javac -encoding UTF-8 -d "$OUT/classes" $(find "$ROOT/src" -name '*.java')
+# AppCDS only archives classes loaded from jars
+jar cf "$OUT/cli.jar" -C "$OUT/classes" .
+
+# One training run records every class the CLI loads into a dynamic CDS archive
+java -XX:ArchiveClassesAtExit="$OUT/cli.jsa" -cp "$OUT/cli.jar" main.Cli $GAME > /dev/null
+
+if command -v native-image > /dev/null 2>&1; then
+    native-image --no-fallback -cp "$OUT/cli.jar" -o "$OUT/virus-cli" main.Cli > "$OUT/native-image.log"
+fi
+
+now_ns() {
+    date +%s%N
+}
+
+# Runs the command RUNS times and prints min, median and max wall time in ms
+measure() {
+    label=$1
+    shift
+    : > "$OUT/times"
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        start=$(now_ns)
+        "$@" > /dev/null
+        end=$(now_ns)
+        echo $(( (end - start) / 1000 )) >> "$OUT/times"
+        i=$((i + 1))
+    done
+    sort -n "$OUT/times" | awk -v label="$label" -v target="$TARGET_MS" '
+        { t[NR] = $1 / 1000 }
+        END {
+            median = t[int((NR + 1) / 2)]
+            printf "%-22s min %7.1f ms  median %7.1f ms  max %7.1f ms  %s\n",
+                label, t[1], median, t[NR], (median < target ? "under target" : "over target")
+        }'
+}
+
+echo "First game from process start, $RUNS runs each (target ${TARGET_MS} ms):"
+measure "JVM" java -cp "$OUT/cli.jar" main.Cli $GAME
+measure "JVM, C1 only" java -XX:TieredStopAtLevel=1 -cp "$OUT/cli.jar" main.Cli $GAME
+measure "JVM + AppCDS" java -XX:SharedArchiveFile="$OUT/cli.jsa" -cp "$OUT/cli.jar" main.Cli $GAME
+measure "AppCDS + C1 only" java -XX:SharedArchiveFile="$OUT/cli.jsa" -XX:TieredStopAtLevel=1 -cp "$OUT/cli.jar" main.Cli $GAME
+if [ -x "$OUT/virus-cli" ]; then
+    measure "native image" "$OUT/virus-cli" $GAME
+else
+    echo "native image           skipped (native-image not found)"
+fi
@@ -0,0 +1,66 @@
+package sim;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * LaneKernels on the incubating Vector API, one game per long lane. This is
+ * the only class that touches jdk.incubator.vector; it is kept in its own
+ * source root so the rest of the tree builds without the module:
+ *   javac -d out $(find src -name '*.java')
+ *   javac --add-modules jdk.incubator.vector -cp out -d out src-vector/sim/VectorLaneKernels.java
+ * and is only used when the JVM runs with --add-modules jdk.incubator.vector.
+ */
+final class VectorLaneKernels implements LaneKernels {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final long NIBBLE_LOW_BITS = 0x1111111111111111L;
+    private static final long MIX_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_2 = 0x94D049BB133111EBL;
+
+    @Override
+    public String name() {
+        return "vector x" + SPECIES.length();
+    }
+
+    @Override
+    public void colorMasks(long[] organs, int n, long[] colors, long[] wins) {
+        LongVector zero = LongVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            LongVector board = LongVector.fromArray(SPECIES, organs, i);
+            LongVector x = board.or(board.lanewise(VectorOperators.LSHR, 1));
+            x = x.or(x.lanewise(VectorOperators.LSHR, 2)).and(NIBBLE_LOW_BITS);
+            x.intoArray(colors, i);
+            VectorMask<Long> first = x.and(0x1111L).eq(0x1111L);
+            VectorMask<Long> second = x.lanewise(VectorOperators.LSHR, 16).and(0x1111L).eq(0x1111L);
+            zero.blend(1L, first).or(zero.blend(2L, second)).intoArray(wins, i);
+        }
+        for (; i < n; i++) {
+            long x = GameBatch.colorMask(organs[i]);
+            colors[i] = x;
+            wins[i] = ((x & 0x1111L) == 0x1111L ? 1 : 0) | ((x >>> 16 & 0x1111L) == 0x1111L ? 2 : 0);
+        }
+    }
+
+    @Override
+    public void nextBounded(long[] states, long[] bounds, int n, long[] out) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            LongVector state = LongVector.fromArray(SPECIES, states, i).add(Rng.GAMMA);
+            state.intoArray(states, i);
+            LongVector z = state.lanewise(VectorOperators.XOR, state.lanewise(VectorOperators.LSHR, 30)).mul(MIX_1);
+            z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 27)).mul(MIX_2);
+            z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 31));
+            // Rng.bounded: the high 32 bits times the bound, keeping the high 32 bits of the product
+            z.lanewise(VectorOperators.LSHR, 32)
+                .mul(LongVector.fromArray(SPECIES, bounds, i))
+                .lanewise(VectorOperators.LSHR, 32)
+                .intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = Rng.bounded(Rng.mix(states[i] += Rng.GAMMA), (int) bounds[i]);
+        }
+    }
+}
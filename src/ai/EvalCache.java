@@ -0,0 +1,233 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import model.DeckComposition;
+import sim.CardCodes;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Rng;
+
+/**
+ * Fixed-size evaluation cache shared by search threads.
+ *
+ * Positions are keyed by what an evaluation looks at: both players' organs,
+ * both hands and the deck as unordered sets (so the unseen pool a
+ * ValueNetwork reads is covered), the deck and card counts, whose turn it is,
+ * the winner and the side being evaluated. The deck order and the random
+ * state are left out so transpositions that differ only in the order of
+ * hidden cards share an entry.
+ *
+ * The table is split into buckets of four entries and never grows; when a
+ * bucket is full a clock hand gives recently hit entries a second chance
+ * before evicting one. Each entry stores the value and key^value, so a
+ * reader that races a writer sees a key mismatch and counts a miss instead
+ * of returning the wrong value. No locks are taken; at worst two threads
+ * evaluate the same position and both store it.
+ */
+public final class EvalCache {
+    private static final int WAYS = 4;
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES + 1;
+
+    private final AtomicLongArray checks;
+    private final AtomicLongArray values;
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final int bucketMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EvalCache(long maxBytes) {
+        long entries = Math.max(WAYS, maxBytes / BYTES_PER_ENTRY);
+        int buckets = Integer.highestOneBit((int) Math.min(entries / WAYS, 1 << 26));
+        this.bucketMask = buckets - 1;
+        this.checks = new AtomicLongArray(buckets * WAYS);
+        this.values = new AtomicLongArray(buckets * WAYS);
+        this.referenced = new byte[buckets * WAYS];
+        this.hands = new byte[buckets];
+    }
+
+    // Wraps an evaluator so every evaluation goes through this cache
+    public Evaluator evaluator(Evaluator delegate) {
+        return (state, player) -> {
+            long key = key(state, player);
+            double value = get(key);
+            if (Double.isNaN(value)) {
+                value = delegate.evaluate(state, player);
+                put(key, value);
+            }
+            return value;
+        };
+    }
+
+    // The cached value for key, or NaN when it is not cached
+    public double get(long key) {
+        int base = bucket(key);
+        for (int i = base; i < base + WAYS; i++) {
+            long bits = values.getOpaque(i);
+            if ((checks.getOpaque(i) ^ bits) == key) {
+                referenced[i] = 1;
+                hits.increment();
+                return Double.longBitsToDouble(bits);
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    public void put(long key, double value) {
+        int base = bucket(key);
+        int slot = -1;
+        for (int i = base; i < base + WAYS; i++) {
+            long check = checks.getOpaque(i);
+            long bits = values.getOpaque(i);
+            if ((check ^ bits) == key) {
+                slot = i;
+                break;
+            }
+            if (slot < 0 && check == 0 && bits == 0) {
+                slot = i;
+            }
+        }
+        if (slot < 0) {
+            slot = victim(base);
+            evictions.increment();
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        values.setOpaque(slot, bits);
+        checks.setOpaque(slot, key ^ bits);
+        referenced[slot] = 0;
+    }
+
+    // Second chance: clear referenced entries under the hand until one that was not referenced turns up
+    private int victim(int base) {
+        int bucket = base / WAYS;
+        int hand = hands[bucket];
+        for (int step = 0; step < 2 * WAYS; step++) {
+            int i = base + hand;
+            hand = (hand + 1) & (WAYS - 1);
+            if (referenced[i] == 0) {
+                hands[bucket] = (byte) hand;
+                return i;
+            }
+            referenced[i] = 0;
+        }
+        hands[bucket] = (byte) hand;
+        return base + hand;
+    }
+
+    private int bucket(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32 & bucketMask) * WAYS;
+    }
+
+    /**
+     * Key of a position as seen by the evaluation of player. Never 0, which
+     * marks an empty entry.
+     */
+    public static long key(GameState state, int player) {
+        long organs = 0;
+        for (int p = 0; p < GameState.PLAYERS; p++) {
+            for (int c = 0; c < GameState.COLORS; c++) {
+                organs = organs << 4 | Math.min(state.healthy(p, c), 15);
+                organs = organs << 4 | Math.min(state.infected(p, c), 15);
+            }
+        }
+        long h = organs * 0xFF51AFD7ED558CCDL;
+        for (int p = 0; p < GameState.PLAYERS; p++) {
+            long hand = 0;
+            for (int i = 0; i < state.handSize(p); i++) {
+                hand += Rng.mix((p + 1) * CardCodes.CODE_LIMIT + state.handCard(p, i));
+            }
+            h = Rng.mix(h ^ hand);
+        }
+        long deck = 0;
+        for (int i = 0; i < state.deckSize(); i++) {
+            deck += Rng.mix((GameState.PLAYERS + 1) * CardCodes.CODE_LIMIT + state.deckCard(i));
+        }
+        h = Rng.mix(h ^ deck ^ (long) state.deckSize() << 32 ^ (long) state.totalCards() << 48);
+        h = Rng.mix(h ^ (state.current() | player << 2 | (long) (state.winner() + 2) << 4));
+        return h == 0 ? 1 : h;
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long evictions() { return evictions.sum(); }
+    public int capacity() { return referenced.length; }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d entries, %,d hits, %,d misses (%.1f%% hit rate), %,d evictions",
+            capacity(), hits(), misses(), 100 * hitRate(), evictions());
+    }
+
+    /**
+     * Plays expectimax against greedy with and without a shared cache, using a
+     * deliberately slow evaluator to stand in for an expensive one, and reports
+     * search throughput and the cache statistics.
+     * Usage: java ai.EvalCache [cache-mb] [threads] [games] [budget-ms] [eval-us]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long cacheBytes = (args.length > 0 ? Long.parseLong(args[0]) : 16) << 20;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long budget = (args.length > 3 ? Long.parseLong(args[3]) : 20) * 1_000_000L;
+        long evalNanos = (args.length > 4 ? Long.parseLong(args[4]) : 2) * 1_000L;
+
+        Evaluator slow = (state, player) -> {
+            long until = System.nanoTime() + evalNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            return Evaluator.HEURISTIC.evaluate(state, player);
+        };
+        System.out.printf("uncached: %s%n", tournament(slow, threads, games, budget));
+        EvalCache cache = new EvalCache(cacheBytes);
+        System.out.printf("cached:   %s%n", tournament(cache.evaluator(slow), threads, games, budget));
+        System.out.println("cache:    " + cache);
+    }
+
+    private static String tournament(Evaluator evaluator, int threads, int games, long budget)
+            throws InterruptedException {
+        LongAdder nodes = new LongAdder();
+        LongAdder searches = new LongAdder();
+        LongAdder depth = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                ExpectimaxBot bot = new ExpectimaxBot(evaluator, budget);
+                GreedyPolicy greedy = new GreedyPolicy();
+                GameState state = GameState.newGame(DeckComposition.STANDARD, 1);
+                Rng rng = new Rng(first);
+                for (int g = first; g < games; g += threads) {
+                    state.reset(g + 1);
+                    while (!state.isOver()) {
+                        if (state.current() == 0) {
+                            state.apply(bot.search(state, budget));
+                            nodes.add(bot.lastNodeCount());
+                            depth.add(bot.lastCompletedDepth());
+                            searches.increment();
+                        } else {
+                            state.apply(greedy.chooseMove(state, rng));
+                        }
+                    }
+                }
+            }, "tournament-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long n = Math.max(1, searches.sum());
+        return String.format("%,d searches, mean %,d nodes, mean depth %.2f",
+            searches.sum(), nodes.sum() / n, (double) depth.sum() / n);
+    }
+}
@@ -0,0 +1,11 @@
+package ai;
+
+import sim.GameState;
+import sim.Heuristic;
+
+// Leaf evaluation used by search bots: a value in [-1, 1] from the given player's side
+public interface Evaluator {
+    Evaluator HEURISTIC = Heuristic::evaluate;
+
+    double evaluate(GameState state, int player);
+}
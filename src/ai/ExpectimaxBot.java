@@ -0,0 +1,286 @@
+package ai;
+
+import flight.SearchEvent;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import model.DeckComposition;
+import sim.CardCodes;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Moves;
+import sim.Policy;
+import sim.Rng;
+
+/**
+ * Deterministic iterative-deepening expectimax bot with a hard deadline.
+ *
+ * Player nodes maximize (bot) or minimize (opponent) the evaluation from the
+ * bot's side. Every move is followed by a chance node over the next card
+ * drawn, weighted by how many copies are left in the deck, or over the slot
+ * taken by Control's random steal. The hidden opponent hand is filled in once
+ * per search with a determinization seeded from the position, so the same
+ * position always gets the same answer.
+ *
+ * Everything the search touches is preallocated per ply; the loop itself
+ * never allocates, so a collection cannot push it past the deadline, which is
+ * checked at every node and before every outcome of a chance node. When time
+ * runs out the best move of the deepest completed iteration is returned.
+ */
+public final class ExpectimaxBot implements Policy {
+    public static final int MAX_DEPTH = 12;
+    private static final long SAFETY_NANOS = 50_000L;
+
+    private final Evaluator evaluator;
+    private final long moveBudgetNanos;
+    private final GameState[] stack = new GameState[MAX_DEPTH + 2];
+    private final int[][] moves = new int[MAX_DEPTH + 1][GameState.MAX_MOVES];
+    private final int[][] drawCounts = new int[MAX_DEPTH + 1][CardCodes.CODE_LIMIT];
+    private final int[][] drawCodes = new int[MAX_DEPTH + 1][CardCodes.CODE_LIMIT];
+    private final Rng determinizer = new Rng(0);
+
+    private int me;
+    private long deadline;
+    private boolean timedOut;
+    private long nodes;
+    private int completedDepth;
+
+    public ExpectimaxBot(Evaluator evaluator, long moveBudgetNanos) {
+        this.evaluator = evaluator;
+        this.moveBudgetNanos = moveBudgetNanos;
+    }
+
+    public ExpectimaxBot(long moveBudgetNanos) {
+        this(Evaluator.HEURISTIC, moveBudgetNanos);
+    }
+
+    @Override
+    public int chooseMove(GameState state, Rng rng) {
+        return search(state, moveBudgetNanos);
+    }
+
+    public long lastNodeCount() { return nodes; }
+    public int lastCompletedDepth() { return completedDepth; }
+
+    public int search(GameState state, long budgetNanos) {
+        SearchEvent event = SearchEvent.start();
+        deadline = System.nanoTime() + budgetNanos - SAFETY_NANOS;
+        nodes = 0;
+        completedDepth = 0;
+        ensureStack(state);
+
+        GameState root = stack[0];
+        root.copyFrom(state);
+        me = root.current();
+        determinizer.setState(state.hash());
+        root.determinize(me, determinizer);
+
+        int[] rootMoves = moves[0];
+        int count = root.legalMoves(rootMoves);
+        if (count <= 1) {
+            // Forced: nothing to search
+            int move = count == 0 ? Moves.NONE : rootMoves[0];
+            event.finish("ExpectimaxBot", 0, 0, 0, move);
+            return move;
+        }
+
+        int bestMove = rootMoves[0];
+        int passes = 0;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            passes++;
+            timedOut = false;
+            int iterationBest = -1;
+            double iterationValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                double value = chance(0, root, rootMoves[i], depth);
+                if (timedOut) {
+                    break;
+                }
+                if (value > iterationValue) {
+                    iterationValue = value;
+                    iterationBest = i;
+                }
+            }
+            if (timedOut) {
+                // A partial first iteration is still better than nothing
+                if (completedDepth == 0 && iterationBest >= 0) {
+                    bestMove = rootMoves[iterationBest];
+                }
+                break;
+            }
+            bestMove = rootMoves[iterationBest];
+            completedDepth = depth;
+            // Search the best move first next time
+            rootMoves[iterationBest] = rootMoves[0];
+            rootMoves[0] = bestMove;
+            if (iterationValue >= 1.0 || iterationValue <= -1.0) {
+                break;
+            }
+        }
+        event.finish("ExpectimaxBot", passes, nodes, completedDepth, bestMove);
+        return bestMove;
+    }
+
+    private double value(int ply, GameState state, int depth) {
+        nodes++;
+        if (System.nanoTime() >= deadline) {
+            timedOut = true;
+            return 0;
+        }
+        if (depth == 0 || state.isOver()) {
+            return evaluator.evaluate(state, me);
+        }
+
+        int[] buffer = moves[ply];
+        int count = state.legalMoves(buffer);
+        boolean maximizing = state.current() == me;
+        double best = maximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double v = chance(ply, state, buffer[i], depth);
+            if (timedOut) {
+                return 0;
+            }
+            if (maximizing ? v > best : v < best) {
+                best = v;
+                // Nothing beats a certain win (or loss for the opponent)
+                if (maximizing ? best >= 1.0 : best <= -1.0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Expected value of playing move from state, over the random outcomes that follow it
+    private double chance(int ply, GameState state, int move, int depth) {
+        GameState child = stack[ply + 1];
+        int opponentHand = state.handSize(state.current() ^ 1);
+
+        if (Moves.type(move) == Moves.PLAY && opponentHand > 0
+                && CardCodes.kind(state.handCard(state.current(), Moves.slot(move))) == CardCodes.CONTROL) {
+            double sum = 0;
+            for (int slot = 0; slot < opponentHand; slot++) {
+                if (System.nanoTime() >= deadline) {
+                    timedOut = true;
+                    return 0;
+                }
+                child.copyFrom(state);
+                child.forceNextSteal(slot);
+                child.apply(move);
+                sum += value(ply + 1, child, depth - 1);
+                if (timedOut) {
+                    return 0;
+                }
+            }
+            return sum / opponentHand;
+        }
+
+        int deckSize = state.deckSize();
+        if (deckSize == 0) {
+            child.copyFrom(state);
+            child.apply(move);
+            return value(ply + 1, child, depth - 1);
+        }
+
+        // Group the deck by card code; each distinct next draw is one outcome
+        int[] counts = drawCounts[ply];
+        int[] codes = drawCodes[ply];
+        int distinct = 0;
+        for (int i = 0; i < deckSize; i++) {
+            int code = state.deckCard(i);
+            if (counts[code]++ == 0) {
+                codes[distinct++] = code;
+            }
+        }
+
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            if (System.nanoTime() >= deadline) {
+                timedOut = true;
+                break;
+            }
+            int code = codes[i];
+            child.copyFrom(state);
+            child.putOnTop(code);
+            child.apply(move);
+            double v = value(ply + 1, child, depth - 1);
+            if (timedOut) {
+                break;
+            }
+            sum += v * counts[code];
+        }
+        for (int i = 0; i < distinct; i++) {
+            counts[codes[i]] = 0;
+        }
+        return timedOut ? 0 : sum / deckSize;
+    }
+
+    private void ensureStack(GameState state) {
+        if (stack[0] == null || stack[0].totalCards() != state.totalCards()) {
+            for (int i = 0; i < stack.length; i++) {
+                stack[i] = new GameState(state);
+            }
+        }
+    }
+
+    /**
+     * Measures how far past the deadline searches return and how deep they get.
+     * On a single core the JIT compiler takes the CPU away from the search for a
+     * whole scheduler tick, so searches are only counted once it has gone quiet;
+     * those it still interrupts are reported.
+     * Usage: java ai.ExpectimaxBot [budget-ms] [positions]
+     */
+    public static void main(String[] args) {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : 50;
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long budget = budgetMs * 1_000_000L;
+
+        ExpectimaxBot bot = new ExpectimaxBot(budget);
+        GreedyPolicy opponent = new GreedyPolicy();
+        Rng rng = new Rng(42);
+        GameState state = GameState.newGame(DeckComposition.STANDARD, 1);
+
+        long[] overshoots = new long[positions];
+        long depthSum = 0;
+        long nodeSum = 0;
+        int searched = 0;
+        int warmup = 0;
+        int quiet = 0;
+        int compiling = 0;
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        long seed = 1;
+        while (searched < positions) {
+            if (state.isOver()) {
+                state.reset(++seed);
+            }
+            int move;
+            if (state.current() == 0) {
+                long compiled = jit.getTotalCompilationTime();
+                long start = System.nanoTime();
+                move = bot.search(state, budget);
+                long overshoot = System.nanoTime() - start - budget;
+                boolean jitRan = jit.getTotalCompilationTime() != compiled;
+                // Warm up until 50 searches in a row ran without the JIT compiling anything
+                if (quiet < 50 && warmup < 2_000) {
+                    warmup++;
+                    quiet = jitRan ? 0 : quiet + 1;
+                } else {
+                    if (jitRan) {
+                        compiling++;
+                    }
+                    overshoots[searched++] = overshoot;
+                    depthSum += bot.lastCompletedDepth();
+                    nodeSum += bot.lastNodeCount();
+                }
+            } else {
+                move = opponent.chooseMove(state, rng);
+            }
+            state.apply(move);
+        }
+        Arrays.sort(overshoots);
+        System.out.printf("%d searches of %d ms: overshoot p50 %.3f ms, p99 %.3f ms, max %.3f ms; mean depth %.2f, mean nodes %,d%n",
+            searched, budgetMs, overshoots[searched / 2] / 1e6, overshoots[searched * 99 / 100] / 1e6,
+            overshoots[searched - 1] / 1e6, (double) depthSum / searched, nodeSum / searched);
+        System.out.printf("after %d warm-up searches; the JIT compiled during %d of those counted%n", warmup, compiling);
+    }
+}
@@ -0,0 +1,125 @@
+package ai;
+
+import flight.SearchEvent;
+import java.util.function.BooleanSupplier;
+import sim.GameState;
+import sim.Heuristic;
+import sim.Moves;
+import sim.Policy;
+import sim.Rng;
+
+/**
+ * Sampling-based bot: spreads rollouts over the root moves with UCB1. Every
+ * rollout starts from a fresh determinization of the hidden cards, plays the
+ * game out with a cheap policy and scores the result from the bot's side.
+ *
+ * A search ends when the time budget is spent or the cancel flag is raised;
+ * either way the best move found so far is returned.
+ */
+public final class MonteCarloBot {
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_ROLLOUT_TURNS = 120;
+    private static final int PROGRESS_INTERVAL = 256;
+
+    private final Policy rolloutPolicy;
+    private final Rng rng;
+    private final int[] moves = new int[GameState.MAX_MOVES];
+    private final double[] totals = new double[GameState.MAX_MOVES];
+    private final int[] visits = new int[GameState.MAX_MOVES];
+    private GameState scratch;
+    private long nodes;
+
+    public MonteCarloBot(Policy rolloutPolicy, long seed) {
+        this.rolloutPolicy = rolloutPolicy;
+        this.rng = new Rng(seed);
+    }
+
+    public int search(GameState root, long budgetNanos, BooleanSupplier cancelled, SearchListener listener) {
+        SearchEvent event = SearchEvent.start();
+        nodes = 0;
+        int count = root.legalMoves(moves);
+        if (count <= 1) {
+            // Forced: nothing to search
+            int move = count == 0 ? Moves.NONE : moves[0];
+            event.finish("MonteCarloBot", 0, 0, 0, move);
+            return move;
+        }
+        if (scratch == null || scratch.totalCards() != root.totalCards()) {
+            scratch = new GameState(root);
+        }
+        for (int i = 0; i < count; i++) {
+            totals[i] = 0;
+            visits[i] = 0;
+        }
+
+        int me = root.current();
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long iterations = 0;
+        while (!cancelled.getAsBoolean()) {
+            int pick = select(count, iterations);
+            scratch.copyFrom(root);
+            scratch.determinize(me, rng);
+            scratch.apply(moves[pick]);
+            totals[pick] += rollout(scratch, me);
+            visits[pick]++;
+            iterations++;
+
+            if (iterations % PROGRESS_INTERVAL == 0) {
+                long now = System.nanoTime();
+                if (listener != null) {
+                    int best = bestIndex(count);
+                    listener.onProgress(iterations, moves[best], totals[best] / visits[best],
+                        Math.min(1.0, (double) (now - start) / budgetNanos));
+                }
+                if (now >= deadline) {
+                    break;
+                }
+            }
+        }
+        int move = moves[bestIndex(count)];
+        event.finish("MonteCarloBot", iterations, nodes, 0, move);
+        return move;
+    }
+
+    // Positions played through by the last search's rollouts
+    public long lastNodeCount() { return nodes; }
+
+    private int select(int count, long iterations) {
+        if (iterations < count) {
+            return (int) iterations;
+        }
+        double logN = Math.log(iterations);
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double score = totals[i] / visits[i] + EXPLORATION * Math.sqrt(logN / visits[i]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Most visited move, the usual robust choice for UCB
+    private int bestIndex(int count) {
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Plays on with the rollout policy and maps the outcome to [0, 1] for the given player
+    private double rollout(GameState state, int player) {
+        int limit = state.turn() + MAX_ROLLOUT_TURNS;
+        while (!state.isOver() && state.turn() < limit) {
+            state.apply(rolloutPolicy.chooseMove(state, rng));
+            nodes++;
+        }
+        return (Heuristic.evaluate(state, player) + 1) / 2;
+    }
+}
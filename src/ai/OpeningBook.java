@@ -0,0 +1,282 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.DeckComposition;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Moves;
+import sim.Policy;
+import sim.Rng;
+
+/**
+ * Precomputed best moves for the first plies of a game, read from a
+ * memory-mapped file so a lookup touches a few pages instead of loading the
+ * book onto the heap.
+ *
+ * Positions are keyed from the mover's point of view: the hand as an
+ * unordered set, the organs on the table, the player to move and the turn.
+ * A move is stored as the card code to play or discard rather than a hand
+ * slot, so it applies to any ordering of the same hand.
+ *
+ * File layout (big endian): magic, version, plies, entry count, then entries
+ * sorted by key, each a long key, a byte move type, a byte card code, a byte
+ * target, a pad byte and a float value in [-1, 1].
+ */
+public final class OpeningBook {
+    private static final int MAGIC = 0x564F424B; // "VOBK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer entries;
+    private final int plies;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer entries, int plies, int size) {
+        this.entries = entries;
+        this.plies = plies;
+        this.size = size;
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                throw new IOException(file + " is not an opening book");
+            }
+            int plies = map.getInt(8);
+            int size = map.getInt(12);
+            if (map.capacity() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+                throw new IOException(file + " is truncated");
+            }
+            return new OpeningBook(map, plies, size);
+        }
+    }
+
+    public int plies() { return plies; }
+    public int size() { return size; }
+
+    // The book move for the current player, or Moves.NONE when the position is not in the book
+    public int lookup(GameState state) {
+        if (state.turn() >= plies || state.isOver()) {
+            return Moves.NONE;
+        }
+        int entry = find(key(state));
+        if (entry < 0) {
+            return Moves.NONE;
+        }
+        int offset = HEADER_BYTES + entry * ENTRY_BYTES + Long.BYTES;
+        int type = entries.get(offset);
+        int code = entries.get(offset + 1);
+        int target = entries.get(offset + 2);
+        int p = state.current();
+        for (int slot = 0; slot < state.handSize(p); slot++) {
+            if (state.handCard(p, slot) == code) {
+                int move = type == Moves.PLAY ? Moves.play(slot, target) : Moves.discard(slot);
+                return state.isLegal(move) ? move : Moves.NONE;
+            }
+        }
+        return Moves.NONE;
+    }
+
+    // Plays book moves while they last and asks fallback for everything else
+    public Policy policy(Policy fallback) {
+        return (state, rng) -> {
+            int move = lookup(state);
+            return move != Moves.NONE ? move : fallback.chooseMove(state, rng);
+        };
+    }
+
+    // Binary search over the mapped entries; absolute reads keep it safe to share between threads
+    private int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long k = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (k < key) {
+                low = mid + 1;
+            } else if (k > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Book key of the position as the current player sees it; the opponent's hand and the deck are not part of it
+    public static long key(GameState state) {
+        int p = state.current();
+        long hand = 0;
+        for (int i = 0; i < state.handSize(p); i++) {
+            hand += Rng.mix(0x2545F4914F6CDD1DL + state.handCard(p, i));
+        }
+        long h = Rng.mix(hand);
+        for (int q = 0; q < GameState.PLAYERS; q++) {
+            for (int c = 0; c < GameState.COLORS; c++) {
+                h = Rng.mix(h ^ (state.healthy(q, c) << 8 | state.infected(q, c)));
+            }
+        }
+        return Rng.mix(h ^ ((long) state.turn() << 8 | p));
+    }
+
+    /**
+     * Builds a book: deals seeds 1..deals, expands every legal line for the
+     * first plies to collect the distinct book positions, then searches each
+     * one with Monte Carlo rollouts on the given number of threads. The
+     * search of a position is seeded from its key and stops after a fixed
+     * number of rollouts, so the same arguments always write the same file.
+     */
+    public static int generate(Path file, DeckComposition composition, int deals, int plies,
+                               int rollouts, int threads) throws IOException, InterruptedException {
+        Map<Long, GameState> positions = new HashMap<>();
+        GameState deal = GameState.newGame(composition, 1);
+        for (int seed = 1; seed <= deals; seed++) {
+            deal.reset(seed);
+            collect(deal, plies, positions);
+        }
+
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        long[] sorted = new long[keys.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = keys.get(i);
+        }
+        Arrays.sort(sorted);
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + sorted.length * ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(plies).putInt(sorted.length);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>(sorted.length);
+            for (long key : sorted) {
+                GameState position = positions.get(key);
+                results.add(pool.submit(() -> search(position, key, rollouts)));
+            }
+            for (int i = 0; i < sorted.length; i++) {
+                long[] result = results.get(i).get();
+                GameState position = positions.get(sorted[i]);
+                int move = (int) result[0];
+                out.putLong(sorted[i]);
+                out.put((byte) Moves.type(move));
+                out.put((byte) position.handCard(position.current(), Moves.slot(move)));
+                out.put((byte) (Moves.type(move) == Moves.PLAY ? Moves.target(move) : 0));
+                out.put((byte) 0);
+                out.putFloat(Float.intBitsToFloat((int) result[1]));
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Book search failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        return sorted.length;
+    }
+
+    private static void collect(GameState state, int plies, Map<Long, GameState> positions) {
+        if (state.isOver() || state.turn() >= plies) {
+            return;
+        }
+        positions.putIfAbsent(key(state), new GameState(state));
+        int[] moves = new int[GameState.MAX_MOVES];
+        int count = state.legalMoves(moves);
+        GameState child = new GameState(state);
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(state);
+            child.apply(moves[i]);
+            collect(child, plies, positions);
+        }
+    }
+
+    // Best move and its value (as float bits) for one position
+    private static long[] search(GameState position, long key, int rollouts) {
+        MonteCarloBot bot = new MonteCarloBot(new GreedyPolicy(), key);
+        int[] done = {0};
+        double[] value = {0};
+        int move = bot.search(position, Long.MAX_VALUE / 2, () -> done[0]++ >= rollouts,
+            (iterations, best, bestValue, elapsed) -> value[0] = bestValue * 2 - 1);
+        return new long[] {move, Float.floatToIntBits((float) value[0])};
+    }
+
+    /**
+     * Usage: java ai.OpeningBook generate FILE [deals] [plies] [rollouts] [threads]
+     *        java ai.OpeningBook bench FILE [games] [budget-ms]
+     * bench plays expectimax with the book against expectimax without it and
+     * reports how much search time the book saved.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: OpeningBook generate FILE [deals] [plies] [rollouts] [threads]");
+            System.out.println("       OpeningBook bench FILE [games] [budget-ms]");
+            return;
+        }
+        Path file = Paths.get(args[1]);
+        if (args[0].equals("generate")) {
+            int deals = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+            int plies = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+            int rollouts = args.length > 4 ? Integer.parseInt(args[4]) : 4096;
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+            long start = System.nanoTime();
+            int written = generate(file, DeckComposition.STANDARD, deals, plies, rollouts, threads);
+            System.out.printf("%,d positions written to %s in %.1f s%n", written, file, (System.nanoTime() - start) / 1e9);
+            return;
+        }
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long budget = (args.length > 3 ? Long.parseLong(args[3]) : 20) * 1_000_000L;
+        OpeningBook book = open(file);
+        Policy booked = book.policy(new ExpectimaxBot(budget));
+        Policy plain = new ExpectimaxBot(budget);
+        GameState state = GameState.newGame(DeckComposition.STANDARD, 1);
+        Rng rng = new Rng(0);
+        int hits = 0;
+        int lookups = 0;
+        int bookWins = 0;
+        long lookupNanos = 0;
+        for (int g = 0; g < games; g++) {
+            boolean bookFirst = (g & 1) == 0;
+            // Seeds well past the generator's deals, so hits measure coverage rather than memory
+            state.reset(1_000_000 + g / 2);
+            while (!state.isOver()) {
+                boolean bookMoves = (state.current() == 0) == bookFirst;
+                if (bookMoves && state.turn() < book.plies()) {
+                    long start = System.nanoTime();
+                    int move = book.lookup(state);
+                    lookupNanos += System.nanoTime() - start;
+                    lookups++;
+                    if (move != Moves.NONE) {
+                        hits++;
+                    }
+                }
+                state.apply((bookMoves ? booked : plain).chooseMove(state, rng));
+            }
+            if (state.winner() == (bookFirst ? 0 : 1)) {
+                bookWins++;
+            }
+        }
+        System.out.printf("%,d positions, %d plies; %d of %d opening lookups hit (%.1f us each), %.0f ms of search saved%n",
+            book.size(), book.plies(), hits, lookups, lookupNanos / 1e3 / Math.max(1, lookups), hits * budget / 1e6);
+        System.out.printf("book side won %d of %d games%n", bookWins, games);
+    }
+}
@@ -0,0 +1,6 @@
+package ai;
+
+// Receives progress reports from a running search (called on the search thread)
+public interface SearchListener {
+    void onProgress(long iterations, int bestMove, double bestValue, double elapsedFraction);
+}
@@ -0,0 +1,171 @@
+package ai;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import sim.CardCodes;
+import sim.GameState;
+import sim.Heuristic;
+import sim.Rng;
+
+/**
+ * Small learned evaluation: one hidden ReLU layer over hand-made features of
+ * a position, with a tanh output in [-1, 1] from the evaluated player's side.
+ *
+ * The features only use what that player can see: both tables, their own
+ * hand, and the unseen pool (deck plus the opponent's hand) as counts per
+ * card code. The heuristic's own value is one more input, so the network
+ * learns a correction to it rather than starting from nothing. Finished
+ * games are scored exactly, like Heuristic does.
+ *
+ * Inference works in preallocated float arrays and never allocates. Like the
+ * policies, an instance keeps its own buffers and is not thread-safe; copy()
+ * gives another thread its own buffers over the same weights.
+ */
+public final class ValueNetwork implements Evaluator {
+    public static final int FEATURES = 2 * GameState.COLORS * 3 + 2 * CardCodes.CODE_LIMIT + 5;
+    private static final int MAGIC = 0x564E4554; // "VNET"
+
+    final int hidden;
+    // Hidden layer weights are stored feature-major: w1[f * hidden + h]
+    final float[] w1;
+    final float[] b1;
+    final float[] w2;
+    float b2;
+
+    private final float[] x = new float[FEATURES];
+    private final float[] activations;
+
+    public ValueNetwork(int hidden, long seed) {
+        this(hidden, new float[FEATURES * hidden], new float[hidden], new float[hidden], 0);
+        Rng rng = new Rng(seed);
+        float scale1 = (float) Math.sqrt(6.0 / (FEATURES + hidden));
+        for (int i = 0; i < w1.length; i++) {
+            w1[i] = (float) (rng.nextDouble() * 2 - 1) * scale1;
+        }
+        float scale2 = (float) Math.sqrt(6.0 / (hidden + 1));
+        for (int h = 0; h < hidden; h++) {
+            w2[h] = (float) (rng.nextDouble() * 2 - 1) * scale2;
+        }
+    }
+
+    private ValueNetwork(int hidden, float[] w1, float[] b1, float[] w2, float b2) {
+        this.hidden = hidden;
+        this.w1 = w1;
+        this.b1 = b1;
+        this.w2 = w2;
+        this.b2 = b2;
+        this.activations = new float[hidden];
+    }
+
+    // Another evaluator over the same weights with its own buffers, for use on another thread
+    public ValueNetwork copy() {
+        return new ValueNetwork(hidden, w1, b1, w2, b2);
+    }
+
+    @Override
+    public double evaluate(GameState state, int player) {
+        int winner = state.winner();
+        if (winner == player) return 1.0;
+        if (winner == 1 - player) return -1.0;
+        if (winner == GameState.DRAW) return 0.0;
+        features(state, player, x);
+        return Math.tanh(forward(x, activations));
+    }
+
+    // Output before the tanh; leaves the hidden activations in the given array
+    float forward(float[] input, float[] hiddenOut) {
+        int hidden = this.hidden;
+        float[] w1 = this.w1;
+        System.arraycopy(b1, 0, hiddenOut, 0, hidden);
+        for (int f = 0; f < FEATURES; f++) {
+            float v = input[f];
+            // Most features are zero; skipping them is most of the speed
+            if (v != 0) {
+                int row = f * hidden;
+                for (int h = 0; h < hidden; h++) {
+                    hiddenOut[h] += v * w1[row + h];
+                }
+            }
+        }
+        float out = b2;
+        for (int h = 0; h < hidden; h++) {
+            float a = hiddenOut[h];
+            if (a < 0) {
+                hiddenOut[h] = a = 0;
+            }
+            out += a * w2[h];
+        }
+        return out;
+    }
+
+    // Fills x with the features of the position as player sees it
+    static void features(GameState state, int player, float[] x) {
+        Arrays.fill(x, 0);
+        int n = 0;
+        for (int side = 0; side < 2; side++) {
+            int p = side == 0 ? player : 1 - player;
+            for (int c = 0; c < GameState.COLORS; c++) {
+                int healthy = state.healthy(p, c);
+                x[n++] = healthy > 0 ? 1 : 0;
+                x[n++] = healthy > 1 ? 1 : 0;
+                x[n++] = state.infected(p, c) > 0 ? 1 : 0;
+            }
+        }
+        int handBase = n;
+        for (int i = 0; i < state.handSize(player); i++) {
+            x[handBase + state.handCard(player, i)] += 1;
+        }
+        n += CardCodes.CODE_LIMIT;
+
+        int poolBase = n;
+        int opponent = 1 - player;
+        int pool = state.deckSize() + state.handSize(opponent);
+        if (pool > 0) {
+            float share = 1f / pool;
+            for (int i = 0; i < state.deckSize(); i++) {
+                x[poolBase + state.deckCard(i)] += share;
+            }
+            for (int i = 0; i < state.handSize(opponent); i++) {
+                x[poolBase + state.handCard(opponent, i)] += share;
+            }
+        }
+        n += CardCodes.CODE_LIMIT;
+
+        x[n++] = state.handSize(opponent) / (float) GameState.HAND_SIZE;
+        x[n++] = state.deckSize() / (float) state.totalCards();
+        x[n++] = state.current() == player ? 1 : 0;
+        x[n++] = (float) Heuristic.evaluate(state, player);
+        x[n] = 1;
+    }
+
+    public void save(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(FEATURES);
+        out.writeInt(hidden);
+        for (float w : w1) out.writeFloat(w);
+        for (float b : b1) out.writeFloat(b);
+        for (float w : w2) out.writeFloat(w);
+        out.writeFloat(b2);
+        out.flush();
+    }
+
+    public static ValueNetwork load(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC || in.readInt() != FEATURES) {
+            throw new IOException("Not a value network for this feature set");
+        }
+        int hidden = in.readInt();
+        float[] w1 = new float[FEATURES * hidden];
+        float[] b1 = new float[hidden];
+        float[] w2 = new float[hidden];
+        for (int i = 0; i < w1.length; i++) w1[i] = in.readFloat();
+        for (int i = 0; i < hidden; i++) b1[i] = in.readFloat();
+        for (int i = 0; i < hidden; i++) w2[i] = in.readFloat();
+        return new ValueNetwork(hidden, w1, b1, w2, in.readFloat());
+    }
+}
@@ -0,0 +1,285 @@
+package ai;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import model.DeckComposition;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Moves;
+import sim.Policy;
+import sim.RandomPolicy;
+import sim.Rng;
+
+/**
+ * Trains a ValueNetwork from self-play on the CPU and measures what it buys
+ * a search bot.
+ *
+ * Self-play uses the greedy policy with some random moves mixed in for
+ * variety. A few positions are sampled from each game and labelled with the
+ * final result from the mover's side. Training is plain stochastic gradient
+ * descent on the squared error of the tanh output, with a held-out tenth of
+ * the samples to watch for overfitting.
+ *
+ * Usage: java ai.ValueTrainer train FILE [games] [epochs] [hidden] [seed]
+ *        java ai.ValueTrainer bench FILE [games] [budget-ms]
+ */
+public final class ValueTrainer {
+    private static final int SAMPLES_PER_GAME = 8;
+    private static final double RANDOM_MOVE_RATE = 0.15;
+    private static final float LEARNING_RATE = 0.01f;
+
+    private final ValueNetwork network;
+    private final float[] gradHidden;
+    private final float[] activations;
+    private float[][] inputs;
+    private float[] targets;
+    private float[] heuristic;
+    private int samples;
+
+    private ValueTrainer(ValueNetwork network) {
+        this.network = network;
+        this.gradHidden = new float[network.hidden];
+        this.activations = new float[network.hidden];
+    }
+
+    // Plays games and keeps up to SAMPLES_PER_GAME positions from each, labelled with the result
+    private void selfPlay(int games, long seed) {
+        inputs = new float[games * SAMPLES_PER_GAME][ValueNetwork.FEATURES];
+        targets = new float[games * SAMPLES_PER_GAME];
+        heuristic = new float[games * SAMPLES_PER_GAME];
+        Policy greedy = new GreedyPolicy();
+        Policy random = new RandomPolicy();
+        Rng rng = new Rng(seed);
+        GameState state = GameState.newGame(DeckComposition.STANDARD, seed);
+        GameState[] history = new GameState[GameState.DEFAULT_MAX_TURNS + 1];
+        for (int g = 0; g < games; g++) {
+            state.reset(seed + g);
+            int plies = 0;
+            while (!state.isOver()) {
+                if (history[plies] == null) {
+                    history[plies] = new GameState(state);
+                } else {
+                    history[plies].copyFrom(state);
+                }
+                plies++;
+                Policy policy = rng.nextDouble() < RANDOM_MOVE_RATE ? random : greedy;
+                state.apply(policy.chooseMove(state, rng));
+            }
+            int winner = state.winner();
+            for (int k = 0; k < SAMPLES_PER_GAME && plies > 0; k++) {
+                GameState position = history[rng.nextInt(plies)];
+                int mover = position.current();
+                ValueNetwork.features(position, mover, inputs[samples]);
+                heuristic[samples] = (float) Evaluator.HEURISTIC.evaluate(position, mover);
+                targets[samples++] = winner == GameState.DRAW ? 0 : winner == mover ? 1 : -1;
+            }
+        }
+    }
+
+    private void train(int epochs, long seed) {
+        int validation = samples / 10;
+        int training = samples - validation;
+        int[] order = new int[training];
+        for (int i = 0; i < training; i++) {
+            order[i] = validation + i;
+        }
+        Rng rng = new Rng(seed);
+        System.out.printf("%,d samples; on the validation set always predicting 0 gives error %.4f, "
+            + "the heuristic's sign is right %.1f%% of the time%n", samples, baseline(0, validation),
+            100 * heuristicAccuracy(0, validation));
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            rng.shuffle(order, training);
+            float rate = LEARNING_RATE / (1 + 0.2f * (epoch - 1));
+            double loss = 0;
+            for (int i = 0; i < training; i++) {
+                loss += step(inputs[order[i]], targets[order[i]], rate);
+            }
+            System.out.printf("epoch %2d: training error %.4f, validation error %.4f, validation sign accuracy %.1f%%%n",
+                epoch, loss / training, error(0, validation), 100 * accuracy(0, validation));
+        }
+    }
+
+    // One SGD update on one sample; returns its squared error before the update
+    private double step(float[] x, float target, float rate) {
+        ValueNetwork net = network;
+        int hidden = net.hidden;
+        float y = (float) Math.tanh(net.forward(x, activations));
+        float error = y - target;
+        float gradOut = error * (1 - y * y);
+        for (int h = 0; h < hidden; h++) {
+            gradHidden[h] = activations[h] > 0 ? gradOut * net.w2[h] : 0;
+            net.w2[h] -= rate * gradOut * activations[h];
+        }
+        net.b2 -= rate * gradOut;
+        for (int h = 0; h < hidden; h++) {
+            net.b1[h] -= rate * gradHidden[h];
+        }
+        for (int f = 0; f < ValueNetwork.FEATURES; f++) {
+            float v = x[f];
+            if (v != 0) {
+                int row = f * hidden;
+                for (int h = 0; h < hidden; h++) {
+                    net.w1[row + h] -= rate * gradHidden[h] * v;
+                }
+            }
+        }
+        return error * error;
+    }
+
+    private double error(int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double d = Math.tanh(network.forward(inputs[i], activations)) - targets[i];
+            sum += d * d;
+        }
+        return sum / Math.max(1, to - from);
+    }
+
+    private double accuracy(int from, int to) {
+        int right = 0;
+        int counted = 0;
+        for (int i = from; i < to; i++) {
+            if (targets[i] != 0) {
+                counted++;
+                if ((network.forward(inputs[i], activations) > 0) == (targets[i] > 0)) {
+                    right++;
+                }
+            }
+        }
+        return (double) right / Math.max(1, counted);
+    }
+
+    private double heuristicAccuracy(int from, int to) {
+        int right = 0;
+        int counted = 0;
+        for (int i = from; i < to; i++) {
+            if (targets[i] != 0) {
+                counted++;
+                if ((heuristic[i] > 0) == (targets[i] > 0)) {
+                    right++;
+                }
+            }
+        }
+        return (double) right / Math.max(1, counted);
+    }
+
+    private double baseline(int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += targets[i] * targets[i];
+        }
+        return sum / Math.max(1, to - from);
+    }
+
+    public static ValueNetwork train(int games, int epochs, int hidden, long seed) {
+        ValueTrainer trainer = new ValueTrainer(new ValueNetwork(hidden, seed));
+        long start = System.nanoTime();
+        trainer.selfPlay(games, seed);
+        System.out.printf("self-play: %,d games in %.1f s%n", games, (System.nanoTime() - start) / 1e9);
+        start = System.nanoTime();
+        trainer.train(epochs, seed);
+        System.out.printf("training: %d epochs in %.1f s%n", epochs, (System.nanoTime() - start) / 1e9);
+        return trainer.network;
+    }
+
+    // Wraps MonteCarloBot with random rollouts as a policy with a fixed time budget
+    private static Policy rollouts(long budgetNanos, long seed) {
+        MonteCarloBot bot = new MonteCarloBot(new RandomPolicy(), seed);
+        return (state, rng) -> bot.search(state, budgetNanos, () -> false, null);
+    }
+
+    // Seat-swapped games between two policies; returns the first policy's score in [0, 1]
+    private static double match(Policy first, Policy second, int games) {
+        GameState state = GameState.newGame(DeckComposition.STANDARD, 1);
+        Rng rng = new Rng(7);
+        double score = 0;
+        for (int g = 0; g < games; g++) {
+            boolean swapped = (g & 1) == 1;
+            state.reset(1_000_000 + g / 2);
+            while (!state.isOver()) {
+                boolean firstMoves = (state.current() == 0) != swapped;
+                state.apply((firstMoves ? first : second).chooseMove(state, rng));
+            }
+            int winner = state.winner();
+            if (winner == GameState.DRAW) {
+                score += 0.5;
+            } else if ((winner == 0) != swapped) {
+                score += 1;
+            }
+        }
+        return score / games;
+    }
+
+    private static double timeEvaluations(Evaluator evaluator, GameState[] positions, int count) {
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += evaluator.evaluate(positions[i & (positions.length - 1)], i & 1);
+        }
+        return sum;
+    }
+
+    private static void bench(ValueNetwork network, int games, long budgetMs) {
+        long budget = budgetMs * 1_000_000L;
+        // Evaluations are timed over positions prepared beforehand, so only the evaluators are measured
+        GameState[] positions = new GameState[1024];
+        GameState state = GameState.newGame(DeckComposition.STANDARD, 3);
+        GreedyPolicy greedy = new GreedyPolicy();
+        Rng rng = new Rng(3);
+        for (int i = 0; i < positions.length; i++) {
+            if (state.isOver()) {
+                state.reset(i);
+            }
+            state.apply(greedy.chooseMove(state, rng));
+            positions[i] = new GameState(state);
+        }
+        int evaluations = 4_000_000;
+        double sink = 0;
+        for (int round = 0; round < 2; round++) {
+            sink += timeEvaluations(network, positions, evaluations / 4);
+            sink += timeEvaluations(Evaluator.HEURISTIC, positions, evaluations / 4);
+        }
+        long start = System.nanoTime();
+        sink += timeEvaluations(network, positions, evaluations);
+        long networkNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        sink += timeEvaluations(Evaluator.HEURISTIC, positions, evaluations);
+        long heuristicNanos = System.nanoTime() - start;
+        System.out.printf("evaluation: network %.0f ns, heuristic %.0f ns (checksum %.1f)%n",
+            (double) networkNanos / evaluations, (double) heuristicNanos / evaluations, sink);
+
+        System.out.printf("at %d ms per move, %d games each:%n", budgetMs, games);
+        System.out.printf("  expectimax+network   vs random rollouts: %.3f%n",
+            match(new ExpectimaxBot(network, budget), rollouts(budget, 11), games));
+        System.out.printf("  expectimax+heuristic vs random rollouts: %.3f%n",
+            match(new ExpectimaxBot(budget), rollouts(budget, 11), games));
+        System.out.printf("  expectimax+network   vs expectimax+heuristic: %.3f%n",
+            match(new ExpectimaxBot(network, budget), new ExpectimaxBot(budget), games));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ValueTrainer train FILE [games] [epochs] [hidden] [seed]");
+            System.out.println("       ValueTrainer bench FILE [games] [budget-ms]");
+            return;
+        }
+        if (args[0].equals("train")) {
+            int games = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+            int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+            int hidden = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+            long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+            ValueNetwork network = train(games, epochs, hidden, seed);
+            try (OutputStream out = new FileOutputStream(args[1])) {
+                network.save(out);
+            }
+            return;
+        }
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        long budgetMs = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        try (InputStream in = new FileInputStream(args[1])) {
+            bench(ValueNetwork.load(in), games, budgetMs);
+        }
+    }
+}
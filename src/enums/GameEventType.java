@@ -0,0 +1,15 @@
+package enums;
+
+// Things that happen at a table, in the order they can be published to spectators
+public enum GameEventType {
+    GAME_START,
+    DRAW,
+    ORGAN_PLACED,
+    INFECTION,
+    HEAL,
+    TREATMENT,
+    DISCARD,
+    RESHUFFLE,
+    TURN_END,
+    WIN
+}
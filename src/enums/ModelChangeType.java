@@ -0,0 +1,16 @@
+package enums;
+
+// Fine-grained changes to the card model, reported to ModelListeners
+public enum ModelChangeType {
+    HAND_CARD_ADDED,
+    HAND_CARD_REMOVED,
+    ORGAN_PLACED,
+    ORGAN_REMOVED,
+    ORGAN_INFECTED,
+    ORGAN_HEALED,
+    ORGAN_IMMUNIZED,
+    DECK_SIZE_CHANGED,
+    DISCARD_SIZE_CHANGED,
+    // Control showed the owner's hand to the opponent; card is null
+    HAND_REVEALED
+}
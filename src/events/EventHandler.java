@@ -0,0 +1,15 @@
+package events;
+
+// Callbacks for a ring subscriber, invoked on the subscriber's own thread
+public interface EventHandler<S> {
+    void onEvent(long sequence, long event);
+
+    // The subscriber fell too far behind (or just joined) and continues from this snapshot
+    void onResync(long sequence, S snapshot);
+
+    /*
+     * The subscriber was lapped and there was no newer snapshot to resync from: the events
+     * from sequence from up to (not including) to were lost, and delivery goes on from to.
+     */
+    void onGap(long from, long to);
+}
@@ -0,0 +1,150 @@
+package events;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-producer, multi-consumer broadcast ring of packed events.
+ *
+ * The producer never waits for anyone: it overwrites the oldest slot, so a
+ * publish is a handful of stores no matter how many subscribers there are.
+ * Each slot is guarded by a sequence number used as a seqlock; a subscriber
+ * that reads a slot the producer has already reused knows it was lapped and
+ * resyncs from the latest snapshot the producer published, then keeps reading
+ * events from the snapshot's sequence on. Without a newer snapshot it skips
+ * ahead and tells its handler which events it lost.
+ *
+ * @param <S> snapshot type, which must not change once published
+ */
+public final class EventRing<S> {
+    private static final long WRITING = -1;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray payloads;
+    private final AtomicReference<Snapshot<S>> latestSnapshot = new AtomicReference<>();
+    private volatile long published;
+    private long next;
+
+    private static final class Snapshot<S> {
+        final long sequence;
+        final S state;
+
+        Snapshot(long sequence, S state) {
+            this.sequence = sequence;
+            this.state = state;
+        }
+    }
+
+    public EventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.payloads = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, WRITING);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Producer only
+    public void publish(long event) {
+        long sequence = next;
+        int slot = (int) sequence & mask;
+        sequences.setOpaque(slot, WRITING);
+        VarHandle.storeStoreFence();
+        payloads.setOpaque(slot, event);
+        sequences.setRelease(slot, sequence);
+        next = sequence + 1;
+        published = next;
+    }
+
+    // Producer only: the state of the game after every event published so far
+    public void publishSnapshot(S state) {
+        latestSnapshot.set(new Snapshot<>(next, state));
+    }
+
+    // Sequence of the next event to be published
+    public long publishedCount() {
+        return published;
+    }
+
+    public Subscriber subscribe() {
+        return new Subscriber();
+    }
+
+    /**
+     * A reading position in the ring. Each subscriber must be polled by one
+     * thread at a time, but any number of subscribers can read concurrently.
+     */
+    public final class Subscriber {
+        private long cursor = -1;
+        private long resyncs;
+        private long gaps;
+        private long received;
+
+        // Delivers up to max events to the handler and returns how many were delivered
+        public int poll(EventHandler<S> handler, int max) {
+            if (cursor < 0) {
+                resync(handler);
+            }
+            int delivered = 0;
+            while (delivered < max) {
+                long sequence = cursor;
+                int slot = (int) sequence & mask;
+                long before = sequences.getAcquire(slot);
+                if (before != sequence) {
+                    if (published - capacity() > sequence) {
+                        // Lapped: the slot already holds a newer event
+                        resync(handler);
+                        return delivered;
+                    }
+                    // Not published yet
+                    return delivered;
+                }
+                long event = payloads.getOpaque(slot);
+                VarHandle.loadLoadFence();
+                if (sequences.getOpaque(slot) != sequence) {
+                    resync(handler);
+                    return delivered;
+                }
+                cursor = sequence + 1;
+                received++;
+                delivered++;
+                handler.onEvent(sequence, event);
+            }
+            return delivered;
+        }
+
+        private boolean resync(EventHandler<S> handler) {
+            Snapshot<S> snapshot = latestSnapshot.get();
+            if (snapshot != null && snapshot.sequence > cursor) {
+                resyncs++;
+                cursor = snapshot.sequence;
+                handler.onResync(snapshot.sequence, snapshot.state);
+                return true;
+            }
+            long from = cursor;
+            cursor = Math.max(0, published - capacity() / 2);
+            if (from >= 0 && cursor > from) {
+                // Lapped with no newer snapshot: events were lost, skip to the middle of the ring
+                resyncs++;
+                gaps++;
+                handler.onGap(from, cursor);
+            }
+            return true;
+        }
+
+        public long position() { return cursor; }
+        public long lag() { return published - Math.max(cursor, 0); }
+        public long resyncCount() { return resyncs; }
+        public long gapCount() { return gaps; }
+        public long receivedCount() { return received; }
+    }
+}
@@ -0,0 +1,66 @@
+package events;
+
+import enums.GameEventType;
+import sim.CardCodes;
+
+/**
+ * Packs a game event into one long so it can sit in a primitive ring slot:
+ * type (8 bits), player (8), card code (8), value (8) and turn (32).
+ */
+public final class GameEvents {
+    private static final GameEventType[] TYPES = GameEventType.values();
+
+    private GameEvents() {
+    }
+
+    public static long encode(GameEventType type, int player, int card, int value, int turn) {
+        return ((long) type.ordinal() << 56)
+            | ((long) (player & 0xFF) << 48)
+            | ((long) (card & 0xFF) << 40)
+            | ((long) (value & 0xFF) << 32)
+            | (turn & 0xFFFFFFFFL);
+    }
+
+    public static GameEventType type(long event) {
+        return TYPES[(int) (event >>> 56)];
+    }
+
+    // Player index, or -1 for table-wide events
+    public static int player(long event) {
+        return (byte) (event >>> 48);
+    }
+
+    public static int card(long event) {
+        return (int) (event >>> 40) & 0xFF;
+    }
+
+    public static int value(long event) {
+        return (int) (event >>> 32) & 0xFF;
+    }
+
+    public static int turn(long event) {
+        return (int) event;
+    }
+
+    public static String toString(long event) {
+        GameEventType type = type(event);
+        StringBuilder text = new StringBuilder();
+        text.append("turn ").append(turn(event)).append(": ").append(type);
+        if (player(event) >= 0) {
+            text.append(" player ").append(player(event) + 1);
+        }
+        switch (type) {
+            case DRAW:
+            case ORGAN_PLACED:
+            case INFECTION:
+            case HEAL:
+            case TREATMENT:
+            case DISCARD:
+                text.append(' ').append(CardCodes.toString(card(event)));
+                break;
+            default:
+                break;
+        }
+        return text.append(" (").append(value(event)).append(')').toString();
+    }
+}
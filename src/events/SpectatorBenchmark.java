@@ -0,0 +1,138 @@
+package events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import model.DeckComposition;
+import sim.GameState;
+import sim.Moves;
+import sim.RandomPolicy;
+import sim.Rng;
+
+/**
+ * Measures how much a crowd of spectators slows down the game thread.
+ * Plays random games at full speed for a while with no publisher, then again
+ * with a TablePublisher and the given number of subscriber threads, a tenth
+ * of which are deliberately slow so they get lapped and have to resync.
+ *
+ * Usage: java events.SpectatorBenchmark [spectators] [seconds]
+ */
+public final class SpectatorBenchmark {
+    private static final int BATCH = 256;
+
+    public static void main(String[] args) throws InterruptedException {
+        int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+        long duration = (long) (seconds * 1e9);
+
+        GameState game = GameState.newGame(DeckComposition.STANDARD, 1);
+        System.out.printf("No publisher:             %,12.0f moves/s%n", play(game, duration));
+
+        TablePublisher publisher = new TablePublisher(game);
+        EventRing<GameState> ring = publisher.ring();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<EventRing<GameState>.Subscriber> subscribers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < spectators; i++) {
+            EventRing<GameState>.Subscriber subscriber = ring.subscribe();
+            boolean slow = i % 10 == 9;
+            subscribers.add(subscriber);
+            Thread thread = new Thread(() -> spectate(subscriber, slow, running), "spectator-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        double withSpectators = play(game, duration);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long received = 0;
+        long resyncs = 0;
+        long gaps = 0;
+        for (EventRing<GameState>.Subscriber subscriber : subscribers) {
+            received += subscriber.receivedCount();
+            resyncs += subscriber.resyncCount();
+            gaps += subscriber.gapCount();
+        }
+        System.out.printf("With %d spectators:      %,12.0f moves/s%n", spectators, withSpectators);
+        System.out.printf("Events published %,d, delivered %,d, resyncs %,d (%,d with lost events)%n",
+            ring.publishedCount(), received, resyncs, gaps);
+    }
+
+    private static double play(GameState game, long duration) {
+        RandomPolicy policy = new RandomPolicy();
+        Rng rng = new Rng(7);
+        long seed = 1;
+        long moves = 0;
+        long start = System.nanoTime();
+        long end = start + duration;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 1000; i++) {
+                if (game.isOver()) {
+                    game.reset(++seed);
+                }
+                int move = policy.chooseMove(game, rng);
+                if (move != Moves.NONE) {
+                    game.apply(move);
+                }
+                moves++;
+            }
+        }
+        return moves / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void spectate(EventRing<GameState>.Subscriber subscriber, boolean slow, AtomicBoolean running) {
+        // A spectator view: just the organ count per player, rebuilt from snapshots
+        int[] organs = new int[GameState.PLAYERS];
+        // Set while the counts miss lost events, until the next snapshot or game start
+        boolean[] stale = new boolean[1];
+        EventHandler<GameState> view = new EventHandler<GameState>() {
+            @Override
+            public void onEvent(long sequence, long event) {
+                switch (GameEvents.type(event)) {
+                    case GAME_START:
+                        organs[0] = 0;
+                        organs[1] = 0;
+                        stale[0] = false;
+                        break;
+                    case ORGAN_PLACED:
+                        if (!stale[0]) {
+                            organs[GameEvents.player(event)]++;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            @Override
+            public void onResync(long sequence, GameState snapshot) {
+                stale[0] = false;
+                for (int p = 0; p < GameState.PLAYERS; p++) {
+                    organs[p] = 0;
+                    for (int c = 0; c < GameState.COLORS; c++) {
+                        organs[p] += snapshot.healthy(p, c) + snapshot.infected(p, c);
+                    }
+                }
+            }
+
+            @Override
+            public void onGap(long from, long to) {
+                stale[0] = true;
+            }
+        };
+
+        while (running.get()) {
+            int delivered = subscriber.poll(view, BATCH);
+            if (slow) {
+                LockSupport.parkNanos(2_000_000L);
+            } else if (delivered == 0) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package events;
+
+import enums.GameEventType;
+import interfaces.GameEventSink;
+import sim.GameState;
+
+/**
+ * Publishes everything that happens in one engine game to an EventRing, so
+ * spectators, loggers and metrics can follow the table. A snapshot copy of
+ * the state goes out at the start and end of every game and every few turns;
+ * the interval has to stay well below the ring capacity in events for lapped
+ * subscribers to resync without losing anything.
+ */
+public final class TablePublisher implements GameEventSink {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 8;
+
+    private final GameState game;
+    private final EventRing<GameState> ring;
+    private final int snapshotInterval;
+    private int turnsSinceSnapshot;
+
+    public TablePublisher(GameState game, int capacity, int snapshotInterval) {
+        this.game = game;
+        this.ring = new EventRing<>(capacity);
+        this.snapshotInterval = snapshotInterval;
+        game.setEventSink(this);
+        ring.publishSnapshot(new GameState(game));
+    }
+
+    public TablePublisher(GameState game) {
+        this(game, DEFAULT_CAPACITY, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    public EventRing<GameState> ring() {
+        return ring;
+    }
+
+    @Override
+    public void onEvent(GameEventType type, int player, int card, int value, int turn) {
+        ring.publish(GameEvents.encode(type, player, card, value, turn));
+        boolean snapshot = type == GameEventType.GAME_START || type == GameEventType.WIN
+            || (type == GameEventType.TURN_END && ++turnsSinceSnapshot >= snapshotInterval);
+        if (snapshot) {
+            ring.publishSnapshot(new GameState(game));
+            turnsSinceSnapshot = 0;
+        }
+    }
+}
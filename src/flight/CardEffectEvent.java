@@ -0,0 +1,65 @@
+package flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import model.Card;
+import model.CardTypes;
+import model.Player;
+import sim.CardCodes;
+
+// A card played for its effect, including any choices the player made on the way
+@Name("virus.CardEffect")
+@Label("Card Effect")
+@Category({"Virus", "Game"})
+@Description("A card played for its effect; applied is false when the play was cancelled or refused")
+@Enabled(false)
+@StackTrace(false)
+public final class CardEffectEvent extends jdk.jfr.Event {
+    public static final String PLAY_ORGAN = "playOrgan";
+    public static final String PLAY_VIRUS = "playVirus";
+    public static final String PLAY_MEDICINA = "playMedicina";
+    public static final String APPLY_TREATMENT = "SpecialTreatment.apply";
+
+    @Label("Effect")
+    String effect;
+
+    @Label("Player")
+    String player;
+
+    @Label("Card")
+    String card;
+
+    @Label("Applied")
+    boolean applied;
+
+    // The effect a card has when played, for callers that apply it in one place
+    public static String effectOf(Card card) {
+        switch (card.getTypeId()) {
+            case CardTypes.ORGAN: return PLAY_ORGAN;
+            case CardTypes.VIRUS: return PLAY_VIRUS;
+            case CardTypes.MEDICINA: return PLAY_MEDICINA;
+            default: return APPLY_TREATMENT;
+        }
+    }
+
+    public static CardEffectEvent start() {
+        CardEffectEvent event = new CardEffectEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String effect, Player player, Card card, boolean applied) {
+        end();
+        if (shouldCommit()) {
+            this.effect = effect;
+            this.player = player.getName();
+            this.card = CardCodes.toString(CardCodes.encode(card));
+            this.applied = applied;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// The discard pile shuffled back into an empty deck
+@Name("virus.Reshuffle")
+@Label("Reshuffle")
+@Category({"Virus", "Game"})
+@Description("The discard pile shuffled back into the empty deck")
+@Enabled(false)
+@StackTrace(false)
+public final class ReshuffleEvent extends jdk.jfr.Event {
+    @Label("Cards")
+    int cards;
+
+    public static ReshuffleEvent start() {
+        ReshuffleEvent event = new ReshuffleEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(int cards) {
+        end();
+        if (shouldCommit()) {
+            this.cards = cards;
+            commit();
+        }
+    }
+}
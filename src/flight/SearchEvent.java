@@ -0,0 +1,55 @@
+package flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import sim.Moves;
+
+/**
+ * One bot search for a move. Iterations are rollouts for MonteCarloBot and
+ * deepening passes for ExpectimaxBot; nodes are the positions either visited.
+ */
+@Name("virus.Search")
+@Label("AI Search")
+@Category({"Virus", "AI"})
+@Description("A bot's search for one move")
+@Enabled(false)
+@StackTrace(false)
+public final class SearchEvent extends jdk.jfr.Event {
+    @Label("Bot")
+    String bot;
+
+    @Label("Iterations")
+    long iterations;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Completed Depth")
+    @Description("Deepest full pass of a depth-limited search, 0 for sampling")
+    int depth;
+
+    @Label("Move")
+    String move;
+
+    public static SearchEvent start() {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String bot, long iterations, long nodes, int depth, int move) {
+        end();
+        if (shouldCommit()) {
+            this.bot = bot;
+            this.iterations = iterations;
+            this.nodes = nodes;
+            this.depth = depth;
+            this.move = Moves.toString(move);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import model.Player;
+
+/**
+ * One player's turn, from the moment it starts until play passes on.
+ *
+ * Like every event in this package it is disabled by default; while it is off
+ * start() and finish() do nothing the JIT cannot remove. scripts/virus.jfc
+ * turns them all on for a recording:
+ *
+ *   java -XX:StartFlightRecording:settings=default,settings=scripts/virus.jfc,filename=game.jfr ...
+ */
+@Name("virus.Turn")
+@Label("Turn")
+@Category({"Virus", "Game"})
+@Description("A player's turn, from its start until play passes on")
+@Enabled(false)
+@StackTrace(false)
+public final class TurnEvent extends jdk.jfr.Event {
+    @Label("Turn")
+    int turn;
+
+    @Label("Player")
+    String player;
+
+    @Label("Deck Size")
+    @Description("Cards left in the deck when the turn ended")
+    int deckSize;
+
+    public static TurnEvent start() {
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(int turn, Player player, int deckSize) {
+        end();
+        if (shouldCommit()) {
+            this.turn = turn;
+            this.player = player.getName();
+            this.deckSize = deckSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package gui;
+
+import ai.MonteCarloBot;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import sim.GameState;
+import sim.GreedyPolicy;
+
+/**
+ * Runs the computer player's search on a background thread so the event
+ * thread stays free. Progress reaches the EDT at most every 50ms and only one
+ * update is queued at a time, so the EDT never does more than set a bar value.
+ * All methods except the worker body must be called on the EDT.
+ */
+class BackgroundSearch {
+    private static final long PROGRESS_INTERVAL_NANOS = 50_000_000L;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "computer-player");
+        t.setDaemon(true);
+        return t;
+    });
+    private final MonteCarloBot bot = new MonteCarloBot(new GreedyPolicy(), System.nanoTime());
+    private Task running;
+
+    private static final class Task {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicBoolean progressQueued = new AtomicBoolean();
+        volatile long lastProgress;
+    }
+
+    boolean isRunning() {
+        return running != null;
+    }
+
+    // Starts searching from root; onMove is called on the EDT unless the search is cancelled first
+    void start(GameState root, long budgetNanos, JProgressBar progressBar, IntConsumer onMove) {
+        cancel();
+        Task task = new Task();
+        running = task;
+        progressBar.setValue(0);
+        progressBar.setString("Thinking...");
+        progressBar.setVisible(true);
+
+        executor.execute(() -> {
+            if (task.cancelled.get()) {
+                return;
+            }
+            int move = bot.search(root, budgetNanos, task.cancelled::get, (iterations, bestMove, bestValue, fraction) -> {
+                long now = System.nanoTime();
+                if (now - task.lastProgress < PROGRESS_INTERVAL_NANOS || !task.progressQueued.compareAndSet(false, true)) {
+                    return;
+                }
+                task.lastProgress = now;
+                SwingUtilities.invokeLater(() -> {
+                    task.progressQueued.set(false);
+                    if (running == task) {
+                        progressBar.setValue((int) (fraction * 100));
+                        progressBar.setString(String.format("Thinking... %,d rollouts, %.0f%% to win", iterations, bestValue * 100));
+                    }
+                });
+            });
+
+            SwingUtilities.invokeLater(() -> {
+                if (running != task || task.cancelled.get()) {
+                    return;
+                }
+                running = null;
+                progressBar.setVisible(false);
+                onMove.accept(move);
+            });
+        });
+    }
+
+    void cancel() {
+        if (running != null) {
+            running.cancelled.set(true);
+            running = null;
+        }
+    }
+
+    void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,55 @@
+package gui;
+
+import java.awt.Component;
+import javax.swing.JDialog;
+import javax.swing.JOptionPane;
+
+/**
+ * Every dialog the game window opens goes through one of these, so a
+ * benchmark or a scripted run can answer prompts without a user.
+ */
+interface Dialogs {
+    Dialogs SWING = new Dialogs() {
+        @Override
+        public void showMessage(Component parent, Object message, String title, int messageType) {
+            JOptionPane.showMessageDialog(parent, message, title, messageType);
+        }
+
+        @Override
+        public String showInput(Component parent, Object message) {
+            return JOptionPane.showInputDialog(parent, message);
+        }
+
+        @Override
+        public Object showChoice(Component parent, Object message, String title, int messageType,
+                                 Object[] options, Object initial) {
+            return JOptionPane.showInputDialog(parent, message, title, messageType, null, options, initial);
+        }
+
+        @Override
+        public int showConfirm(Component parent, Object message, String title, int optionType) {
+            return JOptionPane.showConfirmDialog(parent, message, title, optionType);
+        }
+
+        @Override
+        public void showCustom(JDialog dialog) {
+            dialog.setVisible(true);
+        }
+    };
+
+    void showMessage(Component parent, Object message, String title, int messageType);
+
+    String showInput(Component parent, Object message);
+
+    Object showChoice(Component parent, Object message, String title, int messageType,
+                      Object[] options, Object initial);
+
+    int showConfirm(Component parent, Object message, String title, int optionType);
+
+    // Shows a dialog the window built itself (modal, so this blocks until it is closed)
+    void showCustom(JDialog dialog);
+
+    default void showMessage(Component parent, Object message) {
+        showMessage(parent, message, "Message", JOptionPane.INFORMATION_MESSAGE);
+    }
+}
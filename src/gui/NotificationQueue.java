@@ -0,0 +1,101 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import javax.swing.BorderFactory;
+import javax.swing.BoxLayout;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ * Non-modal notices shown as small toasts in a side panel. A notice is posted
+ * at most once per turn under its key, a new toast appears at most every
+ * SHOW_INTERVAL_MS with the rest waiting in a queue, and each toast goes away
+ * by itself after DISPLAY_MS. Nothing here blocks the EDT; all methods must be
+ * called on it.
+ */
+class NotificationQueue {
+    private static final int SHOW_INTERVAL_MS = 400;
+    private static final int DISPLAY_MS = 6000;
+    private static final int MAX_VISIBLE = 3;
+
+    private final JPanel panel = new JPanel();
+    private final ArrayDeque<JLabel> pending = new ArrayDeque<>();
+    private final ArrayDeque<Long> shownAt = new ArrayDeque<>();
+    private final Set<String> postedThisTurn = new HashSet<>();
+    private final Timer timer = new Timer(100, e -> tick());
+    private long turn = -1;
+    private long lastShown;
+
+    NotificationQueue() {
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBorder(BorderFactory.createTitledBorder("Notices"));
+    }
+
+    JPanel panel() {
+        return panel;
+    }
+
+    // Queues a notice unless one with the same key was already posted this turn
+    void post(long turn, String key, String title, String text, Color background) {
+        if (turn != this.turn) {
+            this.turn = turn;
+            postedThisTurn.clear();
+        }
+        if (!postedThisTurn.add(key)) {
+            return;
+        }
+        JLabel toast = new JLabel("<html><b>" + title + "</b><br>" + text + "</html>");
+        toast.setFont(new Font("Arial", Font.PLAIN, 12));
+        toast.setOpaque(true);
+        toast.setBackground(background);
+        toast.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(background.darker()),
+            BorderFactory.createEmptyBorder(4, 6, 4, 6)));
+        pending.add(toast);
+        tick();
+        timer.start();
+    }
+
+    // Removes everything, for a new game
+    void clear() {
+        pending.clear();
+        shownAt.clear();
+        postedThisTurn.clear();
+        panel.removeAll();
+        panel.revalidate();
+        panel.repaint();
+        timer.stop();
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        boolean changed = false;
+        while (!shownAt.isEmpty() && now - shownAt.peekFirst() >= DISPLAY_MS) {
+            shownAt.pollFirst();
+            panel.remove(0);
+            changed = true;
+        }
+        if (!pending.isEmpty() && now - lastShown >= SHOW_INTERVAL_MS) {
+            if (shownAt.size() == MAX_VISIBLE) {
+                shownAt.pollFirst();
+                panel.remove(0);
+            }
+            panel.add(pending.poll());
+            shownAt.add(now);
+            lastShown = now;
+            changed = true;
+        }
+        if (changed) {
+            panel.revalidate();
+            panel.repaint();
+        }
+        if (pending.isEmpty() && shownAt.isEmpty()) {
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package gui;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import javax.swing.JDialog;
+import javax.swing.JOptionPane;
+import javax.swing.JRootPane;
+import javax.swing.SwingUtilities;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Moves;
+import sim.Policy;
+import sim.Rng;
+
+/**
+ * Drives the game window through scripted games and measures the rendering
+ * work per action: applying the move with its incremental view updates,
+ * layout and painting the whole window, plus the cost of the full rebuilds
+ * (updateDisplay, updateGameBoard, updateCurrentPlayerHand) on the same
+ * positions. Dialogs are answered by a stub, moves come from the greedy
+ * policy, and allocation is measured per frame on the event thread.
+ *
+ * Every move, for either player, goes through playComputerMove, so the
+ * human paths (the card menus and their dialogs) are not measured. The
+ * background win estimate is off unless "estimate" is passed, since its
+ * rollouts would compete with the event thread for the CPU.
+ *
+ * It needs a display; on a build box run it under Xvfb:
+ *   xvfb-run -a java -cp out gui.RenderBenchmark [actions] [warmup] [seed] [estimate]
+ */
+public final class RenderBenchmark {
+    private static final String[] METRICS = {
+        "action", "layout", "paint", "updateDisplay", "updateGameBoard", "updateCurrentPlayerHand"
+    };
+    private static final int ACTION = 0, LAYOUT = 1, PAINT = 2, DISPLAY = 3, BOARD = 4, HAND = 5;
+
+    private final ScriptedDialogs dialogs = new ScriptedDialogs();
+    private final VirusBoardGUI gui;
+    private final Policy policy = new GreedyPolicy();
+    private final Rng rng;
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long[][] samples;
+    private final long[] allocations;
+    private final boolean estimate;
+    private BufferedImage image;
+    private int recorded;
+
+    private RenderBenchmark(int actions, long seed, boolean estimate) {
+        this.gui = new VirusBoardGUI(dialogs, new Random(seed));
+        this.estimate = estimate;
+        gui.setWinEstimates(estimate);
+        this.rng = new Rng(seed);
+        this.samples = new long[METRICS.length][actions];
+        this.allocations = new long[actions];
+    }
+
+    // Answers every prompt with its default, and "play again" with yes so games keep coming
+    private static final class ScriptedDialogs implements Dialogs {
+        int answered;
+        int games;
+
+        @Override
+        public void showMessage(Component parent, Object message, String title, int messageType) {
+            answered++;
+        }
+
+        @Override
+        public String showInput(Component parent, Object message) {
+            answered++;
+            return null;
+        }
+
+        @Override
+        public Object showChoice(Component parent, Object message, String title, int messageType,
+                                 Object[] options, Object initial) {
+            answered++;
+            return initial;
+        }
+
+        @Override
+        public int showConfirm(Component parent, Object message, String title, int optionType) {
+            answered++;
+            games++;
+            return JOptionPane.YES_OPTION;
+        }
+
+        @Override
+        public void showCustom(JDialog dialog) {
+            answered++;
+            dialog.dispose();
+        }
+    }
+
+    // One scripted action; runs on the EDT
+    private void step(boolean record) {
+        int move;
+        try {
+            GameState state = gui.toGameState();
+            move = policy.chooseMove(state, rng);
+        } catch (RuntimeException e) {
+            // Positions the engine cannot represent (GUI-only rules) are resolved with a discard
+            move = Moves.discard(0);
+        }
+
+        long board = time(gui::updateGameBoard);
+        long hand = time(gui::updateCurrentPlayerHand);
+        long display = time(gui::updateDisplay);
+        gui.validate();
+
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        gui.playComputerMove(move);
+        long applied = System.nanoTime();
+        gui.validate();
+        long laidOut = System.nanoTime();
+        paint();
+        long painted = System.nanoTime();
+        allocated = allocatedBytes() - allocated;
+
+        if (record) {
+            samples[ACTION][recorded] = applied - start;
+            samples[LAYOUT][recorded] = laidOut - applied;
+            samples[PAINT][recorded] = painted - laidOut;
+            samples[DISPLAY][recorded] = display;
+            samples[BOARD][recorded] = board;
+            samples[HAND][recorded] = hand;
+            allocations[recorded] = allocated;
+            recorded++;
+        }
+    }
+
+    private void paint() {
+        JRootPane root = gui.getRootPane();
+        int width = Math.max(1, root.getWidth());
+        int height = Math.max(1, root.getHeight());
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            root.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static long time(Runnable section) {
+        long start = System.nanoTime();
+        section.run();
+        return System.nanoTime() - start;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void report() {
+        System.out.printf("%d actions over %d finished games, %d dialogs stubbed, win estimate %s%n",
+            recorded, dialogs.games, dialogs.answered, estimate ? "on" : "off");
+        System.out.printf("%-24s %10s %10s %10s %10s %10s%n", "section (us)", "mean", "p50", "p90", "p99", "max");
+        for (int m = 0; m < METRICS.length; m++) {
+            long[] sorted = Arrays.copyOf(samples[m], recorded);
+            Arrays.sort(sorted);
+            System.out.printf("%-24s %10.1f %10.1f %10.1f %10.1f %10.1f%n", METRICS[m],
+                mean(sorted) / 1e3, percentile(sorted, 50) / 1e3, percentile(sorted, 90) / 1e3,
+                percentile(sorted, 99) / 1e3, sorted[recorded - 1] / 1e3);
+        }
+        long[] bytes = Arrays.copyOf(allocations, recorded);
+        Arrays.sort(bytes);
+        System.out.printf("%-24s %10.1f %10.1f %10.1f %10.1f %10.1f%n", "allocated per frame (KB)",
+            mean(bytes) / 1024, percentile(bytes, 50) / 1024.0, percentile(bytes, 90) / 1024.0,
+            percentile(bytes, 99) / 1024.0, bytes[recorded - 1] / 1024.0);
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long v : values) {
+            sum += v;
+        }
+        return sum / values.length;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int actions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        boolean estimate = args.length > 3 && args[3].equals("estimate");
+        if (actions < 1) {
+            System.out.println("At least one measured action is required.");
+            return;
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            System.out.println("No display available; run under Xvfb, e.g. xvfb-run -a java -cp out gui.RenderBenchmark");
+            System.exit(1);
+        }
+
+        RenderBenchmark[] holder = new RenderBenchmark[1];
+        SwingUtilities.invokeAndWait(() -> {
+            holder[0] = new RenderBenchmark(actions, seed, estimate);
+            holder[0].gui.setVisible(true);
+        });
+        RenderBenchmark benchmark = holder[0];
+
+        // One action per EDT task, so queued repaints and revalidations run between frames as they would live
+        for (int i = 0; i < warmup; i++) {
+            SwingUtilities.invokeAndWait(() -> benchmark.step(false));
+        }
+        for (int i = 0; i < actions; i++) {
+            SwingUtilities.invokeAndWait(() -> benchmark.step(true));
+        }
+        SwingUtilities.invokeAndWait(() -> {
+            benchmark.report();
+            benchmark.gui.dispose();
+        });
+        System.exit(0);
+    }
+}
@@ -1,12 +1,25 @@
 package gui; 
 import enums.Color; 
-import enums.TreatmentType; 
-import interfaces.SpecialTreatment; 
+import enums.ModelChangeType;
+import flight.CardEffectEvent;
+import flight.ReshuffleEvent;
+import flight.TurnEvent;
+import interfaces.CardHandler;
+import interfaces.ModelListener;
+import lobby.Leaderboard;
 import model.*; 
+import sim.CardCodes;
+import sim.CardPool;
+import sim.CardTracker;
+import sim.GameState;
+import sim.ModelStates;
+import sim.Moves;
 import javax.swing.*; 
 import java.awt.*; 
 import java.awt.event.ActionEvent; 
 import java.awt.event.ActionListener; 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.*; 
 import java.util.List; 
 
@@ -14,6 +27,22 @@ import java.util.List;
 public class VirusBoardGUI extends JFrame {
     private static final int NUM_PLAYERS = 2;
     private static final int REQUIRED_HAND_SIZE = 3;
+    private static final int COMPUTER_PLAYER_INDEX = 1;
+    private static final long COMPUTER_THINK_NANOS = 2_000_000_000L;
+    
+    private static final int[] DRAW_ODDS_KINDS = {CardTypes.ORGAN, CardTypes.VIRUS, CardTypes.MEDICINA};
+    private static final Color[] DRAW_ODDS_COLORS = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+    private static final int DRAW_ODDS_HORIZON = 3;
+    
+    // Card backgrounds indexed by Color ordinal
+    private static final java.awt.Color[] CARD_BACKGROUNDS = {
+        new java.awt.Color(255, 200, 200),
+        new java.awt.Color(200, 255, 200),
+        new java.awt.Color(200, 200, 255),
+        new java.awt.Color(255, 255, 200),
+        new java.awt.Color(255, 200, 255),
+        java.awt.Color.WHITE
+    };
     
     // Game components
     private List<Card> deck;
@@ -21,6 +50,10 @@ public class VirusBoardGUI extends JFrame {
     private List<Player> players;
     private Map<Player, List<Organ>> organsOnTable;
     private int currentPlayerIndex = 0;
+    private ModelEvents modelEvents;
+    
+    // Ratings of the two seats over every game played in this window
+    private final Leaderboard leaderboard = new Leaderboard(NUM_PLAYERS);
     
     // GUI components
     private JPanel mainPanel;
@@ -32,59 +65,80 @@ public class VirusBoardGUI extends JFrame {
     private JLabel currentPlayerLabel;
     private JScrollPane handScrollPane;
     private java.awt.Color[] playerColors = {java.awt.Color.LIGHT_GRAY, java.awt.Color.CYAN};
+    private JPanel[] organPanels;
+    private JLabel opponentInfoLabel;
+    private Player shownHandOwner;
+    private CardTracker[] trackers;
+    private JLabel[][] oddsCells;
+    private final ModelListener boardUpdater = new BoardUpdater();
+    private final Dialogs dialogs;
+    
+    // Computer player
+    private final BackgroundSearch computerSearch = new BackgroundSearch();
+    
+    // Win chances from background rollouts
+    private final WinEstimator winEstimator = new WinEstimator();
+    private boolean winEstimates = true;
+    private JLabel winChanceLabel;
+    private boolean afterActionQueued;
+    
+    // Consistent boards for readers off the event thread
+    private final SnapshotPublisher snapshots = new SnapshotPublisher();
+    
+    // Notices about the current hand, shown without blocking
+    private final NotificationQueue notifications = new NotificationQueue();
+    private int turnNumber;
+    private TurnEvent turnEvent;
+    private JCheckBox computerOpponentBox;
+    private JProgressBar thinkingBar;
+    private JLabel computerActionLabel;
+    
+    private final CardHandler<Player> playFromHand = new PlayFromHand();
+    private final CardHandler<Player> specialTreatments = new SpecialTreatmentEffects();
+    
+    // Every shuffle and random steal of the game, so a seeded generator replays it exactly
+    private final Random random;
     
     public VirusBoardGUI() {
+        this(Dialogs.SWING, new Random());
+    }
+    
+    VirusBoardGUI(Dialogs dialogs, Random random) {
+        this.dialogs = dialogs;
+        this.random = random;
         initializeGame();
         setupGUI();
-        updateDisplay();
+        rebuildDisplay();
     }
     
     private void initializeGame() {
+        this.modelEvents = new ModelEvents();
         this.organsOnTable = new HashMap<>();
-        this.discardPile = new ArrayList<>();
+        this.discardPile = modelEvents.newDiscardPile();
         initializeDeck();
         initializePlayers();
         dealInitialCards();
+        trackers = new CardTracker[players.size()];
+        for (int i = 0; i < trackers.length; i++) {
+            trackers[i] = new CardTracker(players.get(i), deck, discardPile, players);
+            modelEvents.addListener(trackers[i]);
+        }
+        snapshots.attach(modelEvents, deck, discardPile, players, organsOnTable);
+        turnEvent = TurnEvent.start();
     }
     
     private void initializeDeck() {
-        deck = new ArrayList<>();
-        
-        // Create organs of different colors
-        for (Color color : Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW)) {
-            for (int i = 0; i < 5; i++) {
-                deck.add(new Organ(color));
-            }
-        }
-
-        // Create viruses of different colors
-        for (Color color : Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW)) {
-            for (int i = 0; i < 4; i++) {
-                deck.add(new Virus(color));
-            }
-        }
-
-        // Add special treatments
-        deck.add(new Reikan());
-        deck.add(new Exchange());
-        deck.add(new Control());
-        
-        // Add medicines of different colors
-        for (Color color : Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW)) {
-            for (int i = 0; i < 2; i++) {
-                deck.add(new Medicina(color));
-            }
-        }
-
-        Collections.shuffle(deck);
+        deck = modelEvents.newDeck();
+        deck.addAll(DeckComposition.COMPACT.buildDeck());
+        Collections.shuffle(deck, random);
     }
     
     private void initializePlayers() {
         players = new ArrayList<>();
         for (int i = 0; i < NUM_PLAYERS; i++) {
-            Player player = new Player("Player " + (i + 1));
+            Player player = new Player("Player " + (i + 1), modelEvents);
             players.add(player);
-            organsOnTable.put(player, new ArrayList<>());
+            organsOnTable.put(player, modelEvents.newTable(player));
         }
     }
     
@@ -92,7 +146,7 @@ public class VirusBoardGUI extends JFrame {
         for (Player player : players) {
             for (int i = 0; i < REQUIRED_HAND_SIZE; i++) {
                 if (!deck.isEmpty()) {
-                    player.getHand().add(deck.remove(0));
+                    player.addCard(deck.remove(0));
                 }
             }
         }
@@ -103,6 +157,13 @@ public class VirusBoardGUI extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1200, 800);
         setLocationRelativeTo(null);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                computerSearch.shutdown();
+                winEstimator.shutdown();
+            }
+        });
         
         mainPanel = new JPanel(new BorderLayout());
         
@@ -114,6 +175,9 @@ public class VirusBoardGUI extends JFrame {
         statusPanel.add(currentPlayerLabel);
         statusPanel.add(Box.createHorizontalStrut(20));
         statusPanel.add(statusLabel);
+        statusPanel.add(Box.createHorizontalStrut(20));
+        winChanceLabel = new JLabel("Win chance: -");
+        statusPanel.add(winChanceLabel);
         
         // Game board (organs on table)
         gameBoard = new JPanel();
@@ -130,6 +194,25 @@ public class VirusBoardGUI extends JFrame {
         opponentPanel = new JPanel();
         opponentPanel.setBorder(BorderFactory.createTitledBorder("Opponent"));
         
+        // Draw odds for the current player, from the cards they have not seen
+        JPanel oddsPanel = new JPanel(new GridLayout(DRAW_ODDS_KINDS.length + 1, DRAW_ODDS_COLORS.length + 1, 6, 2));
+        oddsPanel.setBorder(BorderFactory.createTitledBorder("Draw odds (next / " + DRAW_ODDS_HORIZON + " draws)"));
+        oddsPanel.add(new JLabel(""));
+        for (Color color : DRAW_ODDS_COLORS) {
+            oddsPanel.add(new JLabel(color.name(), SwingConstants.CENTER));
+        }
+        oddsCells = new JLabel[DRAW_ODDS_KINDS.length][DRAW_ODDS_COLORS.length];
+        for (int k = 0; k < DRAW_ODDS_KINDS.length; k++) {
+            oddsPanel.add(new JLabel(CardTypes.label(DRAW_ODDS_KINDS[k])));
+            for (int c = 0; c < DRAW_ODDS_COLORS.length; c++) {
+                oddsCells[k][c] = new JLabel("", SwingConstants.CENTER);
+                oddsPanel.add(oddsCells[k][c]);
+            }
+        }
+        JPanel oddsHolder = new JPanel(new BorderLayout());
+        oddsHolder.add(oddsPanel, BorderLayout.NORTH);
+        oddsHolder.add(notifications.panel(), BorderLayout.CENTER);
+        
         // Action buttons panel
         actionPanel = new JPanel(new FlowLayout());
         setupActionButtons();
@@ -137,6 +220,7 @@ public class VirusBoardGUI extends JFrame {
         // Layout
         mainPanel.add(statusPanel, BorderLayout.NORTH);
         mainPanel.add(gameBoard, BorderLayout.CENTER);
+        mainPanel.add(oddsHolder, BorderLayout.EAST);
         
         JPanel bottomPanel = new JPanel(new BorderLayout());
         bottomPanel.add(opponentPanel, BorderLayout.NORTH);
@@ -155,33 +239,219 @@ public class VirusBoardGUI extends JFrame {
         JButton discardBtn = new JButton("Discard Card");
         JButton endTurnBtn = new JButton("End Turn");
         
-        playCardBtn.addActionListener(e -> playSelectedCard());
-        useSpecialBtn.addActionListener(e -> useSpecialTreatment());
-        useMedicineBtn.addActionListener(e -> useMedicine());
-        discardBtn.addActionListener(e -> discardSelectedCard());
-        endTurnBtn.addActionListener(e -> endTurn());
+        // Any user action takes over the turn, so a running computer search is cancelled first
+        playCardBtn.addActionListener(e -> { cancelComputerSearch(); playSelectedCard(); });
+        useSpecialBtn.addActionListener(e -> { cancelComputerSearch(); useSpecialTreatment(); });
+        useMedicineBtn.addActionListener(e -> { cancelComputerSearch(); useMedicine(); });
+        discardBtn.addActionListener(e -> { cancelComputerSearch(); discardSelectedCard(); });
+        endTurnBtn.addActionListener(e -> { cancelComputerSearch(); endTurn(); });
+        
+        computerOpponentBox = new JCheckBox("Computer plays Player " + (COMPUTER_PLAYER_INDEX + 1));
+        computerOpponentBox.addActionListener(e -> {
+            cancelComputerSearch();
+            maybeStartComputerTurn();
+        });
+        
+        thinkingBar = new JProgressBar(0, 100);
+        thinkingBar.setStringPainted(true);
+        thinkingBar.setPreferredSize(new Dimension(260, 20));
+        thinkingBar.setVisible(false);
+        computerActionLabel = new JLabel(" ");
         
         actionPanel.add(playCardBtn);
         actionPanel.add(useSpecialBtn);
         actionPanel.add(useMedicineBtn);
         actionPanel.add(discardBtn);
         actionPanel.add(endTurnBtn);
+        actionPanel.add(computerOpponentBox);
+        actionPanel.add(thinkingBar);
+        actionPanel.add(computerActionLabel);
+    }
+    
+    private boolean isComputerTurn() {
+        return computerOpponentBox.isSelected() && currentPlayerIndex == COMPUTER_PLAYER_INDEX;
+    }
+    
+    private void cancelComputerSearch() {
+        computerSearch.cancel();
+        thinkingBar.setVisible(false);
     }
     
-    private void updateDisplay() {
+    // Starts the computer player's search in the background when it is its turn
+    private void maybeStartComputerTurn() {
+        if (!isComputerTurn() || computerSearch.isRunning()) {
+            return;
+        }
+        GameState root;
+        try {
+            root = toGameState();
+        } catch (RuntimeException e) {
+            computerActionLabel.setText("Computer cannot play this position, please play its turn.");
+            return;
+        }
+        computerSearch.start(root, COMPUTER_THINK_NANOS, thinkingBar, this::playComputerMove);
+    }
+    
+    // The board as of the last finished action; safe to call from any thread
+    public BoardSnapshot getSnapshot() {
+        return snapshots.current();
+    }
+    
+    // The board as an engine position, throws if the engine cannot represent it
+    GameState toGameState() {
+        return ModelStates.fromBoard(deck, discardPile, players, organsOnTable, currentPlayerIndex);
+    }
+    
+    // Off for harnesses that time the event thread, so background rollouts do not compete for the CPU
+    void setWinEstimates(boolean enabled) {
+        winEstimates = enabled;
+        if (!enabled) {
+            winEstimator.cancel();
+            winChanceLabel.setText("Win chance: off");
+        }
+    }
+    
+    // Applies the computer's move without any dialogs and ends its turn
+    void playComputerMove(int move) {
+        Player computer = getCurrentPlayer();
+        Player opponent = getOpponent();
+        List<Card> hand = computer.getHand();
+        if (move == Moves.NONE || Moves.slot(move) >= hand.size()) {
+            computerActionLabel.setText(computer.getName() + " passed.");
+            endTurn();
+            return;
+        }
+        
+        Card card = hand.get(Moves.slot(move));
+        String action = "played " + getCardType(card) + " (" + card.getColor() + ")";
+        if (Moves.type(move) == Moves.DISCARD) {
+            computer.removeCard(card);
+            discardPile.add(card);
+            action = "discarded " + getCardType(card) + " (" + card.getColor() + ")";
+        } else {
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean applied = true;
+            switch (card.getTypeId()) {
+                case CardTypes.ORGAN:
+                    computer.removeCard(card);
+                    organsOnTable.get(computer).add((Organ) card);
+                    break;
+                case CardTypes.VIRUS:
+                    // The engine knows nothing of immunity, so its target may be immune here
+                    applied = false;
+                    for (Organ organ : organsOnTable.get(opponent)) {
+                        if (!organ.isInfected() && !organ.isImmunized() && organ.getColor() == card.getColor()) {
+                            organ.infect();
+                            applied = true;
+                            break;
+                        }
+                    }
+                    if (applied) {
+                        computer.removeCard(card);
+                        discardPile.add(card);
+                    }
+                    break;
+                case CardTypes.MEDICINA:
+                    applied = false;
+                    for (Organ organ : organsOnTable.get(computer)) {
+                        if (organ.isInfected() && organ.getColor() == card.getColor()) {
+                            organ.heal();
+                            applied = true;
+                            break;
+                        }
+                    }
+                    if (applied) {
+                        computer.removeCard(card);
+                        discardPile.add(card);
+                    }
+                    break;
+                case CardTypes.REIKAN:
+                    computer.removeCard(card);
+                    discardPile.add(card);
+                    computer.addCard(opponent.removeCard(Moves.target(move)));
+                    break;
+                case CardTypes.EXCHANGE:
+                    computer.removeCard(card);
+                    discardPile.add(card);
+                    computer.swapHands(opponent);
+                    break;
+                case CardTypes.CONTROL:
+                    computer.removeCard(card);
+                    discardPile.add(card);
+                    if (!opponent.getHand().isEmpty()) {
+                        computer.addCard(opponent.removeCard(random.nextInt(opponent.getHand().size())));
+                    }
+                    break;
+            }
+            effect.finish(CardEffectEvent.effectOf(card), computer, card, applied);
+            if (!applied) {
+                // Not a legal move on this board: keep the card and pass, as for no move at all
+                action = "passed";
+            }
+        }
+        
+        computerActionLabel.setText(computer.getName() + " " + action + ".");
+        endTurn();
+    }
+    
+    // Builds every view from scratch, then keeps them current from model changes
+    private void rebuildDisplay() {
         updateGameBoard();
         updateCurrentPlayerHand();
         updateOpponentInfo();
         updateStatusLabel();
+        updateDrawOdds();
+        modelEvents.addListener(boardUpdater);
+        updateDisplay();
+    }
+    
+    void updateDisplay() {
+        // Cards and organs are already up to date; only a new turn shows another hand
+        if (shownHandOwner != getCurrentPlayer()) {
+            updateCurrentPlayerHand();
+            updateOpponentInfo();
+            updateDrawOdds();
+        }
         currentPlayerLabel.setText("Current Player: " + getCurrentPlayer().getName());
         
         // Update panel backgrounds to show current player
         currentPlayerPanel.setBackground(playerColors[currentPlayerIndex]);
         
-        // Check for special cards and show notifications
-        checkForSpecialCards();
+        // Notices about special cards are for the human player only
+        if (!isComputerTurn()) {
+            checkForSpecialCards();
+        }
         
         repaint();
+        scheduleAfterAction();
+        maybeStartComputerTurn();
+    }
+    
+    // Publishes a snapshot and restarts the estimate once the current action has finished changing the board
+    private void scheduleAfterAction() {
+        if (afterActionQueued) {
+            return;
+        }
+        afterActionQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            afterActionQueued = false;
+            BoardSnapshot snapshot = snapshots.publish(turnNumber, currentPlayerIndex);
+            if (!winEstimates) {
+                return;
+            }
+            GameState root;
+            try {
+                root = ModelStates.fromSnapshot(snapshot);
+            } catch (RuntimeException e) {
+                winEstimator.cancel();
+                winChanceLabel.setText("Win chance: not available for this position");
+                return;
+            }
+            winEstimator.restart(root, (first, second, rollouts, finished) ->
+                winChanceLabel.setText(String.format("Win chance: %s %.0f%% | %s %.0f%% (%,d rollouts%s)",
+                    players.get(0).getName(), first * 100, players.get(1).getName(), second * 100,
+                    rollouts, finished ? "" : "...")));
+        });
     }
     
     private void checkForSpecialCards() {
@@ -190,10 +460,10 @@ public class VirusBoardGUI extends JFrame {
         boolean hasMedicine = false;
         
         for (Card card : currentPlayer.getHand()) {
-            if (card instanceof Reikan) {
+            if (card.getTypeId() == CardTypes.REIKAN) {
                 hasReikan = true;
             }
-            if (card instanceof Medicina) {
+            if (card.getTypeId() == CardTypes.MEDICINA) {
                 hasMedicine = true;
             }
         }
@@ -220,69 +490,20 @@ public class VirusBoardGUI extends JFrame {
     }
     
     private void showMedicineNotification() {
-        JOptionPane.showMessageDialog(this, 
-            "💊 ¡Tienes medicina disponible! 💊\n" +
-            "Puedes curar tus órganos infectados usando el botón 'Use Medicine'.",
-            "Medicina Disponible",
-            JOptionPane.INFORMATION_MESSAGE);
+        notifications.post(turnNumber, "medicine", "💊 Medicina disponible",
+            "Puedes curar tus órganos infectados con el botón 'Use Medicine'.",
+            new java.awt.Color(200, 255, 200));
     }
     
     private void showReikanNotification() {
-        // Create a custom dialog for Reikan notification
-        JDialog reikanDialog = new JDialog(this, "¡Carta Especial Detectada!", true);
-        reikanDialog.setSize(450, 350);
-        reikanDialog.setLocationRelativeTo(this);
-        
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        panel.setBackground(new java.awt.Color(255, 200, 255)); // Multicolor background
-        
-        // Title
-        JLabel titleLabel = new JLabel("🎴 CARTA ESPECIAL REIKAN 🎴");
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
-        titleLabel.setForeground(java.awt.Color.MAGENTA);
-        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        
-        // Description
-        JLabel descLabel = new JLabel("<html><center>¡Tienes la carta especial Reikan!<br><br>" +
-                                     "Esta poderosa carta te permite:<br>" +
-                                     "• Robar cualquier carta específica del oponente<br>" +
-                                     "• Ver todas las cartas disponibles<br>" +
-                                     "• Elegir exactamente la que necesitas<br><br>" +
-                                     "¡Úsala sabiamente para obtener ventaja!<br><br>" +
-                                     "Usa el botón 'Use Special Treatment' para jugarla.</center></html>");
-        descLabel.setFont(new Font("Arial", Font.PLAIN, 13));
-        descLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        
-        // Icon/Symbol
-        JLabel iconLabel = new JLabel("🌟✨🎯✨🌟");
-        iconLabel.setFont(new Font("Arial", Font.BOLD, 28));
-        iconLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        
-        // Button
-        JButton okButton = new JButton("¡Entendido!");
-        okButton.setFont(new Font("Arial", Font.BOLD, 14));
-        okButton.setBackground(java.awt.Color.MAGENTA);
-        okButton.setForeground(java.awt.Color.WHITE);
-        okButton.setAlignmentX(Component.CENTER_ALIGNMENT);
-        okButton.addActionListener(e -> reikanDialog.dispose());
-        
-        // Add components
-        panel.add(iconLabel);
-        panel.add(Box.createVerticalStrut(10));
-        panel.add(titleLabel);
-        panel.add(Box.createVerticalStrut(15));
-        panel.add(descLabel);
-        panel.add(Box.createVerticalStrut(20));
-        panel.add(okButton);
-        
-        reikanDialog.add(panel);
-        reikanDialog.setVisible(true);
+        notifications.post(turnNumber, "reikan", "🎴 Carta especial Reikan",
+            "Roba la carta que elijas del oponente con 'Use Special Treatment'.",
+            new java.awt.Color(255, 200, 255)); // Multicolor background
     }
     
-    private void updateGameBoard() {
+    void updateGameBoard() {
         gameBoard.removeAll();
+        organPanels = new JPanel[players.size()];
         
         for (int i = 0; i < players.size(); i++) {
             Player player = players.get(i);
@@ -301,39 +522,125 @@ public class VirusBoardGUI extends JFrame {
                 }
             }
             
+            organPanels[i] = playerOrganPanel;
             gameBoard.add(playerOrganPanel);
         }
         
         gameBoard.revalidate();
     }
     
-    private void updateCurrentPlayerHand() {
-        currentPlayerPanel.removeAll();
+    void updateCurrentPlayerHand() {
+        shownHandOwner = getCurrentPlayer();
         currentPlayerPanel.setLayout(new FlowLayout(FlowLayout.LEFT));
-        
-        Player currentPlayer = getCurrentPlayer();
-        for (int i = 0; i < currentPlayer.getHand().size(); i++) {
-            Card card = currentPlayer.getHand().get(i);
-            JPanel cardPanel = createCardPanel(card, i);
-            currentPlayerPanel.add(cardPanel);
+        refreshHandFrom(0);
+    }
+    
+    // Rebuilds the hand cards from index on; the ones before it keep their panels and numbers
+    private void refreshHandFrom(int index) {
+        while (currentPlayerPanel.getComponentCount() > index) {
+            currentPlayerPanel.remove(currentPlayerPanel.getComponentCount() - 1);
+        }
+        List<Card> hand = shownHandOwner.getHand();
+        for (int i = index; i < hand.size(); i++) {
+            currentPlayerPanel.add(createCardPanel(hand.get(i), i));
         }
-        
         currentPlayerPanel.revalidate();
+        currentPlayerPanel.repaint();
     }
     
     private void updateOpponentInfo() {
-        opponentPanel.removeAll();
-        opponentPanel.setLayout(new FlowLayout());
+        if (opponentInfoLabel == null) {
+            opponentPanel.setLayout(new FlowLayout());
+            opponentInfoLabel = new JLabel();
+            opponentInfoLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+            opponentPanel.add(opponentInfoLabel);
+        }
         
         Player opponent = getOpponent();
-        JLabel opponentInfo = new JLabel(String.format("%s: %d cards in hand, %d organs on table", 
+        opponentInfoLabel.setText(String.format("%s: %d cards in hand, %d organs on table", 
             opponent.getName(), 
             opponent.getHand().size(), 
             organsOnTable.get(opponent).size()));
-        opponentInfo.setFont(new Font("Arial", Font.PLAIN, 14));
-        
-        opponentPanel.add(opponentInfo);
-        opponentPanel.revalidate();
+    }
+    
+    // Replaces the panel of one player's organ, or adds / removes it
+    private void updateOrgan(ModelChangeType type, Player owner, Organ organ, int index) {
+        JPanel panel = organPanels[players.indexOf(owner)];
+        List<Organ> organs = organsOnTable.get(owner);
+        switch (type) {
+            case ORGAN_PLACED:
+                if (organs.size() == 1) {
+                    panel.removeAll();
+                }
+                panel.add(createOrganCard(organ), index);
+                break;
+            case ORGAN_REMOVED:
+                panel.remove(index);
+                if (organs.isEmpty()) {
+                    panel.add(new JLabel("No organs"));
+                }
+                break;
+            default:
+                index = organs.indexOf(organ);
+                panel.remove(index);
+                panel.add(createOrganCard(organ), index);
+                break;
+        }
+        panel.revalidate();
+        panel.repaint();
+    }
+    
+    // Applies each model change to the part of the window that shows it
+    private class BoardUpdater implements ModelListener {
+        @Override
+        public void onModelChange(ModelChangeType type, Player owner, Card card, int index) {
+            scheduleAfterAction();
+            switch (type) {
+                case HAND_CARD_ADDED:
+                case HAND_CARD_REMOVED:
+                    if (owner == shownHandOwner) {
+                        refreshHandFrom(index);
+                    } else {
+                        updateOpponentInfo();
+                        updateDrawOdds();
+                    }
+                    break;
+                case ORGAN_PLACED:
+                case ORGAN_REMOVED:
+                    updateOrgan(type, owner, (Organ) card, index);
+                    if (owner != shownHandOwner) {
+                        updateOpponentInfo();
+                    }
+                    break;
+                case ORGAN_INFECTED:
+                case ORGAN_HEALED:
+                case ORGAN_IMMUNIZED:
+                    updateOrgan(type, owner, (Organ) card, index);
+                    break;
+                case DECK_SIZE_CHANGED:
+                    updateStatusLabel();
+                    updateDrawOdds();
+                    break;
+                case DISCARD_SIZE_CHANGED:
+                    updateStatusLabel();
+                    break;
+            }
+        }
+    }
+    
+    // Constant time per cell: the tracker keeps the counts and the chances come from a precomputed table
+    private void updateDrawOdds() {
+        CardPool unseen = trackers[currentPlayerIndex].unseen();
+        for (int k = 0; k < DRAW_ODDS_KINDS.length; k++) {
+            for (int c = 0; c < DRAW_ODDS_COLORS.length; c++) {
+                int code = CardCodes.of(DRAW_ODDS_KINDS[k], DRAW_ODDS_COLORS[c].ordinal());
+                String text = Math.round(100 * unseen.chanceWithin(code, 1)) + "% / "
+                    + Math.round(100 * unseen.chanceWithin(code, DRAW_ODDS_HORIZON)) + "%";
+                if (!text.equals(oddsCells[k][c].getText())) {
+                    oddsCells[k][c].setText(text);
+                }
+            }
+        }
     }
     
     private void updateStatusLabel() {
@@ -362,7 +669,7 @@ public class VirusBoardGUI extends JFrame {
         cardPanel.add(Box.createVerticalGlue());
         cardPanel.add(typeLabel);
         cardPanel.add(colorLabel);
-        if (card instanceof Organ && ((Organ) card).isInfected()) {
+        if (card.getTypeId() == CardTypes.ORGAN && ((Organ) card).isInfected()) {
             JLabel infectedLabel = new JLabel("INFECTED", SwingConstants.CENTER);
             infectedLabel.setFont(new Font("Arial", Font.BOLD, 8));
             infectedLabel.setForeground(java.awt.Color.RED);
@@ -408,26 +715,11 @@ public class VirusBoardGUI extends JFrame {
     }
     
     private java.awt.Color getCardColor(Card card) {
-        switch (card.getColor()) {
-            case RED: return new java.awt.Color(255, 200, 200);
-            case GREEN: return new java.awt.Color(200, 255, 200);
-            case BLUE: return new java.awt.Color(200, 200, 255);
-            case YELLOW: return new java.awt.Color(255, 255, 200);
-            case MULTICOLOR: return new java.awt.Color(255, 200, 255);
-            default: return java.awt.Color.WHITE;
-        }
+        return CARD_BACKGROUNDS[card.getColor().ordinal()];
     }
     
     private String getCardType(Card card) {
-        if (card instanceof Organ) return "ORGAN";
-        if (card instanceof Virus) return "VIRUS";
-        if (card instanceof Medicina) return "MEDICINA";
-        if (card instanceof SpecialTreatment) {
-            SpecialTreatment treatment = (SpecialTreatment) card;
-            if (treatment instanceof Reikan) return "REIKAN";
-            return treatment.getType().toString();
-        }
-        return "CARD";
+        return CardTypes.label(card.getTypeId());
     }
     
     private Player getCurrentPlayer() {
@@ -439,7 +731,7 @@ public class VirusBoardGUI extends JFrame {
     }
     
     private void playSelectedCard() {
-        String input = JOptionPane.showInputDialog(this, 
+        String input = dialogs.showInput(this, 
             "Enter the number of the card to play (1-" + getCurrentPlayer().getHand().size() + "):");
         
         if (input == null || input.trim().isEmpty()) return;
@@ -449,31 +741,67 @@ public class VirusBoardGUI extends JFrame {
             Player currentPlayer = getCurrentPlayer();
             
             if (cardIndex < 0 || cardIndex >= currentPlayer.getHand().size()) {
-                JOptionPane.showMessageDialog(this, "Invalid card number!");
+                dialogs.showMessage(this, "Invalid card number!");
                 return;
             }
             
             Card selectedCard = currentPlayer.getHand().get(cardIndex);
-            
-            if (selectedCard instanceof Organ) {
-                playOrgan(currentPlayer, (Organ) selectedCard);
+            if (CardTypes.dispatch(selectedCard, currentPlayer, playFromHand)) {
                 endTurn();
-            } else if (selectedCard instanceof Virus) {
-                if (playVirus(currentPlayer, (Virus) selectedCard)) {
-                    endTurn();
-                }
-            } else {
-                JOptionPane.showMessageDialog(this, "Use 'Use Special Treatment' button for special cards or 'Use Medicine' for medicine cards!");
             }
         } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Please enter a valid number!");
+            dialogs.showMessage(this, "Please enter a valid number!");
+        }
+    }
+    
+    // Effects of the "Play Card" button; medicine and special treatments have their own buttons
+    private class PlayFromHand implements CardHandler<Player> {
+        @Override
+        public boolean onOrgan(Player player, Organ organ) {
+            CardEffectEvent effect = CardEffectEvent.start();
+            playOrgan(player, organ);
+            effect.finish(CardEffectEvent.PLAY_ORGAN, player, organ, true);
+            return true;
+        }
+        
+        @Override
+        public boolean onVirus(Player player, Virus virus) {
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean played = playVirus(player, virus);
+            effect.finish(CardEffectEvent.PLAY_VIRUS, player, virus, played);
+            return played;
+        }
+        
+        @Override
+        public boolean onMedicina(Player player, Medicina medicina) {
+            return useOtherButton();
+        }
+        
+        @Override
+        public boolean onReikan(Player player, Reikan reikan) {
+            return useOtherButton();
+        }
+        
+        @Override
+        public boolean onExchange(Player player, Exchange exchange) {
+            return useOtherButton();
+        }
+        
+        @Override
+        public boolean onControl(Player player, Control control) {
+            return useOtherButton();
+        }
+        
+        private boolean useOtherButton() {
+            dialogs.showMessage(VirusBoardGUI.this, "Use 'Use Special Treatment' button for special cards or 'Use Medicine' for medicine cards!");
+            return false;
         }
     }
     
     private void playOrgan(Player player, Organ organ) {
-        player.getHand().remove(organ);
+        player.removeCard(organ);
         organsOnTable.get(player).add(organ);
-        JOptionPane.showMessageDialog(this, "You placed a " + organ.getColor() + " organ on the table!");
+        dialogs.showMessage(this, "You placed a " + organ.getColor() + " organ on the table!");
     }
     
     private boolean playVirus(Player player, Virus virus) {
@@ -488,7 +816,7 @@ public class VirusBoardGUI extends JFrame {
         }
         
         if (healthyOrgans.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "The opponent has no healthy organs to infect!");
+            dialogs.showMessage(this, "The opponent has no healthy organs to infect!");
             return false;
         }
         
@@ -497,11 +825,10 @@ public class VirusBoardGUI extends JFrame {
             organOptions[i] = (i + 1) + ". " + healthyOrgans.get(i).getColor() + " ORGAN";
         }
         
-        String choice = (String) JOptionPane.showInputDialog(this, 
+        String choice = (String) dialogs.showChoice(this, 
             "Select an organ to infect:", 
             "Play Virus", 
             JOptionPane.QUESTION_MESSAGE, 
-            null, 
             organOptions, 
             organOptions[0]);
         
@@ -509,9 +836,10 @@ public class VirusBoardGUI extends JFrame {
             int organIndex = Integer.parseInt(choice.substring(0, 1)) - 1;
             Organ targetOrgan = healthyOrgans.get(organIndex);
             
-            player.getHand().remove(virus);
+            player.removeCard(virus);
+            discardPile.add(virus);
             targetOrgan.infect();
-            JOptionPane.showMessageDialog(this, "You infected " + opponent.getName() + "'s " + targetOrgan.getColor() + " organ!");
+            dialogs.showMessage(this, "You infected " + opponent.getName() + "'s " + targetOrgan.getColor() + " organ!");
             return true;
         }
         
@@ -525,14 +853,14 @@ public class VirusBoardGUI extends JFrame {
         
         for (int i = 0; i < currentPlayer.getHand().size(); i++) {
             Card card = currentPlayer.getHand().get(i);
-            if (card instanceof Medicina) {
+            if (card.getTypeId() == CardTypes.MEDICINA) {
                 medicines.add((Medicina) card);
                 medicineIndices.add(i);
             }
         }
         
         if (medicines.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "You don't have any medicine cards!");
+            dialogs.showMessage(this, "You don't have any medicine cards!");
             return;
         }
         
@@ -541,11 +869,10 @@ public class VirusBoardGUI extends JFrame {
             medicineOptions[i] = (i + 1) + ". MEDICINA (" + medicines.get(i).getColor() + ")";
         }
         
-        String choice = (String) JOptionPane.showInputDialog(this, 
+        String choice = (String) dialogs.showChoice(this, 
             "Select a medicine to use:", 
             "Use Medicine", 
             JOptionPane.QUESTION_MESSAGE, 
-            null, 
             medicineOptions, 
             medicineOptions[0]);
         
@@ -554,8 +881,11 @@ public class VirusBoardGUI extends JFrame {
             Medicina medicine = medicines.get(medicineIndex);
             
             // Use the medicine to heal an organ
-            if (useMedicineToHeal(medicine)) {
-                currentPlayer.getHand().remove(medicine);
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean healed = useMedicineToHeal(medicine);
+            effect.finish(CardEffectEvent.PLAY_MEDICINA, currentPlayer, medicine, healed);
+            if (healed) {
+                currentPlayer.removeCard(medicine);
                 discardPile.add(medicine);
                 endTurn();
             }
@@ -574,7 +904,7 @@ public class VirusBoardGUI extends JFrame {
         }
         
         if (infectedOrgans.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "You don't have any infected organs to heal!");
+            dialogs.showMessage(this, "You don't have any infected organs to heal!");
             return false;
         }
         
@@ -583,11 +913,10 @@ public class VirusBoardGUI extends JFrame {
             organOptions[i] = (i + 1) + ". " + infectedOrgans.get(i).getColor() + " ORGAN (INFECTED)";
         }
         
-        String choice = (String) JOptionPane.showInputDialog(this, 
+        String choice = (String) dialogs.showChoice(this, 
             "Select an infected organ to heal:", 
             "Heal Organ", 
             JOptionPane.QUESTION_MESSAGE, 
-            null, 
             organOptions, 
             organOptions[0]);
         
@@ -653,128 +982,149 @@ public class VirusBoardGUI extends JFrame {
         panel.add(okButton);
         
         healDialog.add(panel);
-        healDialog.setVisible(true);
+        dialogs.showCustom(healDialog);
     }
     
     private void useSpecialTreatment() {
         Player currentPlayer = getCurrentPlayer();
-        List<SpecialTreatment> treatments = new ArrayList<>();
+        List<Card> treatments = new ArrayList<>();
         List<Integer> treatmentIndices = new ArrayList<>();
         
         for (int i = 0; i < currentPlayer.getHand().size(); i++) {
             Card card = currentPlayer.getHand().get(i);
-            if (card instanceof SpecialTreatment) {
-                treatments.add((SpecialTreatment) card);
+            if (CardTypes.isSpecialTreatment(card.getTypeId())) {
+                treatments.add(card);
                 treatmentIndices.add(i);
             }
         }
         
         if (treatments.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "You don't have any special treatments!");
+            dialogs.showMessage(this, "You don't have any special treatments!");
             return;
         }
         
         String[] treatmentOptions = new String[treatments.size()];
         for (int i = 0; i < treatments.size(); i++) {
-            treatmentOptions[i] = (i + 1) + ". " + treatments.get(i).getType();
+            treatmentOptions[i] = (i + 1) + ". " + getCardType(treatments.get(i));
         }
         
-        String choice = (String) JOptionPane.showInputDialog(this, 
+        String choice = (String) dialogs.showChoice(this, 
             "Select a special treatment to use:", 
             "Use Special Treatment", 
             JOptionPane.QUESTION_MESSAGE, 
-            null, 
             treatmentOptions, 
             treatmentOptions[0]);
         
         if (choice != null) {
             int treatmentIndex = Integer.parseInt(choice.substring(0, 1)) - 1;
-            SpecialTreatment treatment = treatments.get(treatmentIndex);
+            Card treatment = treatments.get(treatmentIndex);
             
-            currentPlayer.getHand().remove(treatment);
+            currentPlayer.removeCard(treatment);
+            discardPile.add(treatment);
             
             // Apply the treatment using a custom implementation for GUI
-            applySpecialTreatmentGUI(treatment, currentPlayer);
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean applied = CardTypes.dispatch(treatment, currentPlayer, specialTreatments);
+            effect.finish(CardEffectEvent.APPLY_TREATMENT, currentPlayer, treatment, applied);
             
             endTurn();
         }
     }
     
-    private void applySpecialTreatmentGUI(SpecialTreatment treatment, Player currentPlayer) {
-        Player opponent = getOpponent();
+    // Effects of the "Use Special Treatment" button, the card has already left the hand
+    private class SpecialTreatmentEffects implements CardHandler<Player> {
+        @Override
+        public boolean onOrgan(Player currentPlayer, Organ organ) {
+            return false;
+        }
+        
+        @Override
+        public boolean onVirus(Player currentPlayer, Virus virus) {
+            return false;
+        }
         
-        if (treatment.getType() == TreatmentType.EXCHANGE) {
+        @Override
+        public boolean onMedicina(Player currentPlayer, Medicina medicina) {
+            return false;
+        }
+        
+        @Override
+        public boolean onExchange(Player currentPlayer, Exchange exchange) {
+            Player opponent = getOpponent();
             // Exchange hands
-            List<Card> tempHand = new ArrayList<>(currentPlayer.getHand());
-            currentPlayer.getHand().clear();
-            currentPlayer.getHand().addAll(opponent.getHand());
-            opponent.getHand().clear();
-            opponent.getHand().addAll(tempHand);
-            JOptionPane.showMessageDialog(this, "Hands exchanged with " + opponent.getName() + "!");
-            
-        } else if (treatment.getType() == TreatmentType.CONTROL) {
+            currentPlayer.swapHands(opponent);
+            dialogs.showMessage(VirusBoardGUI.this, "Hands exchanged with " + opponent.getName() + "!");
+            return true;
+        }
+        
+        @Override
+        public boolean onControl(Player currentPlayer, Control control) {
+            Player opponent = getOpponent();
             String[] options = {"Draw random card", "View opponent's hand"};
-            String choice = (String) JOptionPane.showInputDialog(this, 
+            String choice = (String) dialogs.showChoice(VirusBoardGUI.this, 
                 "Choose control action:", 
                 "Control", 
                 JOptionPane.QUESTION_MESSAGE, 
-                null, 
                 options, 
                 options[0]);
-            
+
             if (choice != null) {
                 if (choice.equals("Draw random card")) {
                     if (!opponent.getHand().isEmpty()) {
-                        Random random = new Random();
-                        Card stolenCard = opponent.getHand().remove(random.nextInt(opponent.getHand().size()));
-                        currentPlayer.getHand().add(stolenCard);
-                        JOptionPane.showMessageDialog(this, "You drew: " + getCardType(stolenCard) + " (" + stolenCard.getColor() + ")");
+                        Card stolenCard = opponent.removeCard(random.nextInt(opponent.getHand().size()));
+                        currentPlayer.addCard(stolenCard);
+                        dialogs.showMessage(VirusBoardGUI.this, "You drew: " + getCardType(stolenCard) + " (" + stolenCard.getColor() + ")");
                     } else {
-                        JOptionPane.showMessageDialog(this, "Opponent has no cards!");
+                        dialogs.showMessage(VirusBoardGUI.this, "Opponent has no cards!");
                     }
                 } else {
+                    opponent.revealHand();
                     StringBuilder handInfo = new StringBuilder(opponent.getName() + "'s hand:\n");
                     for (int i = 0; i < opponent.getHand().size(); i++) {
                         Card card = opponent.getHand().get(i);
                         handInfo.append((i + 1)).append(". ").append(getCardType(card))
                                .append(" (").append(card.getColor()).append(")\n");
                     }
-                    JOptionPane.showMessageDialog(this, handInfo.toString());
+                    dialogs.showMessage(VirusBoardGUI.this, handInfo.toString());
                 }
             }
-            
-        } else if (treatment.getType() == TreatmentType.INFORMATION) {
+            return true;
+        }
+        
+        @Override
+        public boolean onReikan(Player currentPlayer, Reikan reikan) {
+            Player opponent = getOpponent();
             // Reikan - steal specific card
             if (opponent.getHand().isEmpty()) {
-                JOptionPane.showMessageDialog(this, "Opponent has no cards to steal!");
-                return;
+                dialogs.showMessage(VirusBoardGUI.this, "Opponent has no cards to steal!");
+                return true;
             }
-            
+
             String[] cardOptions = new String[opponent.getHand().size()];
             for (int i = 0; i < opponent.getHand().size(); i++) {
                 Card card = opponent.getHand().get(i);
                 cardOptions[i] = (i + 1) + ". " + getCardType(card) + " (" + card.getColor() + ")";
             }
-            
-            String choice = (String) JOptionPane.showInputDialog(this, 
+
+            String choice = (String) dialogs.showChoice(VirusBoardGUI.this, 
                 "Select a card to steal from " + opponent.getName() + ":", 
                 "Information", 
                 JOptionPane.QUESTION_MESSAGE, 
-                null, 
                 cardOptions, 
                 cardOptions[0]);
-            
+
             if (choice != null) {
                 int cardIndex = Integer.parseInt(choice.substring(0, 1)) - 1;
-                Card stolenCard = opponent.getHand().remove(cardIndex);
-                currentPlayer.getHand().add(stolenCard);
-                JOptionPane.showMessageDialog(this, "You stole: " + getCardType(stolenCard) + " (" + stolenCard.getColor() + ")");
+                Card stolenCard = opponent.removeCard(cardIndex);
+                currentPlayer.addCard(stolenCard);
+                dialogs.showMessage(VirusBoardGUI.this, "You stole: " + getCardType(stolenCard) + " (" + stolenCard.getColor() + ")");
             }
+            return true;
         }
     }
     
     private void discardSelectedCard() {
-        String input = JOptionPane.showInputDialog(this, 
+        String input = dialogs.showInput(this, 
             "Enter the number of the card to discard (1-" + getCurrentPlayer().getHand().size() + "):");
         
         if (input == null || input.trim().isEmpty()) return;
@@ -784,22 +1134,25 @@ public class VirusBoardGUI extends JFrame {
             Player currentPlayer = getCurrentPlayer();
             
             if (cardIndex < 0 || cardIndex >= currentPlayer.getHand().size()) {
-                JOptionPane.showMessageDialog(this, "Invalid card number!");
+                dialogs.showMessage(this, "Invalid card number!");
                 return;
             }
             
-            Card discardedCard = currentPlayer.getHand().remove(cardIndex);
+            Card discardedCard = currentPlayer.removeCard(cardIndex);
             discardPile.add(discardedCard);
-            JOptionPane.showMessageDialog(this, "You discarded: " + getCardType(discardedCard) + " (" + discardedCard.getColor() + ")");
+            dialogs.showMessage(this, "You discarded: " + getCardType(discardedCard) + " (" + discardedCard.getColor() + ")");
             
             endTurn();
         } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Please enter a valid number!");
+            dialogs.showMessage(this, "Please enter a valid number!");
         }
     }
     
     private void endTurn() {
         drawCardFromDeck();
+        turnEvent.finish(turnNumber, getCurrentPlayer(), deck.size());
+        turnEvent = TurnEvent.start();
+        turnNumber++;
         currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
         
         if (checkWinCondition()) {
@@ -811,15 +1164,18 @@ public class VirusBoardGUI extends JFrame {
     
     private void drawCardFromDeck() {
         if (deck.isEmpty() && !discardPile.isEmpty()) {
+            ReshuffleEvent event = ReshuffleEvent.start();
+            int moved = discardPile.size();
             deck.addAll(discardPile);
             discardPile.clear();
-            Collections.shuffle(deck);
-            JOptionPane.showMessageDialog(this, "Deck reshuffled!");
+            Collections.shuffle(deck, random);
+            event.finish(moved);
+            dialogs.showMessage(this, "Deck reshuffled!");
         }
         
         if (!deck.isEmpty()) {
             Card drawnCard = deck.remove(0);
-            getCurrentPlayer().getHand().add(drawnCard);
+            getCurrentPlayer().addCard(drawnCard);
         }
     }
     
@@ -836,13 +1192,19 @@ public class VirusBoardGUI extends JFrame {
             }
             
             if (healthyOrganColors.size() >= 4) {
-                JOptionPane.showMessageDialog(this, 
+                leaderboard.recordWin(i, 1 - i);
+                StringBuilder ratings = new StringBuilder();
+                for (int p = 0; p < players.size(); p++) {
+                    ratings.append(String.format("%n#%d %s: %.0f after %d games", leaderboard.rank(p),
+                        players.get(p).getName(), leaderboard.rating(p), leaderboard.games(p)));
+                }
+                dialogs.showMessage(this, 
                     "🎉 " + player.getName() + " WINS! 🎉\n" +
-                    "They have 4 different healthy organs!", 
+                    "They have 4 different healthy organs!\n" + ratings, 
                     "Game Over", 
                     JOptionPane.INFORMATION_MESSAGE);
                 
-                int choice = JOptionPane.showConfirmDialog(this, 
+                int choice = dialogs.showConfirm(this, 
                     "Do you want to play again?", 
                     "Play Again?", 
                     JOptionPane.YES_NO_OPTION);
@@ -859,16 +1221,21 @@ public class VirusBoardGUI extends JFrame {
     }
     
     private void restartGame() {
+        cancelComputerSearch();
+        winEstimator.cancel();
+        notifications.clear();
+        modelEvents.removeListener(boardUpdater);
         currentPlayerIndex = 0;
+        turnNumber = 0;
         organsOnTable.clear();
         discardPile.clear();
         
         for (Player player : players) {
-            player.getHand().clear();
+            player.clearHand();
         }
         
         initializeGame();
-        updateDisplay();
+        rebuildDisplay();
     }
     
     public static void main(String[] args) {
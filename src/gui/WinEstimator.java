@@ -0,0 +1,127 @@
+package gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.swing.SwingUtilities;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Rng;
+
+/**
+ * Estimates each player's chance to win by playing the current position out
+ * with the greedy policy on a pool of low-priority worker threads. Hidden
+ * cards are re-dealt for every rollout from the point of view of the player
+ * to move, so the estimate never uses the opponent's real hand.
+ *
+ * Restarting cancels the running estimate. Results reach the EDT at most
+ * every 200ms with only one update queued at a time, and the listener just
+ * sets a label. All methods except the worker body must be called on the EDT.
+ */
+class WinEstimator {
+    private static final long PUBLISH_INTERVAL_NANOS = 200_000_000L;
+    private static final int MAX_ROLLOUTS = 20_000;
+    private static final int MAX_ROLLOUT_TURNS = 200;
+
+    // Receives the win chances of players 0 and 1 (draws count as neither) on the EDT
+    interface Listener {
+        void onEstimate(double first, double second, long rollouts, boolean finished);
+    }
+
+    private final int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private final ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+        Thread t = new Thread(r, "win-estimate");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private Task running;
+
+    private static final class Task {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicBoolean updateQueued = new AtomicBoolean();
+        final AtomicInteger activeWorkers = new AtomicInteger();
+        final LongAdder rollouts = new LongAdder();
+        final LongAdder[] wins = {new LongAdder(), new LongAdder()};
+        volatile long lastPublish;
+    }
+
+    void restart(GameState root, Listener listener) {
+        cancel();
+        Task task = new Task();
+        // The first update waits a full interval, so it is never based on a handful of games
+        task.lastPublish = System.nanoTime();
+        running = task;
+        task.activeWorkers.set(workers);
+        int share = (MAX_ROLLOUTS + workers - 1) / workers;
+        for (int w = 0; w < workers; w++) {
+            long seed = root.hash() + w;
+            pool.execute(() -> work(task, root, seed, share, listener));
+        }
+    }
+
+    private void work(Task task, GameState root, long seed, int rollouts, Listener listener) {
+        GameState state = new GameState(root);
+        GreedyPolicy policy = new GreedyPolicy();
+        Rng rng = new Rng(seed);
+        int viewer = root.current();
+        for (int i = 0; i < rollouts && !task.cancelled.get(); i++) {
+            state.copyFrom(root);
+            state.determinize(viewer, rng);
+            int limit = state.turn() + MAX_ROLLOUT_TURNS;
+            while (!state.isOver() && state.turn() < limit) {
+                state.apply(policy.chooseMove(state, rng));
+            }
+            int winner = state.winner();
+            if (winner == 0 || winner == 1) {
+                task.wins[winner].increment();
+            }
+            task.rollouts.increment();
+
+            long now = System.nanoTime();
+            if (now - task.lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                task.lastPublish = now;
+                publish(task, listener, false);
+            }
+        }
+        if (task.activeWorkers.decrementAndGet() == 0 && !task.cancelled.get()) {
+            publish(task, listener, true);
+        }
+    }
+
+    private void publish(Task task, Listener listener, boolean finished) {
+        if (!finished && !task.updateQueued.compareAndSet(false, true)) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!finished) {
+                task.updateQueued.set(false);
+            }
+            if (running != task) {
+                return;
+            }
+            long total = task.rollouts.sum();
+            if (total > 0) {
+                listener.onEstimate((double) task.wins[0].sum() / total, (double) task.wins[1].sum() / total,
+                    total, finished);
+            }
+            if (finished) {
+                running = null;
+            }
+        });
+    }
+
+    void cancel() {
+        if (running != null) {
+            running.cancelled.set(true);
+            running = null;
+        }
+    }
+
+    void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,66 @@
+package history;
+
+import sim.GameState;
+
+/**
+ * One finished game as kept by the MatchStore: both players by name, the deal
+ * seed and every move in engine encoding, so GameState.newGame with the same
+ * deck and seed replays it, the winning seat (or GameState.DRAW), the turns
+ * played and how long the game took.
+ */
+public final class MatchRecord {
+    private final long id;
+    private final String first;
+    private final String second;
+    private final long seed;
+    private final int[] moves;
+    private final int winner;
+    private final int turns;
+    private final long durationMillis;
+    private final long finishedAt;
+
+    public MatchRecord(String first, String second, long seed, int[] moves, int winner, int turns,
+                       long durationMillis, long finishedAt) {
+        this(0, first, second, seed, moves.clone(), winner, turns, durationMillis, finishedAt);
+    }
+
+    MatchRecord(long id, String first, String second, long seed, int[] moves, int winner, int turns,
+                long durationMillis, long finishedAt) {
+        this.id = id;
+        this.first = first;
+        this.second = second;
+        this.seed = seed;
+        this.moves = moves;
+        this.winner = winner;
+        this.turns = turns;
+        this.durationMillis = durationMillis;
+        this.finishedAt = finishedAt;
+    }
+
+    // Assigned by the store in append order; 0 for a record that was not read from a store
+    public long id() { return id; }
+    public String first() { return first; }
+    public String second() { return second; }
+    public long seed() { return seed; }
+    public int[] moves() { return moves.clone(); }
+    public int moveCount() { return moves.length; }
+    public int winner() { return winner; }
+    public int turns() { return turns; }
+    public long durationMillis() { return durationMillis; }
+    // Epoch milliseconds
+    public long finishedAt() { return finishedAt; }
+
+    int move(int i) { return moves[i]; }
+
+    // Name of the winner, or null after a draw
+    public String winnerName() {
+        return winner == 0 ? first : winner == 1 ? second : null;
+    }
+
+    @Override
+    public String toString() {
+        String result = winner == GameState.DRAW ? "draw" : winnerName() + " won";
+        return String.format("#%d %s vs %s, seed %d: %s after %d turns, %d moves, %.1f s",
+            id, first, second, seed, result, turns, moves.length, durationMillis / 1000.0);
+    }
+}
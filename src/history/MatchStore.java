@@ -0,0 +1,631 @@
+package history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import sim.GameState;
+
+/**
+ * Append-only store of finished matches in a local directory, sized for tens
+ * of millions of matches on one host without a database.
+ *
+ * Matches are appended to the active segment, each framed with its length
+ * and a CRC so a torn tail is cut off on the next open. The active segment
+ * is sealed when it reaches its size limit or age and gets an index file:
+ * one entry per player per match (player, opponent, record offset), sorted
+ * by player, opponent and offset. A head-to-head is then one binary-searched
+ * run per segment, walked newest first, and a player's recent matches merge
+ * that player's runs against each opponent; the history is never scanned.
+ * The active segment keeps per-player links in memory (SegmentIndex).
+ *
+ * Sealed segments are memory mapped and never modified. Compaction, on
+ * demand or in the background, merges runs of small sealed segments (left by
+ * age rolls and restarts) and drops matches past the retention period by
+ * writing new files and swapping them in, so readers are never blocked. The
+ * new index names the id range it replaces; a crash at any point leaves
+ * either the inputs or the output, and open() keeps whichever covers the range.
+ *
+ * Files: players.dat (see PlayerDictionary), and per segment BASE-GEN.seg and
+ * BASE-GEN.idx, where BASE is the first match id it covers in hex and GEN
+ * counts compactions. Record layout (big endian): length and CRC32C of the
+ * body, then id, seed, finish time, duration in ms, both player ids, the
+ * winning seat, turns, move count and the moves as shorts.
+ */
+public final class MatchStore implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    public static final long DEFAULT_ROLL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    static final int FRAME_HEADER = 8;
+    static final int BODY_FIXED = 41;
+    private static final String DATA = ".seg";
+    private static final String INDEX = ".idx";
+    private static final String TEMP = ".tmp";
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final long rollMillis;
+    private final PlayerDictionary names;
+    private final Object compactionLock = new Object();
+    // Oldest first; replaced, never modified, under this
+    private volatile SealedSegment[] sealed = new SealedSegment[0];
+
+    // Guarded by this
+    private long activeBase;
+    private FileChannel active;
+    private SegmentIndex activeIndex;
+    private long activeBytes;
+    private long activeSince;
+    private long nextId = 1;
+    private ScheduledExecutorService compactor;
+    private boolean closed;
+
+    private MatchStore(Path dir, long maxSegmentBytes, long rollMillis) throws IOException {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.rollMillis = rollMillis;
+        this.names = PlayerDictionary.open(dir.resolve("players.dat"));
+        recover();
+    }
+
+    public static MatchStore open(Path dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_BYTES, DEFAULT_ROLL_MILLIS);
+    }
+
+    public static MatchStore open(Path dir, long maxSegmentBytes, long rollMillis) throws IOException {
+        if (maxSegmentBytes <= 0 || maxSegmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1 byte and 2 GB: " + maxSegmentBytes);
+        }
+        Files.createDirectories(dir);
+        return new MatchStore(dir, maxSegmentBytes, rollMillis);
+    }
+
+    // Sorts out the files left by the last run, then continues its active segment
+    private void recover() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP)) {
+                    Files.delete(file);
+                } else if (name.endsWith(DATA)) {
+                    segments.add(file);
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + INDEX)) {
+            for (Path file : files) {
+                // An index without its segment is from a compaction that did not finish
+                if (!Files.exists(sibling(file, DATA))) {
+                    Files.delete(file);
+                }
+            }
+        }
+        // By first id, and of two segments starting at the same id the later compaction first
+        segments.sort(Comparator.comparingLong(MatchStore::base)
+            .thenComparing(Comparator.comparingInt(MatchStore::generation).reversed()));
+
+        List<SealedSegment> kept = new ArrayList<>();
+        long covered = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Path data = segments.get(i);
+            Path index = sibling(data, INDEX);
+            if (base(data) <= covered) {
+                // Input of a compaction whose output was already committed
+                delete(data, index);
+                continue;
+            }
+            if (Files.exists(index)) {
+                SealedSegment segment = SealedSegment.open(data, index, generation(data));
+                if (segment.version < SealedSegment.VERSION) {
+                    // Sorted the way an older version did; a crash here leaves it to rewrite again
+                    SegmentIndex rebuilt = new SegmentIndex();
+                    try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE)) {
+                        scan(channel, rebuilt);
+                    }
+                    writeIndex(rebuilt, index, segment.from, segment.to);
+                    segment = SealedSegment.open(data, index, generation(data));
+                }
+                kept.add(segment);
+                covered = segment.to;
+                continue;
+            }
+            FileChannel channel = FileChannel.open(data, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            SegmentIndex built = new SegmentIndex();
+            long end = scan(channel, built);
+            if (i == segments.size() - 1) {
+                activeBase = base(data);
+                active = channel;
+                activeIndex = built;
+                activeBytes = end;
+                covered = Math.max(covered, built.count() > 0 ? built.lastId() : activeBase - 1);
+            } else if (built.count() == 0) {
+                channel.close();
+                delete(data, index);
+            } else {
+                // A segment whose seal was interrupted
+                channel.force(false);
+                channel.close();
+                writeIndex(built, index, base(data), built.lastId());
+                SealedSegment segment = SealedSegment.open(data, index, generation(data));
+                kept.add(segment);
+                covered = segment.to;
+            }
+        }
+        sealed = kept.toArray(new SealedSegment[0]);
+        nextId = covered + 1;
+        if (active == null) {
+            startSegment();
+        }
+        activeSince = System.currentTimeMillis();
+    }
+
+    // Indexes the valid records of an unsealed segment and cuts off anything after them
+    private long scan(FileChannel channel, SegmentIndex index) throws IOException {
+        MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        int players = names.size();
+        int pos = 0;
+        while (pos + FRAME_HEADER + BODY_FIXED <= records.capacity()) {
+            int length = records.getInt(pos);
+            int body = pos + FRAME_HEADER;
+            if (length < BODY_FIXED || length > records.capacity() - body
+                    || length != BODY_FIXED + 2 * records.getChar(body + 39)
+                    || records.getInt(pos + 4) != crc(records, body, length)) {
+                break;
+            }
+            int a = records.getInt(body + 28);
+            int b = records.getInt(body + 32);
+            if (a >= players || b >= players) {
+                break;
+            }
+            index.add(pos, a, b, records.getLong(body), records.getLong(body + 16));
+            pos = body + length;
+        }
+        channel.truncate(pos);
+        return pos;
+    }
+
+    /*
+     * Appends a finished match and returns its id. Ids grow by one per match, so they
+     * also order matches by when they were stored.
+     */
+    public synchronized long append(MatchRecord match) throws IOException {
+        ensureOpen();
+        int a = names.id(match.first());
+        int b = names.id(match.second());
+        ByteBuffer frame = encode(match, nextId, a, b);
+        if (activeBytes > 0 && (activeBytes + frame.remaining() > maxSegmentBytes
+                || System.currentTimeMillis() - activeSince >= rollMillis)) {
+            seal();
+            startSegment();
+        }
+        long offset = activeBytes;
+        activeBytes += writeFully(active, frame, offset);
+        activeIndex.add((int) offset, a, b, nextId, match.finishedAt());
+        return nextId++;
+    }
+
+    private void seal() throws IOException {
+        names.force();
+        active.force(false);
+        active.close();
+        Path data = segmentPath(activeBase, 0);
+        Path index = sibling(data, INDEX);
+        writeIndex(activeIndex, index, activeBase, nextId - 1);
+        SealedSegment[] grown = Arrays.copyOf(sealed, sealed.length + 1);
+        grown[grown.length - 1] = SealedSegment.open(data, index, 0);
+        sealed = grown;
+    }
+
+    private void startSegment() throws IOException {
+        activeBase = nextId;
+        active = FileChannel.open(segmentPath(activeBase, 0), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeIndex = new SegmentIndex();
+        activeBytes = 0;
+        activeSince = System.currentTimeMillis();
+    }
+
+    // The player's matches, newest first
+    public List<MatchRecord> recent(String player, int limit) throws IOException {
+        return find(player, null, limit);
+    }
+
+    // Matches between the two players, in either seat, newest first
+    public List<MatchRecord> headToHead(String player, String opponent, int limit) throws IOException {
+        return find(player, opponent, limit);
+    }
+
+    private List<MatchRecord> find(String player, String opponent, int limit) throws IOException {
+        List<MatchRecord> found = new ArrayList<>();
+        int p = names.find(player);
+        int o = opponent == null ? -1 : names.find(opponent);
+        if (p < 0 || (opponent != null && o < 0)) {
+            return found;
+        }
+        SealedSegment[] segments;
+        synchronized (this) {
+            ensureOpen();
+            for (int m = activeIndex.latest(p); m >= 0 && found.size() < limit; m = activeIndex.previous(m, p)) {
+                if (o < 0 || activeIndex.opponent(m, p) == o) {
+                    found.add(readActive(activeIndex.offset(m)));
+                }
+            }
+            // Taken with the active matches, so a seal in between cannot hide or repeat any
+            segments = sealed;
+        }
+        for (int s = segments.length - 1; s >= 0 && found.size() < limit; s--) {
+            SealedSegment segment = segments[s];
+            if (o >= 0) {
+                int low = segment.lowerBound(p, o);
+                for (int e = segment.lowerBound(p, o + 1) - 1; e >= low && found.size() < limit; e--) {
+                    found.add(decode(segment.records(), segment.offset(e)));
+                }
+            } else {
+                addRecent(segment, p, limit, found);
+            }
+        }
+        return found;
+    }
+
+    // Merges the player's runs in a sealed segment, one per opponent, newest first
+    private void addRecent(SealedSegment segment, int player, int limit, List<MatchRecord> found) {
+        int low = segment.lowerBound(player, 0);
+        int high = segment.lowerBound(player + 1, 0);
+        // Heads of the runs by record offset, newest on top; each key is offset and entry
+        PriorityQueue<Long> heads = new PriorityQueue<>(Comparator.reverseOrder());
+        for (int e = low; e < high; e++) {
+            if (e == high - 1 || segment.opponent(e + 1) != segment.opponent(e)) {
+                heads.add((long) segment.offset(e) << 32 | e);
+            }
+        }
+        while (!heads.isEmpty() && found.size() < limit) {
+            long head = heads.poll();
+            int e = (int) head;
+            found.add(decode(segment.records(), (int) (head >>> 32)));
+            if (e > low && segment.opponent(e - 1) == segment.opponent(e)) {
+                heads.add((long) segment.offset(e - 1) << 32 | (e - 1));
+            }
+        }
+    }
+
+    private MatchRecord readActive(int offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        readFully(active, header, offset);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + header.getInt(0));
+        readFully(active, frame, offset);
+        return decode(frame, 0);
+    }
+
+    public synchronized long size() {
+        long matches = activeIndex.count();
+        for (SealedSegment segment : sealed) {
+            matches += segment.matches;
+        }
+        return matches;
+    }
+
+    public int segmentCount() {
+        return sealed.length + 1;
+    }
+
+    /*
+     * Merges runs of adjacent sealed segments that together fit one segment, and
+     * rewrites any segment holding matches older than retentionMillis without them
+     * (0 keeps everything). Returns the number of segments replaced. Safe to run
+     * while matches are appended and read.
+     */
+    public int compact(long retentionMillis) throws IOException {
+        synchronized (compactionLock) {
+            SealedSegment[] segments;
+            synchronized (this) {
+                ensureOpen();
+                segments = sealed;
+            }
+            long cutoff = retentionMillis > 0 ? System.currentTimeMillis() - retentionMillis : Long.MIN_VALUE;
+            int replaced = 0;
+            for (int i = 0; i < segments.length; ) {
+                long bytes = segments[i].bytes;
+                boolean expired = segments[i].oldest < cutoff;
+                int j = i + 1;
+                while (j < segments.length && bytes + segments[j].bytes <= maxSegmentBytes) {
+                    bytes += segments[j].bytes;
+                    expired |= segments[j].oldest < cutoff;
+                    j++;
+                }
+                if (j - i > 1 || expired) {
+                    rewrite(Arrays.copyOfRange(segments, i, j), cutoff);
+                    replaced += j - i;
+                }
+                i = j;
+            }
+            return replaced;
+        }
+    }
+
+    // Runs compact every periodMillis on a low priority daemon thread until the store is closed
+    public synchronized void compactInBackground(long periodMillis, long retentionMillis) {
+        ensureOpen();
+        if (compactor != null) {
+            throw new IllegalStateException("Background compaction is already running");
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "match-store-compactor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact(retentionMillis);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Match store compaction failed: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void rewrite(SealedSegment[] inputs, long cutoff) throws IOException {
+        SealedSegment head = inputs[0];
+        SealedSegment tail = inputs[inputs.length - 1];
+        int generation = 0;
+        for (SealedSegment input : inputs) {
+            generation = Math.max(generation, input.generation + 1);
+        }
+        Path data = segmentPath(head.from, generation);
+        Path index = sibling(data, INDEX);
+        Path dataTemp = temp(data);
+
+        SegmentIndex built = new SegmentIndex();
+        try (FileChannel out = FileChannel.open(dataTemp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            long written = 0;
+            for (SealedSegment input : inputs) {
+                ByteBuffer records = input.records();
+                for (int pos = 0; pos < input.bytes; ) {
+                    int body = pos + FRAME_HEADER;
+                    int length = records.getInt(pos);
+                    long finishedAt = records.getLong(body + 16);
+                    if (finishedAt >= cutoff) {
+                        if (buffer.remaining() < FRAME_HEADER + length) {
+                            buffer.flip();
+                            written += writeFully(out, buffer, written);
+                            buffer.clear();
+                        }
+                        built.add((int) (written + buffer.position()), records.getInt(body + 28),
+                            records.getInt(body + 32), records.getLong(body), finishedAt);
+                        buffer.put(records.slice(pos, FRAME_HEADER + length));
+                    }
+                    pos = body + length;
+                }
+            }
+            buffer.flip();
+            writeFully(out, buffer, written);
+            out.force(false);
+        }
+
+        SealedSegment output = null;
+        if (built.count() > 0) {
+            writeIndex(built, index, head.from, tail.to);
+            // Renaming the segment commits the compaction
+            Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+            output = SealedSegment.open(data, index, generation);
+        } else {
+            Files.delete(dataTemp);
+        }
+
+        synchronized (this) {
+            List<SealedSegment> swapped = new ArrayList<>(Arrays.asList(sealed));
+            int at = swapped.indexOf(head);
+            swapped.subList(at, at + inputs.length).clear();
+            if (output != null) {
+                swapped.add(at, output);
+            }
+            sealed = swapped.toArray(new SealedSegment[0]);
+        }
+        // Readers may still hold the old mappings, which stay valid after the files are gone
+        for (SealedSegment input : inputs) {
+            delete(input.data, input.index);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            stopping = compactor;
+        }
+        if (stopping != null) {
+            stopping.shutdown();
+        }
+        // Waits for a compaction in progress
+        synchronized (compactionLock) {
+            synchronized (this) {
+                active.force(false);
+                active.close();
+                names.force();
+                names.close();
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Match store is closed");
+        }
+    }
+
+    private static ByteBuffer encode(MatchRecord match, long id, int a, int b) {
+        int moves = match.moveCount();
+        if (moves > 0xFFFF || match.turns() > 0xFFFF) {
+            throw new IllegalArgumentException("Match too long to store: " + match);
+        }
+        int length = BODY_FIXED + 2 * moves;
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + length);
+        frame.putInt(length).putInt(0)
+            .putLong(id).putLong(match.seed()).putLong(match.finishedAt())
+            .putInt((int) Math.min(Integer.MAX_VALUE, match.durationMillis()))
+            .putInt(a).putInt(b)
+            .put((byte) match.winner()).putChar((char) match.turns()).putChar((char) moves);
+        for (int i = 0; i < moves; i++) {
+            frame.putShort((short) match.move(i));
+        }
+        frame.putInt(4, crc(frame, FRAME_HEADER, length));
+        return frame.flip();
+    }
+
+    private MatchRecord decode(ByteBuffer records, int pos) {
+        int body = pos + FRAME_HEADER;
+        int[] moves = new int[records.getChar(body + 39)];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = records.getShort(body + BODY_FIXED + 2 * i) & 0xFFFF;
+        }
+        return new MatchRecord(records.getLong(body), names.name(records.getInt(body + 28)),
+            names.name(records.getInt(body + 32)), records.getLong(body + 8), moves, records.get(body + 36),
+            records.getChar(body + 37), records.getInt(body + 24), records.getLong(body + 16));
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(from, length));
+        return (int) crc.getValue();
+    }
+
+    private static void writeIndex(SegmentIndex built, Path index, long from, long to) throws IOException {
+        Path temp = temp(index);
+        built.write(temp, from, to);
+        Files.move(temp, index, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long read = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + read);
+            if (n < 0) {
+                throw new IOException("Unexpected end of " + channel);
+            }
+            read += n;
+        }
+    }
+
+    private Path segmentPath(long base, int generation) {
+        return dir.resolve(String.format("%016x-%d%s", base, generation, DATA));
+    }
+
+    private static Path sibling(Path file, String extension) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.lastIndexOf('.')) + extension);
+    }
+
+    private static Path temp(Path file) {
+        return file.resolveSibling(file.getFileName() + TEMP);
+    }
+
+    private static long base(Path segment) {
+        return Long.parseUnsignedLong(segment.getFileName().toString().substring(0, 16), 16);
+    }
+
+    private static int generation(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(17, name.lastIndexOf('.')));
+    }
+
+    // The segment goes first, so a crash in between leaves an index that open() discards
+    private static void delete(Path data, Path index) throws IOException {
+        Files.deleteIfExists(data);
+        Files.deleteIfExists(index);
+    }
+
+    /**
+     * Fills a store with random matches in small segments, as many age rolls would,
+     * then measures queries before and after compacting it.
+     * Usage: java history.MatchStore dir [matches] [players]
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "match-history");
+        int matches = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        Random random = new Random(1);
+
+        long start = System.nanoTime();
+        try (MatchStore store = open(dir, 4L << 20, DEFAULT_ROLL_MILLIS)) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < matches; i++) {
+                int[] moves = new int[20 + random.nextInt(40)];
+                for (int m = 0; m < moves.length; m++) {
+                    moves[m] = random.nextInt(0x300);
+                }
+                int a = random.nextInt(players);
+                int b = (a + 1 + random.nextInt(players - 1)) % players;
+                store.append(new MatchRecord("player" + a, "player" + b, random.nextLong(), moves,
+                    random.nextInt(GameState.DRAW + 1), moves.length, 60_000 + random.nextInt(600_000), now + i));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("appended %,d matches in %.1f s (%,.0f per second), %d segments%n",
+                store.size(), seconds, store.size() / seconds, store.segmentCount());
+            queries(store, players, random);
+        }
+
+        start = System.nanoTime();
+        try (MatchStore store = open(dir)) {
+            System.out.printf("reopened in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+            start = System.nanoTime();
+            int replaced = store.compact(0);
+            System.out.printf("compacted %d segments in %.1f s, %d segments left, %,d matches%n",
+                replaced, (System.nanoTime() - start) / 1e9, store.segmentCount(), store.size());
+            queries(store, players, random);
+        }
+    }
+
+    private static void queries(MatchStore store, int players, Random random) throws IOException {
+        int rounds = 2000;
+        long[] recent = new long[rounds];
+        long[] headToHead = new long[rounds];
+        int found = 0;
+        for (int i = 0; i < rounds; i++) {
+            String a = "player" + random.nextInt(players);
+            String b = "player" + random.nextInt(players);
+            long start = System.nanoTime();
+            found += store.recent(a, 20).size();
+            recent[i] = System.nanoTime() - start;
+            start = System.nanoTime();
+            found += store.headToHead(a, b, 20).size();
+            headToHead[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(recent);
+        Arrays.sort(headToHead);
+        System.out.printf("  recent(20):      p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+            recent[rounds / 2] / 1e6, recent[rounds * 99 / 100] / 1e6, recent[rounds - 1] / 1e6);
+        System.out.printf("  headToHead(20):  p50 %.3f ms, p99 %.3f ms, max %.3f ms (%,d matches read)%n",
+            headToHead[rounds / 2] / 1e6, headToHead[rounds * 99 / 100] / 1e6, headToHead[rounds - 1] / 1e6, found);
+    }
+}
@@ -0,0 +1,101 @@
+package history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Player names interned as dense ints, so segments and indexes store four bytes
+ * per player. The file is a sequence of names, each an unsigned short length and
+ * its UTF-8 bytes; a torn last name is cut off on open.
+ */
+final class PlayerDictionary implements Closeable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final FileChannel channel;
+    private String[] names = new String[256];
+    private int size;
+
+    private PlayerDictionary(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static PlayerDictionary open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        PlayerDictionary dictionary = new PlayerDictionary(channel);
+        ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+        MatchStore.readFully(channel, data, 0);
+        data.flip();
+        int end = 0;
+        while (data.remaining() >= 2) {
+            int length = data.getChar();
+            if (data.remaining() < length) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            data.get(bytes);
+            dictionary.intern(new String(bytes, StandardCharsets.UTF_8));
+            end = data.position();
+        }
+        channel.truncate(end);
+        channel.position(end);
+        return dictionary;
+    }
+
+    private int intern(String name) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        names[size] = name;
+        ids.put(name, size);
+        return size++;
+    }
+
+    // The name's id, adding it to the file if it is new
+    synchronized int id(String name) throws IOException {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Player name too long: " + bytes.length + " bytes");
+        }
+        ByteBuffer entry = ByteBuffer.allocate(2 + bytes.length);
+        entry.putChar((char) bytes.length).put(bytes).flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+        return intern(name);
+    }
+
+    // The name's id, or -1 for a name that never played
+    synchronized int find(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    synchronized String name(int id) {
+        return names[id];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
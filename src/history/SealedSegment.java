@@ -0,0 +1,103 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * A segment that is no longer written to, with its records and sorted index both
+ * memory mapped read-only, so any number of threads read it at once.
+ *
+ * Index layout (big endian): magic, version, first and last match id covered,
+ * entry count, match count, oldest and newest finish time, then the entries,
+ * each a player id, opponent id and record offset. Version 1 indexes sorted
+ * the entries by player and offset only; open() still reads them so they can
+ * be rewritten.
+ */
+final class SealedSegment {
+    static final int MAGIC = 0x564D4958; // "VMIX"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 48;
+    static final int ENTRY_BYTES = 12;
+
+    final Path data;
+    final Path index;
+    final int generation;
+    final int version;
+    final long from;
+    final long to;
+    final int matches;
+    final long oldest;
+    final long newest;
+    final long bytes;
+    private final MappedByteBuffer records;
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    private SealedSegment(Path data, Path index, int generation, MappedByteBuffer records, MappedByteBuffer entries) {
+        this.data = data;
+        this.index = index;
+        this.generation = generation;
+        this.records = records;
+        this.entries = entries;
+        this.bytes = records.capacity();
+        this.version = entries.getInt(4);
+        this.from = entries.getLong(8);
+        this.to = entries.getLong(16);
+        this.entryCount = entries.getInt(24);
+        this.matches = entries.getInt(28);
+        this.oldest = entries.getLong(32);
+        this.newest = entries.getLong(40);
+    }
+
+    static SealedSegment open(Path data, Path index, int generation) throws IOException {
+        MappedByteBuffer entries = map(index);
+        if (entries.capacity() < HEADER_BYTES || entries.getInt(0) != MAGIC
+                || entries.getInt(4) < 1 || entries.getInt(4) > VERSION
+                || entries.capacity() != HEADER_BYTES + (long) entries.getInt(24) * ENTRY_BYTES) {
+            throw new IOException(index + " is not a match index");
+        }
+        return new SealedSegment(data, index, generation, map(data), entries);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    ByteBuffer records() {
+        return records;
+    }
+
+    // First entry not below (player, opponent)
+    int lowerBound(int player, int opponent) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int p = player(mid);
+            if (p < player || (p == player && opponent(mid) < opponent)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int player(int entry) {
+        return entries.getInt(HEADER_BYTES + entry * ENTRY_BYTES);
+    }
+
+    int opponent(int entry) {
+        return entries.getInt(HEADER_BYTES + entry * ENTRY_BYTES + 4);
+    }
+
+    int offset(int entry) {
+        return entries.getInt(HEADER_BYTES + entry * ENTRY_BYTES + 8);
+    }
+}
@@ -0,0 +1,127 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Per-player index of one segment while it is being written: the active segment,
+ * or the output of a compaction. Every match links back to the previous match of
+ * each of its two players, so a player's matches are walked newest first without
+ * a scan. write() turns the same matches into the sorted index file of a sealed
+ * segment.
+ */
+final class SegmentIndex {
+    private int[] offsets = new int[1024];
+    private int[] first = new int[1024];
+    private int[] second = new int[1024];
+    private int[] previousOfFirst = new int[1024];
+    private int[] previousOfSecond = new int[1024];
+    private int[] latest = new int[256];
+    private int count;
+    private long lastId;
+    private long oldest = Long.MAX_VALUE;
+    private long newest = Long.MIN_VALUE;
+
+    SegmentIndex() {
+        Arrays.fill(latest, -1);
+    }
+
+    void add(int offset, int a, int b, long id, long finishedAt) {
+        if (count == offsets.length) {
+            int capacity = count * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+            previousOfFirst = Arrays.copyOf(previousOfFirst, capacity);
+            previousOfSecond = Arrays.copyOf(previousOfSecond, capacity);
+        }
+        int needed = Math.max(a, b) + 1;
+        if (needed > latest.length) {
+            int old = latest.length;
+            latest = Arrays.copyOf(latest, Math.max(needed, old * 2));
+            Arrays.fill(latest, old, latest.length, -1);
+        }
+        offsets[count] = offset;
+        first[count] = a;
+        second[count] = b;
+        previousOfFirst[count] = latest[a];
+        previousOfSecond[count] = latest[b];
+        latest[a] = count;
+        latest[b] = count;
+        count++;
+        lastId = id;
+        oldest = Math.min(oldest, finishedAt);
+        newest = Math.max(newest, finishedAt);
+    }
+
+    int count() { return count; }
+    long lastId() { return lastId; }
+
+    // The player's newest match in this segment, or -1
+    int latest(int player) {
+        return player < latest.length ? latest[player] : -1;
+    }
+
+    // The player's match before the given one, or -1
+    int previous(int match, int player) {
+        return first[match] == player ? previousOfFirst[match] : previousOfSecond[match];
+    }
+
+    int offset(int match) {
+        return offsets[match];
+    }
+
+    int opponent(int match, int player) {
+        return first[match] == player ? second[match] : first[match];
+    }
+
+    /*
+     * Writes the index file for a segment covering match ids from..to: the header, then
+     * one entry (player, opponent, record offset) per player per match, sorted by player,
+     * opponent and offset, so the matches of each pair of players are one contiguous,
+     * oldest-first run.
+     */
+    void write(Path file, long from, long to) throws IOException {
+        // Grouped by player first, then each player's entries sorted by opponent and offset
+        long[] keys = new long[count * 2];
+        int entries = 0;
+        for (int m = 0; m < count; m++) {
+            keys[entries++] = ((long) first[m] << 32) | m;
+            if (second[m] != first[m]) {
+                keys[entries++] = ((long) second[m] << 32) | m;
+            }
+        }
+        Arrays.sort(keys, 0, entries);
+        int[] players = new int[entries];
+        for (int start = 0; start < entries; ) {
+            int player = (int) (keys[start] >>> 32);
+            int end = start;
+            while (end < entries && (int) (keys[end] >>> 32) == player) {
+                int match = (int) keys[end];
+                players[end] = player;
+                keys[end] = ((long) opponent(match, player) << 32) | offsets[match];
+                end++;
+            }
+            Arrays.sort(keys, start, end);
+            start = end;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(SealedSegment.HEADER_BYTES + entries * SealedSegment.ENTRY_BYTES);
+        out.putInt(SealedSegment.MAGIC).putInt(SealedSegment.VERSION)
+            .putLong(from).putLong(to)
+            .putInt(entries).putInt(count)
+            .putLong(oldest).putLong(newest);
+        for (int e = 0; e < entries; e++) {
+            out.putInt(players[e]).putInt((int) (keys[e] >>> 32)).putInt((int) keys[e]);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            MatchStore.writeFully(channel, out, 0);
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package interfaces;
+
+import model.Control;
+import model.Exchange;
+import model.Medicina;
+import model.Organ;
+import model.Reikan;
+import model.Virus;
+
+// One effect per card type, dispatched by CardTypes.dispatch; returns whether the card was played
+public interface CardHandler<P> {
+    boolean onOrgan(P context, Organ organ);
+    boolean onVirus(P context, Virus virus);
+    boolean onMedicina(P context, Medicina medicina);
+    boolean onReikan(P context, Reikan reikan);
+    boolean onExchange(P context, Exchange exchange);
+    boolean onControl(P context, Control control);
+}
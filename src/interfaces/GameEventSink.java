@@ -0,0 +1,8 @@
+package interfaces;
+
+import enums.GameEventType;
+
+// Receives the events of a running game; called on the game thread, so it must not block
+public interface GameEventSink {
+    void onEvent(GameEventType type, int player, int card, int value, int turn);
+}
@@ -0,0 +1,17 @@
+package interfaces;
+
+/*
+ * Where the console game reads the player's choices from. The console reads the
+ * keyboard and pauses for Enter; a script supplies the same numbers from a stream
+ * and never pauses.
+ */
+public interface GameInput {
+    // Next number entered. Throws InputMismatchException for anything else (after skipping it)
+    // and NoSuchElementException when the input has ended.
+    int nextInt();
+
+    void waitForEnter();
+
+    // False when nobody is watching, so screen clearing and board drawing can be skipped
+    boolean isInteractive();
+}
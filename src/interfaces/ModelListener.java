@@ -0,0 +1,14 @@
+package interfaces;
+
+import enums.ModelChangeType;
+import model.Card;
+import model.Player;
+
+/*
+ * Receives model changes right after they happen. index is the card's position in
+ * the hand or organ list, the new pile size for deck and discard changes, or -1
+ * for organ state changes. owner is null for the deck and discard pile.
+ */
+public interface ModelListener {
+    void onModelChange(ModelChangeType type, Player owner, Card card, int index);
+}
@@ -2,9 +2,11 @@ package interfaces;
 
 import enums.TreatmentType;
 import java.util.List;
+import java.util.Random;
 import model.Player;
 
 public interface SpecialTreatment extends Colorable {
     TreatmentType getType();
-    void apply(Player currentPlayer, List<Player> players);
-}
\ No newline at end of file
+    // random is the game's own generator, so a seeded game replays exactly
+    void apply(Player currentPlayer, List<Player> players, GameInput input, Random random);
+}
@@ -0,0 +1,372 @@
+package lobby;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Elo ratings for a fixed number of players (dense ids from 0), updated as
+ * each game ends, with rank and top-K queries.
+ *
+ * Everything lives in primitive arrays sized up front, 16 bytes per player:
+ * the rating in 1/16 points, the games played and the links of the player's
+ * rating bucket (one bucket per whole point from 0 to Lobby.MAX_RATING).
+ * A Fenwick tree counts the players per bucket from the top, so a player's
+ * rank is one prefix sum and the K best are found by walking the tree to the
+ * next non-empty bucket, both in time logarithmic in the rating range.
+ *
+ * There is no global lock. A game locks the stripes of its two players, so
+ * results from different tables only meet when they share a stripe; moving a
+ * player between buckets locks those buckets' stripes, and the tree counts
+ * are atomic adds. Queries read the tree without locking and each bucket
+ * under its stripe, so a player whose rating changes during a query may be
+ * ranked at either rating.
+ */
+public final class Leaderboard {
+    public static final int INITIAL_RATING = 1500;
+    // New players move faster until their rating has settled
+    public static final int PROVISIONAL_GAMES = 30;
+    private static final double PROVISIONAL_K = 40;
+    private static final double K = 20;
+    private static final int SCALE = 16;
+    private static final int BUCKETS = Lobby.MAX_RATING + 1;
+    private static final int PLAYER_STRIPES = 1024;
+    private static final int BUCKET_STRIPES = 256;
+
+    private final int capacity;
+    // Rating * SCALE + 1, or 0 while the player has no games
+    private final AtomicIntegerArray ratings;
+    private final int[] games;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] heads = new int[BUCKETS];
+    // counts[i] covers buckets from the top: position 1 is MAX_RATING, position BUCKETS is 0
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKETS + 1);
+    private final Object[] playerLocks = stripes(PLAYER_STRIPES);
+    private final Object[] bucketLocks = stripes(BUCKET_STRIPES);
+
+    public Leaderboard(int capacity) {
+        this.capacity = capacity;
+        this.ratings = new AtomicIntegerArray(capacity);
+        this.games = new int[capacity];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        Arrays.fill(heads, -1);
+    }
+
+    private static Object[] stripes(int count) {
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    public int capacity() { return capacity; }
+
+    // Heap taken by the per-player arrays and the buckets
+    public long footprintBytes() {
+        return 16L * capacity + 8L * BUCKETS;
+    }
+
+    public void recordWin(int winner, int loser) {
+        recordResult(winner, loser, 1);
+    }
+
+    public void recordDraw(int first, int second) {
+        recordResult(first, second, 0.5);
+    }
+
+    // firstScore is 1 if first won, 0 if second won and 0.5 for a draw
+    public void recordResult(int first, int second, double firstScore) {
+        check(first);
+        check(second);
+        if (first == second) {
+            throw new IllegalArgumentException("A player cannot play themselves: " + first);
+        }
+        int a = first & (PLAYER_STRIPES - 1);
+        int b = second & (PLAYER_STRIPES - 1);
+        synchronized (playerLocks[Math.min(a, b)]) {
+            synchronized (playerLocks[Math.max(a, b)]) {
+                int ratingFirst = scaled(first);
+                int ratingSecond = scaled(second);
+                double expected = 1 / (1 + Math.pow(10, (ratingSecond - ratingFirst) / (400.0 * SCALE)));
+                update(first, ratingFirst, firstScore - expected);
+                update(second, ratingSecond, expected - firstScore);
+            }
+        }
+    }
+
+    // Caller holds the player's stripe
+    private void update(int player, int scaled, double surprise) {
+        double k = games[player] < PROVISIONAL_GAMES ? PROVISIONAL_K : K;
+        int rating = (int) Math.round(scaled + k * surprise * SCALE);
+        rating = Math.max(0, Math.min(Lobby.MAX_RATING * SCALE, rating));
+        int from = ratings.get(player) == 0 ? -1 : scaled / SCALE;
+        int to = rating / SCALE;
+        if (from != to) {
+            move(player, from, to);
+        }
+        ratings.set(player, rating + 1);
+        games[player]++;
+    }
+
+    private void move(int player, int from, int to) {
+        int a = (from < 0 ? to : from) & (BUCKET_STRIPES - 1);
+        int b = to & (BUCKET_STRIPES - 1);
+        synchronized (bucketLocks[Math.min(a, b)]) {
+            synchronized (bucketLocks[Math.max(a, b)]) {
+                if (from >= 0) {
+                    unlink(player, from);
+                    add(position(from), -1);
+                }
+                link(player, to);
+                add(position(to), 1);
+            }
+        }
+    }
+
+    private void unlink(int player, int bucket) {
+        int before = previous[player];
+        int after = next[player];
+        if (before < 0) {
+            heads[bucket] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after >= 0) {
+            previous[after] = before;
+        }
+    }
+
+    private void link(int player, int bucket) {
+        int head = heads[bucket];
+        previous[player] = -1;
+        next[player] = head;
+        if (head >= 0) {
+            previous[head] = player;
+        }
+        heads[bucket] = player;
+    }
+
+    // The rating, or INITIAL_RATING for a player without games
+    public double rating(int player) {
+        check(player);
+        return scaled(player) / (double) SCALE;
+    }
+
+    private int scaled(int player) {
+        int stored = ratings.get(player);
+        return stored == 0 ? INITIAL_RATING * SCALE : stored - 1;
+    }
+
+    public int games(int player) {
+        check(player);
+        synchronized (playerLocks[player & (PLAYER_STRIPES - 1)]) {
+            return games[player];
+        }
+    }
+
+    // 1 for the best rating, shared by players on the same whole point; 0 for a player without games
+    public int rank(int player) {
+        check(player);
+        int stored = ratings.get(player);
+        if (stored == 0) {
+            return 0;
+        }
+        return prefix(position((stored - 1) / SCALE) - 1) + 1;
+    }
+
+    // Players with at least one game
+    public int size() {
+        return prefix(BUCKETS);
+    }
+
+    /*
+     * Fills out with the ids of the best rated players, best first, and returns how
+     * many were written (fewer than out.length if fewer players have games).
+     */
+    public int top(int[] out) {
+        int found = 0;
+        int position = 0;
+        while (found < out.length) {
+            // The next non-empty bucket below the last one read
+            int nextPosition = Math.max(position + 1, lowerBound(prefix(position) + 1));
+            if (nextPosition > BUCKETS) {
+                break;
+            }
+            position = nextPosition;
+            int bucket = BUCKETS - position;
+            synchronized (bucketLocks[bucket & (BUCKET_STRIPES - 1)]) {
+                for (int p = heads[bucket]; p >= 0 && found < out.length; p = next[p]) {
+                    if (!contains(out, found, p)) {
+                        out[found++] = p;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // A player who moved up while top() ran could otherwise be listed twice
+    private static boolean contains(int[] ids, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int position(int bucket) {
+        return BUCKETS - bucket;
+    }
+
+    private void add(int position, int delta) {
+        for (int i = position; i <= BUCKETS; i += i & -i) {
+            counts.getAndAdd(i, delta);
+        }
+    }
+
+    // Players in positions 1..position, that is rated at or above bucket BUCKETS - position
+    private int prefix(int position) {
+        int sum = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += counts.get(i);
+        }
+        return sum;
+    }
+
+    // Smallest position whose prefix reaches target, or BUCKETS + 1 if none does
+    private int lowerBound(int target) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int probe = position + step;
+            if (probe <= BUCKETS) {
+                int count = counts.get(probe);
+                if (count < target) {
+                    position = probe;
+                    target -= count;
+                }
+            }
+        }
+        return position + 1;
+    }
+
+    private void check(int player) {
+        if (player < 0 || player >= capacity) {
+            throw new IllegalArgumentException("Player id out of range: " + player);
+        }
+    }
+
+    /**
+     * Plays random games between players of hidden strength on all cores, then
+     * checks every rank against a sort and times rank and top-K queries.
+     * Usage: java lobby.Leaderboard [players] [games] [threads]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int gamesToPlay = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        Leaderboard board = new Leaderboard(players);
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%,d players: %,d KB by design, about %,d KB measured%n",
+            players, board.footprintBytes() >> 10, (heapAfter - heapBefore) >> 10);
+
+        // Hidden strengths the ratings should converge to
+        double[] strength = new double[players];
+        Random random = new Random(1);
+        for (int p = 0; p < players; p++) {
+            strength[p] = INITIAL_RATING + random.nextGaussian() * 300;
+        }
+
+        AtomicLong remaining = new AtomicLong(gamesToPlay);
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = t + 1;
+            workers[t] = new Thread(() -> {
+                Random rng = new Random(seed);
+                while (remaining.getAndAdd(-1000) > 0) {
+                    for (int i = 0; i < 1000; i++) {
+                        int a = rng.nextInt(players);
+                        int b = (a + 1 + rng.nextInt(players - 1)) % players;
+                        double expected = 1 / (1 + Math.pow(10, (strength[b] - strength[a]) / 400));
+                        board.recordResult(a, b, rng.nextDouble() < expected ? 1 : 0);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d games on %d threads in %.1f s (%,.0f updates per second), %,d rated%n",
+            gamesToPlay, threads, seconds, gamesToPlay / seconds, board.size());
+
+        // Every rank must equal 1 + the number of players on a higher whole point
+        int[] points = new int[players];
+        int rated = 0;
+        for (int p = 0; p < players; p++) {
+            if (board.games(p) > 0) {
+                points[rated++] = (int) board.rating(p);
+            }
+        }
+        int[] sorted = Arrays.copyOf(points, rated);
+        Arrays.sort(sorted);
+        int wrong = 0;
+        for (int p = 0; p < players; p++) {
+            if (board.games(p) > 0) {
+                int point = (int) board.rating(p);
+                int above = rated - upperBound(sorted, point);
+                if (board.rank(p) != above + 1) {
+                    wrong++;
+                }
+            }
+        }
+        System.out.printf("ranks checked against a sort: %d wrong%n", wrong);
+
+        int[] best = new int[10];
+        int shown = board.top(best);
+        for (int i = 0; i < shown; i++) {
+            System.out.printf("  #%-3d player %-8d %7.1f (strength %.0f, %d games)%n",
+                board.rank(best[i]), best[i], board.rating(best[i]), strength[best[i]], board.games(best[i]));
+        }
+
+        int rounds = 100_000;
+        long sink = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += board.rank(random.nextInt(players));
+        }
+        double rankNanos = (System.nanoTime() - start) / (double) rounds;
+        int[] page = new int[100];
+        start = System.nanoTime();
+        for (int i = 0; i < rounds / 10; i++) {
+            sink += board.top(page);
+        }
+        double topNanos = (System.nanoTime() - start) / (rounds / 10.0);
+        System.out.printf("rank %.0f ns, top-100 %.1f us (%d)%n", rankNanos, topNanos / 1e3, sink & 1);
+    }
+
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,143 @@
+package lobby;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import model.DeckComposition;
+
+/**
+ * Queues players and pairs them into tables.
+ *
+ * Waiting players sit in one slot per rating band (a single band when rating
+ * is ignored). Joining tries to take the waiting player of its own band and
+ * then of the neighbouring bands with a compare-and-set, and only waits in its
+ * own band if all of them are empty, so pairing never takes a lock. Two
+ * players that start waiting in neighbouring bands at the same moment are
+ * paired by the next call to matchNeighbours().
+ *
+ * With a Leaderboard, every finished table's result updates the ratings of
+ * its two players, whose ids are then leaderboard ids.
+ */
+public final class Lobby {
+    public static final int BAND_WIDTH = 100;
+    public static final int MAX_RATING = 4000;
+
+    private final TableRegistry registry;
+    private final DeckComposition composition;
+    private final boolean matchByRating;
+    private final Consumer<Table> onTableCreated;
+    private final Leaderboard leaderboard;
+    private final AtomicReferenceArray<QueuedPlayer> waiting;
+
+    public Lobby(TableRegistry registry, DeckComposition composition, boolean matchByRating,
+                 Consumer<Table> onTableCreated) {
+        this(registry, composition, matchByRating, onTableCreated, null);
+    }
+
+    public Lobby(TableRegistry registry, DeckComposition composition, boolean matchByRating,
+                 Consumer<Table> onTableCreated, Leaderboard leaderboard) {
+        this.registry = registry;
+        this.composition = composition;
+        this.matchByRating = matchByRating;
+        this.onTableCreated = onTableCreated;
+        this.leaderboard = leaderboard;
+        this.waiting = new AtomicReferenceArray<>(matchByRating ? MAX_RATING / BAND_WIDTH + 1 : 1);
+    }
+
+    /*
+     * Returns the new table if the player was matched right away, otherwise null (the player
+     * waits). Joining again while already waiting in the band changes nothing.
+     */
+    public Table join(QueuedPlayer player) {
+        int band = bandOf(player);
+        while (true) {
+            for (int distance = 0; distance <= 1; distance++) {
+                for (int b = band - distance; b <= band + distance; b += Math.max(1, 2 * distance)) {
+                    if (b < 0 || b >= waiting.length()) {
+                        continue;
+                    }
+                    QueuedPlayer opponent = waiting.get(b);
+                    if (opponent != null && opponent.getId() != player.getId()
+                            && waiting.compareAndSet(b, opponent, null)) {
+                        return openTable(opponent, player);
+                    }
+                }
+            }
+            QueuedPlayer current = waiting.get(band);
+            if (current != null && current.getId() == player.getId()) {
+                return null;
+            }
+            if (waiting.compareAndSet(band, null, player)) {
+                return null;
+            }
+        }
+    }
+
+    // Removes a waiting player from the queue; false if they were already matched
+    public boolean leave(QueuedPlayer player) {
+        return waiting.compareAndSet(bandOf(player), player, null);
+    }
+
+    // Pairs players left waiting in neighbouring bands; returns how many tables were opened
+    public int matchNeighbours() {
+        int opened = 0;
+        for (int b = 0; b + 1 < waiting.length(); b++) {
+            QueuedPlayer first = waiting.get(b);
+            QueuedPlayer second = waiting.get(b + 1);
+            if (first == null || second == null || first.getId() == second.getId()) {
+                continue;
+            }
+            if (waiting.compareAndSet(b, first, null)) {
+                if (waiting.compareAndSet(b + 1, second, null)) {
+                    openTable(first, second);
+                    opened++;
+                } else if (join(first) != null) {
+                    opened++;
+                }
+            }
+        }
+        return opened;
+    }
+
+    public int waitingCount() {
+        int count = 0;
+        for (int b = 0; b < waiting.length(); b++) {
+            if (waiting.get(b) != null) count++;
+        }
+        return count;
+    }
+
+    public TableRegistry getRegistry() {
+        return registry;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    // Call when a table's game is over so it leaves the registry right away; abandoned games are not rated.
+    // Rated players' ids are leaderboard ids, so one past the int range fails here rather than rating someone else
+    public void finish(Table table) {
+        if (registry.retire(table) && leaderboard != null && table.getGame().isOver()) {
+            int winner = table.getGame().winner();
+            leaderboard.recordResult(Math.toIntExact(table.getPlayer(0).getId()),
+                Math.toIntExact(table.getPlayer(1).getId()),
+                winner == 0 ? 1 : winner == 1 ? 0 : 0.5);
+        }
+    }
+
+    private Table openTable(QueuedPlayer first, QueuedPlayer second) {
+        Table table = registry.create(first, second, composition);
+        if (onTableCreated != null) {
+            onTableCreated.accept(table);
+        }
+        return table;
+    }
+
+    private int bandOf(QueuedPlayer player) {
+        if (!matchByRating) {
+            return 0;
+        }
+        int rating = Math.max(0, Math.min(MAX_RATING, player.getRating()));
+        return rating / BAND_WIDTH;
+    }
+}
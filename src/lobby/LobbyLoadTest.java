@@ -0,0 +1,124 @@
+package lobby;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.DeckComposition;
+import sim.GameState;
+import sim.Moves;
+import sim.RandomPolicy;
+import sim.Rng;
+
+/**
+ * Local load test: client threads keep queueing players drawn from a pool of
+ * a million, at their leaderboard rating; whoever completes a match plays the
+ * table out with random moves and retires it, which rates the result.
+ * Reports matches created per second, tables still active and the heap in
+ * use, which should stay flat, and the leaderboard at the end. Before the
+ * load, checks that a player joining twice neither waits twice nor hangs.
+ *
+ * Usage: java lobby.LobbyLoadTest [threads] [seconds] [rating|any]
+ */
+public final class LobbyLoadTest {
+    private static final int POOL = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+        boolean byRating = args.length <= 2 || "rating".equals(args[2]);
+
+        checkDuplicateJoin(byRating);
+
+        TableRegistry registry = new TableRegistry();
+        Leaderboard leaderboard = new Leaderboard(POOL);
+        Lobby lobby = new Lobby(registry, DeckComposition.STANDARD, byRating, null, leaderboard);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        List<Thread> clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t + 1;
+            Thread client = new Thread(() -> {
+                Rng rng = new Rng(seed);
+                RandomPolicy policy = new RandomPolicy();
+                while (running.get()) {
+                    int id = rng.nextInt(POOL);
+                    int rating = (int) leaderboard.rating(id);
+                    Table table = lobby.join(new QueuedPlayer(id, "player-" + id, rating));
+                    if (table != null) {
+                        GameState game = table.getGame();
+                        while (!game.isOver()) {
+                            int move = policy.chooseMove(game, rng);
+                            if (move == Moves.NONE || !game.apply(move)) {
+                                break;
+                            }
+                        }
+                        lobby.finish(table);
+                    }
+                }
+            }, "client-" + t);
+            clients.add(client);
+            client.start();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long start = System.nanoTime();
+        long lastCreated = 0;
+        for (int second = 1; second <= Math.ceil(seconds); second++) {
+            Thread.sleep(1000);
+            lobby.matchNeighbours();
+            long created = registry.createdCount();
+            long usedMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+            System.out.printf("%2ds: %,9d matches/s  active %,6d  waiting %,4d  heap %,5d MB%n",
+                second, created - lastCreated, registry.activeCount(), lobby.waitingCount(), usedMb);
+            lastCreated = created;
+        }
+        running.set(false);
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Created %,d matches in %.1f s (%,.0f/s) on %d threads, retired %,d%n",
+            registry.createdCount(), elapsed, registry.createdCount() / elapsed, threads, registry.retiredCount());
+        int[] best = new int[3];
+        int shown = leaderboard.top(best);
+        System.out.printf("Leaderboard: %,d rated players in %,d KB%n", leaderboard.size(), leaderboard.footprintBytes() >> 10);
+        for (int i = 0; i < shown; i++) {
+            System.out.printf("  #%d player-%d %.1f after %d games%n", leaderboard.rank(best[i]), best[i],
+                leaderboard.rating(best[i]), leaderboard.games(best[i]));
+        }
+    }
+
+    // A player already waiting joins again, from several threads at once
+    private static void checkDuplicateJoin(boolean byRating) throws InterruptedException {
+        TableRegistry registry = new TableRegistry();
+        Lobby lobby = new Lobby(registry, DeckComposition.STANDARD, byRating, null);
+        QueuedPlayer player = new QueuedPlayer(7, "player-7", 1500);
+        if (lobby.join(player) != null) {
+            throw new IllegalStateException("A lone player was matched");
+        }
+        List<Thread> joiners = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread joiner = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    if (lobby.join(new QueuedPlayer(7, "player-7", 1500)) != null) {
+                        throw new IllegalStateException("A player was matched against itself");
+                    }
+                }
+            }, "joiner-" + t);
+            joiner.setDaemon(true);
+            joiners.add(joiner);
+            joiner.start();
+        }
+        for (Thread joiner : joiners) {
+            joiner.join(5_000);
+            if (joiner.isAlive()) {
+                throw new IllegalStateException("Joining twice did not return");
+            }
+        }
+        if (lobby.waitingCount() != 1 || registry.createdCount() != 0 || lobby.matchNeighbours() != 0) {
+            throw new IllegalStateException("Joining twice changed the queue");
+        }
+        System.out.println("Joining twice: ok");
+    }
+}
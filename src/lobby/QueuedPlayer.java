@@ -0,0 +1,24 @@
+package lobby;
+
+// A player waiting for a match. In a lobby with a leaderboard the id is the player's
+// leaderboard id and must fit in an int; Lobby.finish rejects any that does not
+public final class QueuedPlayer {
+    private final long id;
+    private final String name;
+    private final int rating;
+
+    public QueuedPlayer(long id, String name, int rating) {
+        this.id = id;
+        this.name = name;
+        this.rating = rating;
+    }
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public int getRating() { return rating; }
+
+    @Override
+    public String toString() {
+        return name + " (" + rating + ")";
+    }
+}
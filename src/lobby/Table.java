@@ -0,0 +1,35 @@
+package lobby;
+
+import model.DeckComposition;
+import sim.GameState;
+
+// An active game between two matched players, with its own freshly shuffled deck
+public final class Table {
+    private final long id;
+    private final QueuedPlayer[] seats;
+    private final GameState game;
+    private final long createdNanos;
+
+    Table(long id, QueuedPlayer first, QueuedPlayer second, DeckComposition composition, long seed) {
+        this.id = id;
+        this.seats = new QueuedPlayer[] {first, second};
+        this.game = GameState.newGame(composition, seed);
+        this.createdNanos = System.nanoTime();
+    }
+
+    public long getId() { return id; }
+    public QueuedPlayer getPlayer(int seat) { return seats[seat]; }
+    public GameState getGame() { return game; }
+    public long getCreatedNanos() { return createdNanos; }
+
+    // Seated player who won, or null while playing or after a draw
+    public QueuedPlayer getWinner() {
+        int winner = game.winner();
+        return winner >= 0 && winner < seats.length ? seats[winner] : null;
+    }
+
+    @Override
+    public String toString() {
+        return "Table " + id + ": " + seats[0] + " vs " + seats[1];
+    }
+}
@@ -0,0 +1,123 @@
+package lobby;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.DeckComposition;
+
+/**
+ * Active tables split over independently locked shards. A table id encodes
+ * its shard, so creating, finding and retiring a table only ever locks that
+ * one shard, and ids are handed out per shard without a shared counter.
+ */
+public final class TableRegistry {
+    private static final int SHARD_BITS = 6;
+
+    private final Shard[] shards;
+    private final int mask;
+
+    private static final class Shard {
+        final Map<Long, Table> tables = new HashMap<>();
+        long nextLocalId;
+        long created;
+        long retired;
+    }
+
+    public TableRegistry() {
+        this(1 << SHARD_BITS);
+    }
+
+    public TableRegistry(int shardCount) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("Shard count must be a power of two: " + shardCount);
+        }
+        this.shards = new Shard[shardCount];
+        this.mask = shardCount - 1;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    // Creates and registers a table; the shard is picked from the pair so load spreads evenly
+    public Table create(QueuedPlayer first, QueuedPlayer second, DeckComposition composition) {
+        int index = (int) mix(first.getId() * 31 + second.getId()) & mask;
+        Shard shard = shards[index];
+        long id;
+        synchronized (shard) {
+            id = (shard.nextLocalId++ << Integer.numberOfTrailingZeros(shards.length)) | index;
+        }
+        // Shuffling and dealing happen outside the lock
+        Table table = new Table(id, first, second, composition, mix(id ^ System.nanoTime()));
+        synchronized (shard) {
+            shard.tables.put(id, table);
+            shard.created++;
+        }
+        return table;
+    }
+
+    public Table find(long id) {
+        Shard shard = shards[(int) id & mask];
+        synchronized (shard) {
+            return shard.tables.get(id);
+        }
+    }
+
+    // Drops a finished table so nothing keeps its game alive
+    public boolean retire(Table table) {
+        Shard shard = shards[(int) table.getId() & mask];
+        synchronized (shard) {
+            if (shard.tables.remove(table.getId()) == null) {
+                return false;
+            }
+            shard.retired++;
+            return true;
+        }
+    }
+
+    public int activeCount() {
+        int total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.tables.size();
+            }
+        }
+        return total;
+    }
+
+    public long createdCount() {
+        long total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.created;
+            }
+        }
+        return total;
+    }
+
+    public long retiredCount() {
+        long total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.retired;
+            }
+        }
+        return total;
+    }
+
+    public List<Table> activeTables() {
+        List<Table> result = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                result.addAll(shard.tables.values());
+            }
+        }
+        return result;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
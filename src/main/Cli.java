@@ -0,0 +1,604 @@
+package main;
+
+import ai.EvalCache;
+import ai.Evaluator;
+import ai.ExpectimaxBot;
+import ai.OpeningBook;
+import ai.ValueNetwork;
+import history.MatchRecord;
+import history.MatchStore;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.InputMismatchException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Scanner;
+import model.DeckComposition;
+import net.DesyncException;
+import net.LockstepSession;
+import sim.CardCodes;
+import sim.GameState;
+import sim.GreedyPolicy;
+import sim.Moves;
+import sim.ParallelSimulator;
+import sim.Policy;
+import sim.RandomPolicy;
+import sim.Rng;
+import sim.SimulationStats;
+
+/**
+ * Headless command line entry point for batch jobs and kiosk boots. Nothing
+ * reachable from here touches AWT, Swing or reflection, so it can be built as
+ * a native image (scripts/startup-benchmark.sh does that and compares startup
+ * and first-game latency on the JVM, with AppCDS and native).
+ *
+ * Usage: java -cp out main.Cli command [options]
+ *   simulate   [--games N] [--policy random|greedy] [--threads T] [--seed S] [--deck standard|compact]
+ *   replay     [--seed S] [--policy random|greedy|expectimax] [--budget-ms M] [--cache-mb C] [--book F] [--network F] [--quiet]
+ *   solve      [--seed S] [--turns T] [--budget-ms M]
+ *   bot-vs-bot [--games N] [--first P] [--second P] [--budget-ms M] [--cache-mb C] [--book F] [--network F] [--seed S] [--history D]
+ *   script     [--file F|-] [--seed S]
+ *   history    --dir D --player NAME [--against NAME] [--limit N] [--compact] [--retention-days N]
+ *   fuzz       [--target engine|console] [--seconds S] [--threads T] [--seed S] [--out F] [--replay F]
+ *   lockstep   --host PORT|--connect HOST:PORT [--policy human|random|greedy|expectimax] [--seed S] [--deck D] [--quiet]
+ */
+public final class Cli {
+    private final Map<String, String> options = new HashMap<>();
+    private EvalCache cache;
+    private OpeningBook book;
+    private ValueNetwork network;
+
+    private Cli(String[] args, int from) {
+        for (int i = from; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+            options.put(args[i].substring(2), flag ? "true" : args[++i]);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        try {
+            Cli cli = new Cli(args, 1);
+            switch (args[0]) {
+                case "simulate": cli.simulate(); break;
+                case "replay": cli.replay(); break;
+                case "solve": cli.solve(); break;
+                case "bot-vs-bot": cli.botVsBot(); break;
+                case "script": cli.script(); break;
+                case "history": cli.history(); break;
+                case "fuzz": cli.fuzz(); break;
+                case "lockstep": cli.lockstep(); break;
+                default:
+                    usage();
+                    System.exit(2);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: Cli simulate|replay|solve|bot-vs-bot|script|history|fuzz|lockstep [options]");
+        System.out.println("  simulate   --games N --policy random|greedy --threads T --seed S --deck standard|compact");
+        System.out.println("  replay     --seed S --policy random|greedy|expectimax --budget-ms M --cache-mb C --book F --network F --quiet");
+        System.out.println("  solve      --seed S --turns T --budget-ms M");
+        System.out.println("  bot-vs-bot --games N --first P --second P --budget-ms M --cache-mb C --book F --network F --seed S --history D");
+        System.out.println("  script     --file F|- --seed S");
+        System.out.println("  history    --dir D --player NAME --against NAME --limit N --compact --retention-days N");
+        System.out.println("  fuzz       --target engine|console --seconds S --threads T --seed S --out F --replay F");
+        System.out.println("  lockstep   --host PORT | --connect HOST:PORT --policy human|random|greedy|expectimax --seed S --deck D --quiet");
+    }
+
+    private void simulate() {
+        int games = intOption("games", 10_000);
+        int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+        long seed = longOption("seed", 1);
+        String policy = option("policy", "greedy");
+        policy(policy); // validates the name before any thread starts
+        long start = System.nanoTime();
+        try (ParallelSimulator simulator = new ParallelSimulator(threads)) {
+            SimulationStats stats = simulator.run(deck(), () -> policy(policy), seed, games, GameState.DEFAULT_MAX_TURNS);
+            System.out.println(stats);
+        }
+        System.out.printf("%d games in %.1f ms%n", games, (System.nanoTime() - start) / 1e6);
+    }
+
+    // Plays one seeded game with the same policy on both sides and prints every move
+    private void replay() {
+        long seed = longOption("seed", 1);
+        boolean quiet = options.containsKey("quiet");
+        String name = option("policy", "greedy");
+        Policy[] players = {policy(name), policy(name)};
+        GameState state = GameState.newGame(deck(), seed);
+        Rng rng = new Rng(~seed);
+        while (!state.isOver()) {
+            int p = state.current();
+            int move = players[p].chooseMove(state, rng);
+            if (!quiet) {
+                String card = move == Moves.NONE ? "-" : CardCodes.toString(state.handCard(p, Moves.slot(move)));
+                System.out.printf("turn %3d  player %d  %-12s %s%n", state.turn() + 1, p + 1, Moves.toString(move), card);
+            }
+            if (!state.apply(move)) {
+                throw new IllegalStateException("Illegal move " + Moves.toString(move) + " on turn " + state.turn());
+            }
+        }
+        System.out.printf("seed %d: %s after %d turns, state hash %016x%n",
+            seed, result(state.winner()), state.turn() + 1, state.hash());
+    }
+
+    // Plays greedy moves up to the given turn, then searches that position with the expectimax bot
+    private void solve() {
+        long seed = longOption("seed", 1);
+        int turns = intOption("turns", 10);
+        long budget = longOption("budget-ms", 1000) * 1_000_000L;
+        GameState state = GameState.newGame(deck(), seed);
+        GreedyPolicy greedy = new GreedyPolicy();
+        Rng rng = new Rng(~seed);
+        while (!state.isOver() && state.turn() < turns) {
+            state.apply(greedy.chooseMove(state, rng));
+        }
+        if (state.isOver()) {
+            System.out.println("The game ended before turn " + turns + ": " + result(state.winner()));
+            return;
+        }
+        ExpectimaxBot bot = new ExpectimaxBot(budget);
+        int move = bot.search(state, budget);
+        int p = state.current();
+        System.out.printf("turn %d, player %d holds", state.turn() + 1, p + 1);
+        for (int i = 0; i < state.handSize(p); i++) {
+            System.out.print(" " + CardCodes.toString(state.handCard(p, i)));
+        }
+        System.out.printf("%nbest move: %s (depth %d, %,d nodes)%n",
+            Moves.toString(move), bot.lastCompletedDepth(), bot.lastNodeCount());
+    }
+
+    /*
+     * Each game is played twice with the seats swapped, so neither policy gets the first
+     * move more often. With --history every game is appended to the match store in D.
+     */
+    private void botVsBot() {
+        int games = intOption("games", 100);
+        long seed = longOption("seed", 1);
+        String firstName = option("first", "expectimax");
+        String secondName = option("second", "greedy");
+        Policy first = policy(firstName);
+        Policy second = policy(secondName);
+        GameState state = GameState.newGame(deck(), seed);
+        Rng rng = new Rng(0);
+        int firstWins = 0;
+        int secondWins = 0;
+        int draws = 0;
+        MatchStore history = openHistory(option("history", null));
+        int[] moves = new int[64];
+        for (int g = 0; g < games; g++) {
+            boolean swapped = (g & 1) == 1;
+            long gameSeed = seed + g / 2;
+            long started = System.currentTimeMillis();
+            state.reset(gameSeed);
+            rng.setState(~gameSeed);
+            int played = 0;
+            while (!state.isOver()) {
+                boolean firstMoves = (state.current() == 0) != swapped;
+                int move = (firstMoves ? first : second).chooseMove(state, rng);
+                if (played == moves.length) {
+                    moves = Arrays.copyOf(moves, played * 2);
+                }
+                moves[played++] = move;
+                state.apply(move);
+            }
+            int winner = state.winner();
+            if (history != null) {
+                // Two copies of one policy are told apart by seat
+                String a = firstName.equals(secondName) ? firstName + "-1" : firstName;
+                String b = firstName.equals(secondName) ? secondName + "-2" : secondName;
+                long now = System.currentTimeMillis();
+                record(history, new MatchRecord(swapped ? b : a, swapped ? a : b, gameSeed,
+                    Arrays.copyOf(moves, played), winner, state.turn() + 1, now - started, now));
+            }
+            if (winner == GameState.DRAW) {
+                draws++;
+            } else if ((winner == 0) != swapped) {
+                firstWins++;
+            } else {
+                secondWins++;
+            }
+        }
+        System.out.printf("%s %d - %d %s, %d draws in %d games%n", firstName, firstWins, secondWins, secondName, draws, games);
+        if (cache != null) {
+            System.out.println("evaluation cache: " + cache);
+        }
+        if (history != null) {
+            close(history);
+        }
+    }
+
+    // Prints a player's recent matches, or those against one opponent, from a match store
+    private void history() {
+        String dir = options.get("dir");
+        String player = options.get("player");
+        if (dir == null || (player == null && !options.containsKey("compact"))) {
+            throw new IllegalArgumentException("history needs --dir and --player (or --compact)");
+        }
+        MatchStore history = openHistory(dir);
+        try {
+            if (options.containsKey("compact")) {
+                long retention = longOption("retention-days", 0) * 24 * 60 * 60 * 1000L;
+                long start = System.nanoTime();
+                int replaced = history.compact(retention);
+                System.out.printf("compacted %d segments in %.1f ms, %d segments, %,d matches%n",
+                    replaced, (System.nanoTime() - start) / 1e6, history.segmentCount(), history.size());
+            }
+            if (player != null) {
+                String against = options.get("against");
+                int limit = intOption("limit", 20);
+                long start = System.nanoTime();
+                List<MatchRecord> matches = against == null
+                    ? history.recent(player, limit) : history.headToHead(player, against, limit);
+                long took = System.nanoTime() - start;
+                for (MatchRecord match : matches) {
+                    System.out.println(match);
+                }
+                System.out.printf("%d matches in %.2f ms%n", matches.size(), took / 1e6);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read match history " + dir + ": " + e.getMessage());
+        } finally {
+            close(history);
+        }
+    }
+
+    private static MatchStore openHistory(String dir) {
+        if (dir == null) {
+            return null;
+        }
+        try {
+            return MatchStore.open(Paths.get(dir));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot open match history " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static void record(MatchStore history, MatchRecord match) {
+        try {
+            history.append(match);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot write match history: " + e.getMessage());
+        }
+    }
+
+    private static void close(MatchStore history) {
+        try {
+            history.close();
+        } catch (IOException e) {
+            System.err.println("Cannot close match history: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Plays console games from a command script (see ScriptInput) with no pauses or
+     * board drawing, printing one line per game: how it ended, the turns played, the
+     * commands it used and any it left unused. The game's own output is discarded.
+     */
+    private void script() {
+        String file = option("file", "-");
+        long defaultSeed = longOption("seed", 1);
+        PrintStream out = System.out;
+        int games = 0;
+        int finished = 0;
+        long start = System.nanoTime();
+        try (InputStream in = file.equals("-") ? System.in : new FileInputStream(file)) {
+            ScriptInput script = new ScriptInput(in);
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            while (true) {
+                Long seed = script.nextGame(defaultSeed);
+                if (script.skipped() > 0) {
+                    out.printf("  (%d unused commands)%n", script.skipped());
+                }
+                if (seed == null) {
+                    break;
+                }
+                games++;
+                VirusBoard game = new VirusBoard(script, new Random(seed));
+                String result;
+                try {
+                    game.play();
+                    result = game.getWinner() != null ? game.getWinner().getName() + " wins" : "exit";
+                } catch (InputMismatchException e) {
+                    result = "error, " + e.getMessage();
+                } catch (NoSuchElementException e) {
+                    result = "out of commands";
+                }
+                if (game.getWinner() != null) {
+                    finished++;
+                }
+                out.printf("game %d seed %d: %s after %d turns, %d commands%n",
+                    games, seed, result, game.getTurns(), script.used());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read " + file + ": " + e.getMessage());
+        } finally {
+            System.setOut(out);
+        }
+        System.out.printf("%d games, %d won, in %.1f ms%n", games, finished, (System.nanoTime() - start) / 1e6);
+    }
+
+    /*
+     * Runs the rule fuzzer (see RuleFuzzer) and exits with status 1 if an invariant broke,
+     * after shrinking the failure and printing it as a script, also written to --out.
+     * With --replay the script is checked again instead.
+     */
+    private void fuzz() {
+        RuleFuzzer fuzzer = new RuleFuzzer(option("target", RuleFuzzer.ENGINE));
+        String replay = options.get("replay");
+        RuleFuzzer.Failure failure;
+        if (replay != null) {
+            try (InputStream in = replay.equals("-") ? System.in : new FileInputStream(replay)) {
+                ScriptInput script = new ScriptInput(in);
+                Long seed = script.nextGame(1);
+                if (seed == null) {
+                    throw new IllegalArgumentException(replay + " has no game");
+                }
+                int[] choices = new int[64];
+                int count = 0;
+                try {
+                    while (true) {
+                        int choice = script.nextInt();
+                        if (count == choices.length) {
+                            choices = Arrays.copyOf(choices, count * 2);
+                        }
+                        choices[count++] = choice;
+                    }
+                } catch (NoSuchElementException e) {
+                    // End of the game's choices
+                }
+                PrintStream out = System.out;
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                try {
+                    failure = fuzzer.replay(seed, Arrays.copyOf(choices, count));
+                } finally {
+                    System.setOut(out);
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read " + replay + ": " + e.getMessage());
+            }
+            System.out.println(failure == null ? "every invariant held" : failure.message);
+        } else {
+            int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+            long millis = (long) (Double.parseDouble(option("seconds", "10")) * 1000);
+            PrintStream out = System.out;
+            // The console game's own output is discarded
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            RuleFuzzer.Result result;
+            try {
+                result = fuzzer.run(threads, longOption("seed", 1), millis);
+                failure = result.failure == null ? null : fuzzer.shrink(result.failure);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                System.setOut(out);
+            }
+            System.out.printf("%,d games, %,d steps in %.1f s on %d threads (%,.0f steps per second)%n",
+                result.games, result.steps, result.seconds, threads, result.steps / result.seconds);
+            if (failure != null) {
+                System.out.printf("seed %d broke an invariant, shrunk from %d to %d choices:%n",
+                    failure.seed, result.failure.choices.length, failure.choices.length);
+                System.out.print(failure.script());
+                String file = options.get("out");
+                if (file != null) {
+                    try {
+                        Files.writeString(Paths.get(file), failure.script());
+                    } catch (IOException e) {
+                        System.err.println("Cannot write " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * Plays one game against another process over TCP (see LockstepSession). The host
+     * deals with --deck and --seed and moves first. Each side's moves come from --policy,
+     * or from the keyboard with "human". Exits with status 1 on a desync.
+     */
+    private void lockstep() {
+        String host = options.get("host");
+        String connect = options.get("connect");
+        if ((host == null) == (connect == null)) {
+            throw new IllegalArgumentException("lockstep needs either --host PORT or --connect HOST:PORT");
+        }
+        String name = option("policy", "greedy");
+        Policy bot = name.equals("human") ? null : policy(name);
+        boolean quiet = options.containsKey("quiet");
+        Scanner keyboard = bot == null ? new Scanner(System.in) : null;
+        LockstepSession session;
+        try {
+            if (host != null) {
+                System.out.println("waiting for an opponent on port " + host + "...");
+                session = LockstepSession.host(Integer.parseInt(host), deck(), longOption("seed", System.nanoTime()));
+            } else {
+                int colon = connect.lastIndexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("--connect needs HOST:PORT");
+                }
+                session = LockstepSession.join(connect.substring(0, colon), Integer.parseInt(connect.substring(colon + 1)));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot start the game: " + e.getMessage());
+        }
+
+        GameState state = session.state();
+        Rng rng = new Rng(~session.seed() ^ session.seat());
+        long start = System.nanoTime();
+        try (LockstepSession game = session) {
+            System.out.printf("seed %d, you are player %d%n", game.seed(), game.seat() + 1);
+            while (!state.isOver()) {
+                int p = state.current();
+                int turn = state.turn();
+                String card;
+                int move;
+                if (game.isMyTurn()) {
+                    move = bot != null ? bot.chooseMove(state, rng) : askMove(state, keyboard);
+                    card = move == Moves.NONE ? "-" : CardCodes.toString(state.handCard(p, Moves.slot(move)));
+                    game.play(move);
+                } else {
+                    // The card leaves the hand once the move is applied, so read the slots first
+                    String[] hand = new String[state.handSize(p)];
+                    for (int i = 0; i < hand.length; i++) {
+                        hand[i] = CardCodes.toString(state.handCard(p, i));
+                    }
+                    move = game.receive();
+                    card = move == Moves.NONE ? "-" : hand[Moves.slot(move)];
+                }
+                if (!quiet) {
+                    System.out.printf("turn %3d  player %d  %-12s %s%n", turn + 1, p + 1, Moves.toString(move), card);
+                }
+            }
+            System.out.printf("%s after %d turns, state hash %016x%n", result(state.winner()), state.turn() + 1, state.hash());
+            System.out.printf("%d moves in %.1f s: %d bytes sent, %d received (%.1f bytes a move)%n",
+                game.moves(), (System.nanoTime() - start) / 1e9, game.bytesSent(), game.bytesReceived(),
+                (double) (game.bytesSent() + game.bytesReceived()) / Math.max(1, game.moves()));
+        } catch (DesyncException e) {
+            System.err.println("DESYNC: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Game aborted: " + e.getMessage());
+            System.exit(1);
+        } catch (NoSuchElementException e) {
+            System.err.println("Game aborted: no more input");
+            System.exit(1);
+        }
+    }
+
+    // Lists the legal moves and reads the player's pick from the keyboard
+    private static int askMove(GameState state, Scanner keyboard) {
+        int p = state.current();
+        int[] moves = new int[GameState.MAX_MOVES];
+        int count = state.legalMoves(moves);
+        if (count == 0) {
+            return Moves.NONE;
+        }
+        System.out.print("your hand:");
+        for (int i = 0; i < state.handSize(p); i++) {
+            System.out.print(" " + (i + 1) + "." + CardCodes.toString(state.handCard(p, i)));
+        }
+        System.out.println();
+        for (int i = 0; i < count; i++) {
+            System.out.printf("  %d. %s %s%n", i + 1, Moves.toString(moves[i]),
+                CardCodes.toString(state.handCard(p, Moves.slot(moves[i]))));
+        }
+        while (true) {
+            System.out.print("move: ");
+            try {
+                int pick = keyboard.nextInt();
+                if (pick >= 1 && pick <= count) {
+                    return moves[pick - 1];
+                }
+            } catch (InputMismatchException e) {
+                keyboard.next();
+            }
+            System.out.println("pick a number from 1 to " + count);
+        }
+    }
+
+    private Policy policy(String name) {
+        switch (name) {
+            case "random": return new RandomPolicy();
+            case "greedy": return new GreedyPolicy();
+            case "expectimax": return withBook(new ExpectimaxBot(evaluator(), longOption("budget-ms", 20) * 1_000_000L));
+            default: throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    // Expectimax bots evaluate with the --network file if given, through one shared cache when --cache-mb is given
+    private Evaluator evaluator() {
+        Evaluator leaf = Evaluator.HEURISTIC;
+        String file = options.get("network");
+        if (file != null) {
+            if (network == null) {
+                try (InputStream in = new FileInputStream(file)) {
+                    network = ValueNetwork.load(in);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Cannot load network " + file + ": " + e.getMessage());
+                }
+            }
+            leaf = network.copy();
+        }
+        long megabytes = longOption("cache-mb", 0);
+        if (megabytes <= 0) {
+            return leaf;
+        }
+        if (cache == null) {
+            cache = new EvalCache(megabytes << 20);
+        }
+        return cache.evaluator(leaf);
+    }
+
+    // Expectimax bots play the opening from the book given with --book
+    private Policy withBook(Policy bot) {
+        String file = options.get("book");
+        if (file == null) {
+            return bot;
+        }
+        if (book == null) {
+            try {
+                book = OpeningBook.open(Paths.get(file));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot open book " + file + ": " + e.getMessage());
+            }
+        }
+        return book.policy(bot);
+    }
+
+    private DeckComposition deck() {
+        String name = option("deck", "standard");
+        switch (name) {
+            case "standard": return DeckComposition.STANDARD;
+            case "compact": return DeckComposition.COMPACT;
+            default: throw new IllegalArgumentException("Unknown deck: " + name);
+        }
+    }
+
+    private static String result(int winner) {
+        return winner == GameState.DRAW ? "draw" : "player " + (winner + 1) + " wins";
+    }
+
+    private String option(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    private int intOption(String name, int fallback) {
+        return (int) longOption(name, fallback);
+    }
+
+    private long longOption(String name, long fallback) {
+        String value = options.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " needs a number, got " + value);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package main;
+
+import interfaces.GameInput;
+import java.util.InputMismatchException;
+import java.util.Scanner;
+
+// Keyboard input for the interactive console game; one Scanner shared by the board and the treatments
+final class ConsoleInput implements GameInput {
+    private final Scanner scanner;
+
+    ConsoleInput(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public int nextInt() {
+        try {
+            return scanner.nextInt();
+        } catch (InputMismatchException e) {
+            scanner.nextLine(); // Drop the rest of the bad line
+            throw e;
+        }
+    }
+
+    @Override
+    public void waitForEnter() {
+        System.out.println("\nPress Enter to continue...");
+        scanner.nextLine(); // Consume pending newline
+        scanner.nextLine(); // Wait for Enter key
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return true;
+    }
+}
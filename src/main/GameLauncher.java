@@ -1,6 +1,7 @@
 package main;
 
 import enums.Color;
+import java.util.Random;
 import java.util.Scanner;
 
 /**
@@ -30,7 +31,7 @@ public class GameLauncher {
         }
         
         System.out.println("\nStarting game with 2 players...");
-        VirusBoard game = new VirusBoard();
+        VirusBoard game = new VirusBoard(new ConsoleInput(scanner), new Random());
         game.play();
     }
 }
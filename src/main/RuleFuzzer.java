@@ -0,0 +1,403 @@
+package main;
+
+import enums.Color;
+import interfaces.GameInput;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import model.Card;
+import model.DeckComposition;
+import model.Organ;
+import model.Player;
+import sim.CardCodes;
+import sim.GameState;
+import sim.Moves;
+import sim.Rng;
+
+/**
+ * Plays games with random choices, legal and illegal, on every core and
+ * checks the rules' invariants after every step. Each game is a seed plus the
+ * choices made, so a broken invariant is replayed exactly and shrunk to the
+ * fewest choices that still break it.
+ *
+ * The engine target drives sim.GameState with a random legal move or, one
+ * time in eight, any move at all: isLegal and apply must agree, an illegal
+ * move must leave the state untouched, every card code must be accounted
+ * for, hands stay within 0..MAX_HAND and refilled, and only a player with
+ * four healthy colors may have won.
+ *
+ * The console target feeds VirusBoard random numbers as its input and checks
+ * before each one that the cards viewDeckInfo adds up are all there, once
+ * each, and that hasWon counts only healthy organs. An exception escaping the
+ * game is a failure too. Immunity is not checked: no rule of either game
+ * immunizes an organ yet.
+ *
+ * A failure prints as a command script ("game SEED" and the choices), which
+ * Cli fuzz --replay checks again, and Cli script plays for the console.
+ */
+final class RuleFuzzer {
+    static final String ENGINE = "engine";
+    static final String CONSOLE = "console";
+    private static final int ENGINE_STEPS = 1_000;
+    private static final int CONSOLE_STEPS = 2_000;
+    private static final int COLOR_COUNT = Color.values().length;
+
+    private final String target;
+    private final int maxSteps;
+
+    RuleFuzzer(String target) {
+        if (!target.equals(ENGINE) && !target.equals(CONSOLE)) {
+            throw new IllegalArgumentException("Unknown fuzz target: " + target);
+        }
+        this.target = target;
+        this.maxSteps = target.equals(ENGINE) ? ENGINE_STEPS : CONSOLE_STEPS;
+    }
+
+    // A broken invariant, the seed of the game and the choices that led to it
+    static final class Failure {
+        final long seed;
+        final int[] choices;
+        final String message;
+
+        Failure(long seed, int[] choices, String message) {
+            this.seed = seed;
+            this.choices = choices;
+            this.message = message;
+        }
+
+        // The invariant's name; shrinking keeps the failure of the same kind
+        String kind() {
+            int colon = message.indexOf(':');
+            return colon < 0 ? message : message.substring(0, colon);
+        }
+
+        String script() {
+            StringBuilder text = new StringBuilder();
+            text.append("# ").append(message).append('\n');
+            text.append("game ").append(seed).append('\n');
+            for (int i = 0; i < choices.length; i++) {
+                text.append(choices[i]).append(i % 20 == 19 ? '\n' : ' ');
+            }
+            return text.append('\n').toString();
+        }
+    }
+
+    static final class Result {
+        long games;
+        long steps;
+        double seconds;
+        Failure failure;
+    }
+
+    Result run(int threads, long firstSeed, long millis) throws InterruptedException {
+        AtomicLong seeds = new AtomicLong(firstSeed);
+        AtomicReference<Failure> failure = new AtomicReference<>();
+        LongAdder games = new LongAdder();
+        LongAdder steps = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                Worker worker = new Worker();
+                while (failure.get() == null && System.nanoTime() < deadline) {
+                    long seed = seeds.getAndIncrement();
+                    Failure found = worker.play(seed, null);
+                    games.increment();
+                    steps.add(worker.steps);
+                    if (found != null) {
+                        failure.compareAndSet(null, found);
+                    }
+                }
+            }, "fuzz-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Result result = new Result();
+        result.seconds = (System.nanoTime() - start) / 1e9;
+        result.games = games.sum();
+        result.steps = steps.sum();
+        result.failure = failure.get();
+        return result;
+    }
+
+    // Replays a seed and its choices; null if every invariant held
+    Failure replay(long seed, int[] choices) {
+        return new Worker().play(seed, choices);
+    }
+
+    /*
+     * Removes runs of choices, halving the run length down to one, as long as the game
+     * still breaks the same invariant, then cuts the choices after the failing step.
+     */
+    Failure shrink(Failure failure) {
+        Worker worker = new Worker();
+        Failure best = failure;
+        for (int chunk = best.choices.length / 2; chunk >= 1; chunk /= 2) {
+            for (int from = 0; from + chunk <= best.choices.length; ) {
+                int[] candidate = new int[best.choices.length - chunk];
+                System.arraycopy(best.choices, 0, candidate, 0, from);
+                System.arraycopy(best.choices, from + chunk, candidate, from, candidate.length - from);
+                Failure again = worker.play(best.seed, candidate);
+                if (again != null && again.kind().equals(failure.kind())) {
+                    best = again;
+                } else {
+                    from += chunk;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Thrown from the console game's input when an invariant is broken
+    private static final class Violation extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Violation(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    // One thread's buffers; play() records the choices it makes or replays
+    private final class Worker implements GameInput {
+        private final Rng rng = new Rng(0);
+        private final int[] legal = new int[GameState.MAX_MOVES];
+        private final int[] expectedCodes = new int[CardCodes.CODE_LIMIT];
+        private final int[] codes = new int[CardCodes.CODE_LIMIT];
+        private final Set<Card> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final boolean[] healthyColor = new boolean[COLOR_COUNT];
+        private int[] choices = new int[256];
+        private int steps;
+        private int[] script;
+        private VirusBoard game;
+        private int expectedCards;
+
+        Failure play(long seed, int[] replay) {
+            rng.setState(~seed);
+            script = replay;
+            steps = 0;
+            String broken;
+            try {
+                broken = target.equals(ENGINE) ? playEngine(seed) : playConsole(seed);
+            } catch (Violation e) {
+                broken = e.getMessage();
+            } catch (RuntimeException e) {
+                broken = "crash: " + e + " at " + e.getStackTrace()[0];
+            } finally {
+                game = null;
+            }
+            return broken == null ? null : new Failure(seed, Arrays.copyOf(choices, steps), broken);
+        }
+
+        // False once a replay runs out of choices or a random game reaches its step limit
+        private boolean hasChoice() {
+            return script == null ? steps < maxSteps : steps < script.length;
+        }
+
+        private int record(int choice) {
+            if (steps == choices.length) {
+                choices = Arrays.copyOf(choices, steps * 2);
+            }
+            choices[steps++] = choice;
+            return choice;
+        }
+
+        private String playEngine(long seed) {
+            GameState state = GameState.newGame(DeckComposition.STANDARD, seed);
+            countCodes(state, expectedCodes);
+            String broken = checkEngine(state);
+            while (broken == null && !state.isOver() && hasChoice()) {
+                int count = state.legalMoves(legal);
+                if (count == 0) {
+                    return "stuck: no legal moves on turn " + state.turn();
+                }
+                int move;
+                if (script != null) {
+                    move = record(script[steps]);
+                } else if (rng.nextInt(8) != 0) {
+                    move = record(legal[rng.nextInt(count)]);
+                } else {
+                    move = record((rng.nextInt(4) << 8) | (rng.nextInt(16) << 4) | rng.nextInt(16));
+                }
+                boolean allowed = state.isLegal(move);
+                long before = allowed ? 0 : state.hash();
+                boolean applied = state.apply(move);
+                if (applied != allowed) {
+                    return "legality: apply returned " + applied + " for " + Moves.toString(move)
+                        + " but isLegal said " + allowed;
+                }
+                if (!applied && state.hash() != before) {
+                    return "illegal-move: " + Moves.toString(move) + " was refused but changed the state";
+                }
+                broken = checkEngine(state);
+            }
+            return broken;
+        }
+
+        private String checkEngine(GameState state) {
+            countCodes(state, codes);
+            if (!Arrays.equals(codes, expectedCodes)) {
+                for (int code = 0; code < codes.length; code++) {
+                    if (codes[code] != expectedCodes[code]) {
+                        return "cards: " + codes[code] + " of " + CardCodes.toString(code) + " in play, expected "
+                            + expectedCodes[code] + " on turn " + state.turn();
+                    }
+                }
+            }
+            for (int p = 0; p < GameState.PLAYERS; p++) {
+                if (state.handSize(p) < 0 || state.handSize(p) > GameState.MAX_HAND) {
+                    return "hand: player " + p + " holds " + state.handSize(p) + " cards";
+                }
+                for (int c = 0; c < GameState.COLORS; c++) {
+                    if (state.healthy(p, c) < 0 || state.infected(p, c) < 0) {
+                        return "organs: negative organ count for player " + p + " color " + c;
+                    }
+                }
+            }
+            if (state.isOver()) {
+                int winner = state.winner();
+                if (winner != GameState.DRAW && healthyColors(state, winner) < GameState.COLORS) {
+                    return "win: player " + winner + " won with " + healthyColors(state, winner) + " healthy colors";
+                }
+                return null;
+            }
+            for (int p = 0; p < GameState.PLAYERS; p++) {
+                if (healthyColors(state, p) == GameState.COLORS) {
+                    return "win: player " + p + " has four healthy colors but the game goes on";
+                }
+            }
+            int current = state.current();
+            if (state.handSize(current ^ 1) > GameState.HAND_SIZE
+                    || (state.handSize(current) != GameState.HAND_SIZE && state.deckSize() + state.discardSize() > 0)) {
+                return "hand: sizes " + state.handSize(0) + " and " + state.handSize(1) + " after turn " + state.turn();
+            }
+            return null;
+        }
+
+        private int healthyColors(GameState state, int p) {
+            int colors = 0;
+            for (int c = 0; c < GameState.COLORS; c++) {
+                if (state.healthy(p, c) > 0) {
+                    colors++;
+                }
+            }
+            return colors;
+        }
+
+        private void countCodes(GameState state, int[] counts) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < state.deckSize(); i++) {
+                counts[state.deckCard(i)]++;
+            }
+            for (int i = 0; i < state.discardSize(); i++) {
+                counts[state.discardCard(i)]++;
+            }
+            for (int p = 0; p < GameState.PLAYERS; p++) {
+                for (int i = 0; i < state.handSize(p); i++) {
+                    counts[state.handCard(p, i)]++;
+                }
+                for (int c = 0; c < GameState.COLORS; c++) {
+                    counts[CardCodes.of(CardCodes.ORGAN, c)] += state.healthy(p, c) + state.infected(p, c);
+                }
+            }
+        }
+
+        private String playConsole(long seed) {
+            game = new VirusBoard(this, new Random(seed));
+            expectedCards = DeckComposition.STANDARD.totalCards();
+            try {
+                game.play();
+            } catch (NoSuchElementException e) {
+                // Out of choices
+            }
+            checkConsole();
+            Player winner = game.getWinner();
+            if (winner != null && !game.hasWon(game.getPlayers().indexOf(winner))) {
+                return "win: " + winner.getName() + " won without four healthy colors";
+            }
+            return null;
+        }
+
+        // Called before every choice, between the game's steps
+        @Override
+        public int nextInt() {
+            checkConsole();
+            if (!hasChoice()) {
+                throw new NoSuchElementException("Out of fuzz choices");
+            }
+            if (script != null) {
+                return record(script[steps]);
+            }
+            // Mostly menu options and hand slots, sometimes out of range, rarely the exit option
+            int roll = rng.nextInt(100);
+            if (roll < 90) {
+                return record(1 + rng.nextInt(5));
+            } else if (roll < 94) {
+                return record(0);
+            } else if (roll < 99) {
+                return record(rng.nextInt(24) - 6);
+            }
+            return record(6);
+        }
+
+        private void checkConsole() {
+            List<Card> deck = game.getDeck();
+            List<Card> discardPile = game.getDiscardPile();
+            List<Player> players = game.getPlayers();
+            Map<Player, List<Organ>> tables = game.getOrgansOnTable();
+            seen.clear();
+            int total = add(deck) + add(discardPile);
+            for (int p = 0; p < players.size(); p++) {
+                Player player = players.get(p);
+                int hand = player.getHand().size();
+                if (hand < 0 || hand > expectedCards) {
+                    throw new Violation("hand: " + player.getName() + " holds " + hand + " cards");
+                }
+                total += add(player.getHand()) + add(tables.get(player));
+                int healthy = 0;
+                Arrays.fill(healthyColor, false);
+                for (Organ organ : tables.get(player)) {
+                    if (!organ.isInfected() && !healthyColor[organ.getColor().ordinal()]) {
+                        healthyColor[organ.getColor().ordinal()] = true;
+                        healthy++;
+                    }
+                }
+                if (game.hasWon(p) != (healthy >= 4)) {
+                    throw new Violation("win: hasWon says " + game.hasWon(p) + " for " + player.getName()
+                        + " with " + healthy + " healthy colors");
+                }
+            }
+            if (total != expectedCards) {
+                throw new Violation("cards: " + total + " cards in play, expected " + expectedCards
+                    + " (deck " + deck.size() + ", discard " + discardPile.size() + ")");
+            }
+            if (seen.size() != total) {
+                throw new Violation("duplicate: " + (total - seen.size()) + " cards are in two places at once");
+            }
+        }
+
+        private int add(List<? extends Card> cards) {
+            seen.addAll(cards);
+            return cards.size();
+        }
+
+        @Override
+        public void waitForEnter() {
+        }
+
+        @Override
+        public boolean isInteractive() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package main;
+
+import interfaces.GameInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads console game choices from a command script instead of the keyboard.
+ *
+ * A script is the numbers a player would type, separated by any whitespace,
+ * with # starting a comment that runs to the end of the line. "game SEED"
+ * starts a new game whose deck is shuffled with that seed; numbers before the
+ * first header belong to a game with the default seed. When a game ends
+ * before its commands do, the rest are skipped up to the next header, and
+ * when the commands end first, nextInt reports the end of input.
+ *
+ * Tokens are parsed straight from a byte buffer, so a script of millions of
+ * commands costs no more than reading it.
+ */
+final class ScriptInput implements GameInput {
+    private static final int MAX_TOKEN = 24;
+    private static final byte[] GAME = {'g', 'a', 'm', 'e'};
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private final byte[] token = new byte[MAX_TOKEN];
+    private int position;
+    private int limit;
+    private int tokenLength;
+    private boolean tokenTruncated;
+    private boolean pushedBack;
+    private boolean atHeader;
+    private boolean started;
+    private int line = 1;
+    private int tokenLine;
+    private int used;
+    private int skipped;
+
+    ScriptInput(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Moves to the next game in the script and returns its seed, or
+     * defaultSeed when the script does not start with a header. Returns null
+     * once the script is exhausted.
+     */
+    Long nextGame(long defaultSeed) {
+        used = 0;
+        skipped = 0;
+        if (!started) {
+            started = true;
+            if (!readToken()) {
+                return null;
+            }
+            if (!isGameHeader()) {
+                pushedBack = true;
+                return defaultSeed;
+            }
+            atHeader = true;
+        }
+        while (!atHeader) {
+            if (!readToken()) {
+                return null;
+            }
+            if (isGameHeader()) {
+                atHeader = true;
+            } else {
+                skipped++;
+            }
+        }
+        atHeader = false;
+        if (!readToken() || isGameHeader()) {
+            throw new IllegalArgumentException("line " + tokenLine + ": game needs a seed");
+        }
+        try {
+            return Long.parseLong(tokenText());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + tokenLine + ": bad seed " + tokenText());
+        }
+    }
+
+    // Numbers consumed by the current game so far, and numbers the previous game left unused
+    int used() { return used; }
+    int skipped() { return skipped; }
+    int line() { return line; }
+
+    @Override
+    public int nextInt() {
+        if (atHeader || (!pushedBack && !readToken())) {
+            throw new NoSuchElementException("End of script at line " + line);
+        }
+        pushedBack = false;
+        if (isGameHeader()) {
+            atHeader = true;
+            throw new NoSuchElementException("End of game script at line " + tokenLine);
+        }
+        used++;
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative) {
+            i++;
+        }
+        if (tokenTruncated || i == tokenLength) {
+            throw new InputMismatchException("line " + tokenLine + ": not a number: " + tokenText());
+        }
+        long value = 0;
+        for (; i < tokenLength; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new InputMismatchException("line " + tokenLine + ": not a number: " + tokenText());
+            }
+            value = value * 10 + digit;
+            // Checked per digit: a long overflows past 19 digits and could wrap back into range
+            if (value > Integer.MAX_VALUE) {
+                throw new InputMismatchException("line " + tokenLine + ": number too large: " + tokenText());
+            }
+        }
+        return negative ? (int) -value : (int) value;
+    }
+
+    @Override
+    public void waitForEnter() {
+        // Nobody to wait for
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    // Reads the next whitespace separated token into token[]; false at the end of the script
+    private boolean readToken() {
+        int c = read();
+        while (true) {
+            if (c == '#') {
+                while (c != -1 && c != '\n') {
+                    c = read();
+                }
+            } else if (c == '\n') {
+                line++;
+            } else if (c > ' ' || c == -1) {
+                break;
+            }
+            c = read();
+        }
+        if (c == -1) {
+            return false;
+        }
+        tokenLine = line;
+        tokenLength = 0;
+        tokenTruncated = false;
+        while (c > ' ' && c != '#') {
+            if (tokenLength < MAX_TOKEN) {
+                token[tokenLength++] = (byte) c;
+            } else {
+                tokenTruncated = true;
+            }
+            c = read();
+        }
+        // The delimiter is put back so line counting and comments see it
+        if (c != -1) {
+            position--;
+        }
+        return true;
+    }
+
+    private boolean isGameHeader() {
+        if (tokenLength != GAME.length) {
+            return false;
+        }
+        for (int i = 0; i < GAME.length; i++) {
+            if (token[i] != GAME[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String tokenText() {
+        return new String(token, 0, tokenLength) + (tokenTruncated ? "..." : "");
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xff;
+    }
+}
@@ -0,0 +1,160 @@
+package main;
+
+import interfaces.GameInput;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import model.BoardSnapshot;
+import model.BoardSnapshot.PlayerView;
+
+/**
+ * Concurrent check of the board snapshots (model.SnapshotPublisher): the game
+ * thread plays console games with random input while reader threads keep
+ * taking the current snapshot without any locking. Every snapshot a reader
+ * gets must hold all the cards of the game between the piles, hands and
+ * tables, with none half moved from one place to another; versions of one
+ * game must never go backwards, and a snapshot read earlier must still hold
+ * the same cards while the game has moved on.
+ *
+ * Usage: java main.SnapshotReaderTest [readers] [actions] [seed]
+ */
+public final class SnapshotReaderTest implements GameInput {
+    private static final int MAX_CHOICES = 2_000;
+
+    private final Random random;
+    private final int actions;
+    private volatile VirusBoard game;
+    private int choices;
+    private int played;
+    private long published;
+
+    private SnapshotReaderTest(long seed, int actions) {
+        this.random = new Random(seed);
+        this.actions = actions;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int actions = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        SnapshotReaderTest test = new SnapshotReaderTest(seed, actions);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        long[] reads = new long[readers];
+        List<Thread> threads = new ArrayList<>();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            test.game = new VirusBoard(test, new Random(seed));
+            for (int r = 0; r < readers; r++) {
+                int reader = r;
+                Thread thread = new Thread(() -> {
+                    try {
+                        reads[reader] = test.read(running);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e.getMessage());
+                    }
+                }, "reader-" + r);
+                threads.add(thread);
+                thread.start();
+            }
+            int games = 0;
+            while (test.played < actions && failure.get() == null) {
+                if (games > 0) {
+                    test.game = new VirusBoard(test, new Random(seed + games));
+                }
+                games++;
+                test.choices = 0;
+                try {
+                    test.game.play();
+                } catch (NoSuchElementException e) {
+                    // Out of choices
+                }
+                test.published += test.game.getSnapshot().version();
+            }
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            long total = 0;
+            for (long count : reads) {
+                total += count;
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException(failure.get());
+            }
+            out.printf("%,d writer actions in %,d games, %,d snapshots published, %,d reads by %d readers: ok%n",
+                test.played, games, test.published, total, readers);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    // One reader: checks every snapshot it gets until the writer is done; returns the reads
+    private long read(AtomicBoolean running) {
+        VirusBoard board = null;
+        BoardSnapshot last = null;
+        int cards = 0;
+        long reads = 0;
+        while (running.get()) {
+            VirusBoard now = game;
+            BoardSnapshot snapshot = now.getSnapshot();
+            if (now != board) {
+                // A new game: its first snapshot was published before the writer handed it out
+                board = now;
+                last = null;
+                cards = count(snapshot);
+            }
+            reads++;
+            if (count(snapshot) != cards) {
+                throw new IllegalStateException("Version " + snapshot.version() + " holds " + count(snapshot)
+                    + " cards instead of " + cards);
+            }
+            if (last != null) {
+                if (snapshot.version() < last.version()) {
+                    throw new IllegalStateException("Version " + snapshot.version() + " read after " + last.version());
+                }
+                if (count(last) != cards) {
+                    throw new IllegalStateException("Version " + last.version() + " changed after it was read");
+                }
+            }
+            last = snapshot;
+        }
+        return reads;
+    }
+
+    private static int count(BoardSnapshot snapshot) {
+        int cards = snapshot.deck().size() + snapshot.discardPile().size();
+        for (PlayerView player : snapshot.players()) {
+            cards += player.hand().size() + player.organs().size();
+        }
+        return cards;
+    }
+
+    // Random menu choices, like SyncBenchmark's; each one is a writer action
+    @Override
+    public int nextInt() {
+        if (++choices > MAX_CHOICES || played >= actions) {
+            throw new NoSuchElementException();
+        }
+        played++;
+        double roll = random.nextDouble();
+        return roll < 0.96 ? 1 + random.nextInt(3) : roll < 0.98 ? 0 : 1 + random.nextInt(5);
+    }
+
+    @Override
+    public void waitForEnter() {
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+}
@@ -0,0 +1,174 @@
+package main;
+
+import interfaces.GameInput;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import model.BoardSnapshot;
+import model.BoardSnapshot.PlayerView;
+import net.DeltaDecoder;
+import net.DeltaEncoder;
+import net.ThinBoard;
+
+/**
+ * Measures the thin-client sync (net.DeltaEncoder) on console games played with
+ * random input. Every published board is encoded for both seats and decoded
+ * again, over a link that loses some frames and acknowledgements, and each
+ * decoded board is checked against what that seat may see of the snapshot.
+ * Prints the bytes of a delta next to those of a full frame of the same
+ * board and the encoding time.
+ *
+ * Usage: java main.SyncBenchmark [games] [seed]
+ */
+public final class SyncBenchmark implements GameInput {
+    private static final int MAX_CHOICES = 2_000;
+    private static final double FRAME_LOSS = 0.05;
+    private static final double ACK_LOSS = 0.2;
+
+    private final Random random;
+    private final DeltaEncoder[] encoders = {new DeltaEncoder(0), new DeltaEncoder(1)};
+    private final DeltaDecoder[] decoders = {new DeltaDecoder(), new DeltaDecoder()};
+    private final DeltaEncoder full = new DeltaEncoder(0);
+    private VirusBoard game;
+    private long lastVersion;
+    private int choices;
+    private long boards;
+    private long frames;
+    private long fullFrames;
+    private long bytes;
+    private long fullBytes;
+    private long encodeNanos;
+    private long resyncs;
+
+    private SyncBenchmark(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        SyncBenchmark benchmark = new SyncBenchmark(seed);
+        try {
+            for (int g = 0; g < games; g++) {
+                benchmark.play(seed + g);
+            }
+        } finally {
+            System.setOut(out);
+        }
+        benchmark.report(games);
+    }
+
+    private void play(long seed) {
+        game = new VirusBoard(this, new Random(seed));
+        lastVersion = 0;
+        choices = 0;
+        for (DeltaEncoder encoder : encoders) {
+            encoder.resync();
+        }
+        try {
+            game.play();
+        } catch (NoSuchElementException e) {
+            // Out of choices
+        }
+        sync();
+    }
+
+    // Encodes the latest board for both seats and delivers it over the lossy link
+    private void sync() {
+        BoardSnapshot snapshot = game.getSnapshot();
+        if (snapshot == null || snapshot.version() == lastVersion) {
+            return;
+        }
+        lastVersion = snapshot.version();
+        boards++;
+        for (int seat = 0; seat < encoders.length; seat++) {
+            long start = System.nanoTime();
+            byte[] frame = encoders[seat].encode(snapshot);
+            encodeNanos += System.nanoTime() - start;
+            if (frame == null) {
+                continue;
+            }
+            frames++;
+            bytes += frame.length;
+            if (DeltaEncoder.isFull(frame)) {
+                fullFrames++;
+            }
+            if (random.nextDouble() < FRAME_LOSS) {
+                continue;
+            }
+            long version = decoders[seat].receive(frame);
+            if (version < 0) {
+                resyncs++;
+                encoders[seat].resync();
+                continue;
+            }
+            check(snapshot, seat, decoders[seat].board());
+            if (random.nextDouble() >= ACK_LOSS) {
+                encoders[seat].acknowledge(version);
+            }
+        }
+        full.resync();
+        fullBytes += full.encode(snapshot).length;
+    }
+
+    private static void check(BoardSnapshot snapshot, int seat, ThinBoard board) {
+        String problem = null;
+        if (board.version() != snapshot.version() || board.turn() != snapshot.turn()
+                || board.currentPlayer() != snapshot.currentPlayer()) {
+            problem = "version or turn";
+        } else if (board.deckSize() != snapshot.deck().size() || board.discardSize() != snapshot.discardPile().size()) {
+            problem = "pile counts";
+        } else {
+            List<BoardSnapshot.CardView> discard = snapshot.discardPile();
+            if (board.discardTop() != (discard.isEmpty() ? null : discard.get(discard.size() - 1))) {
+                problem = "discard top";
+            }
+        }
+        for (int p = 0; problem == null && p < snapshot.players().size(); p++) {
+            PlayerView player = snapshot.players().get(p);
+            boolean visible = p == seat || player.handRevealed();
+            if (!board.organs(p).equals(player.organs())) {
+                problem = "organs of player " + (p + 1);
+            } else if (board.handSize(p) != player.hand().size()) {
+                problem = "hand size of player " + (p + 1);
+            } else if (visible ? !player.hand().equals(board.hand(p)) : board.hand(p) != null) {
+                problem = "hand of player " + (p + 1);
+            }
+        }
+        if (problem != null) {
+            throw new IllegalStateException("Seat " + (seat + 1) + " decoded the wrong " + problem
+                + " of version " + snapshot.version() + ":\n" + board);
+        }
+    }
+
+    private void report(int games) {
+        System.out.printf("%d games, %,d frames (%,d full, %,d resyncs)%n", games, frames, fullFrames, resyncs);
+        System.out.printf("%.1f bytes a frame against %.1f for a full board, %.0f ns to encode%n",
+            (double) bytes / frames, (double) fullBytes / boards,
+            (double) encodeNanos / frames);
+    }
+
+    // Random menu choices, like RuleFuzzer's console target; the board is synced before each
+    @Override
+    public int nextInt() {
+        sync();
+        if (++choices > MAX_CHOICES) {
+            throw new NoSuchElementException();
+        }
+        double roll = random.nextDouble();
+        return roll < 0.96 ? 1 + random.nextInt(3) : roll < 0.98 ? 0 : 1 + random.nextInt(5);
+    }
+
+    @Override
+    public void waitForEnter() {
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+}
@@ -1,6 +1,13 @@
 package main;
 
 import enums.Color;
+import enums.ModelChangeType;
+import flight.CardEffectEvent;
+import flight.ReshuffleEvent;
+import flight.TurnEvent;
+import interfaces.CardHandler;
+import interfaces.GameInput;
+import interfaces.ModelListener;
 import interfaces.SpecialTreatment;
 import model.*;
 import java.util.*;
@@ -17,60 +24,45 @@ public class VirusBoard {
     private List<Card> deck;
     private List<Card> discardPile;
     private List<Player> players;
-    private Scanner scanner;
+    private final GameInput input;
+    private final Random random;
     private Map<Player, List<Organ>> organsOnTable;
+    private final CardHandler<Integer> playFromHand = new PlayFromHand();
+    private final CardHandler<Integer> useTreatment = new UseTreatment();
+    private final ModelEvents modelEvents = new ModelEvents();
+    private final ChangeLog changeLog = new ChangeLog();
+    private final SnapshotPublisher snapshots = new SnapshotPublisher();
+    private int shownPlayer = -1;
+    private int turns;
+    private Player winner;
+    private TurnEvent turnEvent;
 
     public VirusBoard() {
-        this.scanner = new Scanner(System.in);
+        this(new ConsoleInput(new Scanner(System.in)), new Random());
+    }
+
+    // random shuffles the deck, so a seeded generator makes a scripted game replay exactly
+    public VirusBoard(GameInput input, Random random) {
+        this.input = input;
+        this.random = random;
         this.organsOnTable = new HashMap<>();
-        this.discardPile = new ArrayList<>();
+        this.discardPile = modelEvents.newDiscardPile();
         initializeDeck();
         initializePlayers();
         dealInitialCards();
+        snapshots.attach(modelEvents, deck, discardPile, players, organsOnTable);
+        snapshots.publish(turns, 0);
+        if (input.isInteractive()) {
+            modelEvents.addListener(changeLog);
+        }
     }
 
     private void initializeDeck() {
-        deck = new ArrayList<>();
-        
-        // Create organs of different colors (5 of each)
-        for (Color color : Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW)) {
-            for (int i = 0; i < 5; i++) {
-                deck.add(new Organ(color));
-            }
-        }
-
-        // Create viruses of different colors (4 of each)
-        for (Color color : Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW)) {
-            for (int i = 0; i < 4; i++) {
-                deck.add(new Virus(color));
-            }
-        }
-
-        // Add more special treatments for better gameplay
-        // Information treatments (Reikan)
-        for (int i = 0; i < 3; i++) {
-            deck.add(new Reikan());
-        }
-        
-        // Exchange treatments
-        for (int i = 0; i < 2; i++) {
-            deck.add(new Exchange());
-        }
-        
-        // Control treatments
-        for (int i = 0; i < 2; i++) {
-            deck.add(new Control());
-        }
-        
-        // Medicine cards to heal organs (2 of each color)
-        for (Color color : Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW)) {
-            for (int i = 0; i < 2; i++) {
-                deck.add(new Medicina(color));
-            }
-        }
+        deck = modelEvents.newDeck();
+        deck.addAll(DeckComposition.STANDARD.buildDeck());
 
         // Shuffle the deck
-        Collections.shuffle(deck);
+        Collections.shuffle(deck, random);
         
         System.out.println("Deck initialized with " + deck.size() + " cards.");
     }
@@ -78,9 +70,9 @@ public class VirusBoard {
     private void initializePlayers() {
         players = new ArrayList<>();
         for (int i = 0; i < NUM_PLAYERS; i++) {
-            Player player = new Player("Player " + (i+1));
+            Player player = new Player("Player " + (i+1), modelEvents);
             players.add(player);
-            organsOnTable.put(player, new ArrayList<>());
+            organsOnTable.put(player, modelEvents.newTable(player));
         }
     }
     
@@ -89,7 +81,7 @@ public class VirusBoard {
         for (Player player : players) {
             for (int i = 0; i < REQUIRED_HAND_SIZE; i++) {
                 if (!deck.isEmpty()) {
-                    player.getHand().add(deck.remove(0));
+                    player.addCard(deck.remove(0));
                 } else {
                     System.out.println("Warning: Not enough cards to deal initial hand!");
                 }
@@ -99,12 +91,14 @@ public class VirusBoard {
 
     public void play() {
         int currentPlayer = 0;
+        turnEvent = TurnEvent.start();
 
         while (true) {
             // Ensure current player has exactly 3 cards
             ensureHandSize(currentPlayer);
+            snapshots.publish(turns, currentPlayer);
             
-            drawBoard(currentPlayer);
+            refreshBoard(currentPlayer);
             System.out.println("\nTurn of " + players.get(currentPlayer).getName());
 
             System.out.println("\nAvailable actions:");
@@ -116,7 +110,7 @@ public class VirusBoard {
             System.out.println("6. Exit game");
 
             System.out.print("Select an action: ");
-            int action = scanner.nextInt();
+            int action = input.nextInt();
 
             switch (action) {
                 case 1:
@@ -148,7 +142,11 @@ public class VirusBoard {
             }
 
             if (hasWon(currentPlayer)) {
-                drawBoard(currentPlayer);
+                winner = players.get(currentPlayer);
+                snapshots.publish(turns, currentPlayer);
+                if (input.isInteractive()) {
+                    drawBoard(currentPlayer);
+                }
                 System.out.println("\nCongratulations " + players.get(currentPlayer).getName() + "! You have won!");
                 return;
             }
@@ -178,8 +176,31 @@ public class VirusBoard {
     private int nextTurn(int currentPlayer) {
         // Ensure current player ends with exactly 3 cards
         ensureHandSize(currentPlayer);
+        turnEvent.finish(turns, players.get(currentPlayer), deck.size());
+        turnEvent = TurnEvent.start();
+        turns++;
         return (currentPlayer + 1) % players.size();
     }
+
+    // Completed turns, and the player who won or null while nobody has
+    public int getTurns() {
+        return turns;
+    }
+
+    public Player getWinner() {
+        return winner;
+    }
+
+    // The board as of the last finished action; safe to call from any thread
+    public BoardSnapshot getSnapshot() {
+        return snapshots.current();
+    }
+
+    // The live board, for RuleFuzzer's invariant checks
+    List<Card> getDeck() { return deck; }
+    List<Card> getDiscardPile() { return discardPile; }
+    List<Player> getPlayers() { return players; }
+    Map<Player, List<Organ>> getOrgansOnTable() { return organsOnTable; }
     
     private void viewDeckInfo() {
         System.out.println("\n=== DECK INFORMATION ===");
@@ -205,7 +226,21 @@ public class VirusBoard {
         return total;
     }
 
+    // Redraws the whole board for a new turn, otherwise prints only what changed since the last draw
+    private void refreshBoard(int currentPlayer) {
+        if (!input.isInteractive()) {
+            return;
+        }
+        if (currentPlayer != shownPlayer) {
+            drawBoard(currentPlayer);
+        } else {
+            changeLog.print();
+        }
+    }
+
     private void drawBoard(int currentPlayer) {
+        shownPlayer = currentPlayer;
+        changeLog.clear();
         clearScreen();
         drawTopBorder();
 
@@ -223,6 +258,62 @@ public class VirusBoard {
         drawBottomBorder();
     }
 
+    // Collects one line per model change until the board is shown again
+    private class ChangeLog implements ModelListener {
+        private final List<String> lines = new ArrayList<>();
+        private boolean pilesChanged;
+
+        @Override
+        public void onModelChange(ModelChangeType type, Player owner, Card card, int index) {
+            boolean shown = shownPlayer >= 0 && owner == players.get(shownPlayer);
+            switch (type) {
+                case HAND_CARD_ADDED:
+                    lines.add(shown ? "Your hand: + " + card + " (card " + (index + 1) + ")"
+                        : owner.getName() + " now holds " + owner.getHand().size() + " cards");
+                    break;
+                case HAND_CARD_REMOVED:
+                    lines.add(shown ? "Your hand: - " + card
+                        : owner.getName() + " now holds " + owner.getHand().size() + " cards");
+                    break;
+                case ORGAN_PLACED:
+                    lines.add(owner.getName() + " placed " + card + " on the table");
+                    break;
+                case ORGAN_REMOVED:
+                    lines.add(owner.getName() + " lost " + card);
+                    break;
+                case ORGAN_INFECTED:
+                case ORGAN_HEALED:
+                case ORGAN_IMMUNIZED:
+                    lines.add(owner.getName() + "'s " + card.getColor() + " organ is now "
+                        + type.name().substring("ORGAN_".length()).toLowerCase());
+                    break;
+                case DECK_SIZE_CHANGED:
+                case DISCARD_SIZE_CHANGED:
+                    pilesChanged = true;
+                    break;
+            }
+        }
+
+        void print() {
+            if (lines.isEmpty() && !pilesChanged) {
+                return;
+            }
+            System.out.println();
+            for (String line : lines) {
+                System.out.println("* " + line);
+            }
+            if (pilesChanged) {
+                System.out.println("* Deck: " + deck.size() + " cards | Discard: " + discardPile.size() + " cards");
+            }
+            clear();
+        }
+
+        void clear() {
+            lines.clear();
+            pilesChanged = false;
+        }
+    }
+
     private void clearScreen() {
         for (int i = 0; i < 50; i++) {
             System.out.println();
@@ -282,7 +373,7 @@ public class VirusBoard {
         
         if (!deck.isEmpty()) {
             Card drawnCard = deck.remove(0);
-            players.get(currentPlayer).getHand().add(drawnCard);
+            players.get(currentPlayer).addCard(drawnCard);
             System.out.println("You drew: " + drawnCard.toString());
             return true;
         } else {
@@ -307,7 +398,7 @@ public class VirusBoard {
         }
         
         System.out.print("Selection (0 to cancel): ");
-        int selection = scanner.nextInt();
+        int selection = input.nextInt();
         
         if (selection == 0) {
             return false;
@@ -320,28 +411,96 @@ public class VirusBoard {
         }
         
         Card selectedCard = hand.get(selection - 1);
-        
-        if (selectedCard instanceof Organ) {
-            playOrgan(currentPlayer, (Organ) selectedCard);
+        return CardTypes.dispatch(selectedCard, currentPlayer, playFromHand);
+    }
+    
+    // Effects of playing a card with menu option 1
+    private class PlayFromHand implements CardHandler<Integer> {
+        @Override
+        public boolean onOrgan(Integer currentPlayer, Organ organ) {
+            CardEffectEvent effect = CardEffectEvent.start();
+            playOrgan(currentPlayer, organ);
+            effect.finish(CardEffectEvent.PLAY_ORGAN, players.get(currentPlayer), organ, true);
             return true;
-        } else if (selectedCard instanceof Virus) {
-            return playVirus(currentPlayer, (Virus) selectedCard);
-        } else if (selectedCard instanceof Medicina) {
-            return playMedicina(currentPlayer, (Medicina) selectedCard);
-        } else if (selectedCard instanceof SpecialTreatment) {
+        }
+        
+        @Override
+        public boolean onVirus(Integer currentPlayer, Virus virus) {
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean played = playVirus(currentPlayer, virus);
+            effect.finish(CardEffectEvent.PLAY_VIRUS, players.get(currentPlayer), virus, played);
+            return played;
+        }
+        
+        @Override
+        public boolean onMedicina(Integer currentPlayer, Medicina medicina) {
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean played = playMedicina(currentPlayer, medicina);
+            effect.finish(CardEffectEvent.PLAY_MEDICINA, players.get(currentPlayer), medicina, played);
+            return played;
+        }
+        
+        @Override
+        public boolean onReikan(Integer currentPlayer, Reikan reikan) {
+            return useFromMenu();
+        }
+        
+        @Override
+        public boolean onExchange(Integer currentPlayer, Exchange exchange) {
+            return useFromMenu();
+        }
+        
+        @Override
+        public boolean onControl(Integer currentPlayer, Control control) {
+            return useFromMenu();
+        }
+        
+        private boolean useFromMenu() {
             System.out.println("Special treatments are used from the main menu option 2.");
             waitForEnter();
             return false;
-        } else {
-            System.out.println("This type of card cannot be played directly.");
-            waitForEnter();
+        }
+    }
+    
+    // Effects of "Use special treatment"; the card has already left the hand
+    private class UseTreatment implements CardHandler<Integer> {
+        @Override
+        public boolean onOrgan(Integer currentPlayer, Organ organ) {
             return false;
         }
+        
+        @Override
+        public boolean onVirus(Integer currentPlayer, Virus virus) {
+            return false;
+        }
+        
+        @Override
+        public boolean onMedicina(Integer currentPlayer, Medicina medicina) {
+            return false;
+        }
+        
+        @Override
+        public boolean onReikan(Integer currentPlayer, Reikan reikan) {
+            reikan.apply(players.get(currentPlayer), players, input, random);
+            return true;
+        }
+        
+        @Override
+        public boolean onExchange(Integer currentPlayer, Exchange exchange) {
+            exchange.apply(players.get(currentPlayer), players, input, random);
+            return true;
+        }
+        
+        @Override
+        public boolean onControl(Integer currentPlayer, Control control) {
+            control.apply(players.get(currentPlayer), players, input, random);
+            return true;
+        }
     }
     
     private void playOrgan(int currentPlayer, Organ organ) {
         Player player = players.get(currentPlayer);
-        player.getHand().remove(organ);
+        player.removeCard(organ);
         organsOnTable.get(player).add(organ);
         System.out.println("You have placed a " + organ.getColor() + " organ on the table.");
         waitForEnter();
@@ -388,7 +547,7 @@ public class VirusBoard {
         }
         
         System.out.print("Selection (0 to cancel): ");
-        int selection = scanner.nextInt();
+        int selection = input.nextInt();
         
         if (selection == 0) {
             return false;
@@ -402,7 +561,8 @@ public class VirusBoard {
         
         // Infect the selected organ
         Organ targetOrgan = healthyOrgans.get(selection - 1);
-        player.getHand().remove(virus);
+        player.removeCard(virus);
+        discardPile.add(virus);
         targetOrgan.infect();
         System.out.println("You have infected a " + targetOrgan.getColor() + " organ of " + opponent.getName() + "!");
         waitForEnter();
@@ -433,7 +593,7 @@ public class VirusBoard {
         }
         
         System.out.print("Selection (0 to cancel): ");
-        int selection = scanner.nextInt();
+        int selection = input.nextInt();
         
         if (selection == 0) {
             return false;
@@ -447,7 +607,8 @@ public class VirusBoard {
         
         // Heal the selected organ
         Organ organToHeal = infectedOrgans.get(selection - 1);
-        player.getHand().remove(medicina);
+        player.removeCard(medicina);
+        discardPile.add(medicina);
         organToHeal.heal();
         System.out.println("You have healed your " + organToHeal.getColor() + " organ!");
         waitForEnter();
@@ -456,11 +617,11 @@ public class VirusBoard {
 
     private boolean useSpecialTreatment(int currentPlayer) {
         Player player = players.get(currentPlayer);
-        List<SpecialTreatment> treatments = new ArrayList<>();
+        List<Card> treatments = new ArrayList<>();
 
         for (Card card : player.getHand()) {
-            if (card instanceof SpecialTreatment && !(card instanceof Medicina)) {
-                treatments.add((SpecialTreatment) card);
+            if (CardTypes.isSpecialTreatment(card.getTypeId())) {
+                treatments.add(card);
             }
         }
 
@@ -475,11 +636,11 @@ public class VirusBoard {
             System.out.printf("%d. %s (%s)\n", 
                 i + 1, 
                 treatments.get(i).toString(), 
-                treatments.get(i).getType());
+                CardTypes.label(treatments.get(i).getTypeId()));
         }
 
         System.out.print("Select the treatment number to use (0 to cancel): ");
-        int selection = scanner.nextInt();
+        int selection = input.nextInt();
         
         if (selection == 0) {
             return false;
@@ -488,9 +649,12 @@ public class VirusBoard {
         selection -= 1;
 
         if (selection >= 0 && selection < treatments.size()) {
-            SpecialTreatment treatment = treatments.get(selection);
-            player.getHand().remove(treatment);
-            treatment.apply(player, players);
+            Card treatment = treatments.get(selection);
+            player.removeCard(treatment);
+            discardPile.add(treatment);
+            CardEffectEvent effect = CardEffectEvent.start();
+            boolean applied = CardTypes.dispatch(treatment, currentPlayer, useTreatment);
+            effect.finish(CardEffectEvent.APPLY_TREATMENT, player, treatment, applied);
             waitForEnter();
             return true;
         } else {
@@ -516,7 +680,7 @@ public class VirusBoard {
         }
         
         System.out.print("Selection (0 to cancel): ");
-        int selection = scanner.nextInt();
+        int selection = input.nextInt();
         
         if (selection == 0) {
             return false;
@@ -528,7 +692,7 @@ public class VirusBoard {
             return false;
         }
         
-        Card discardedCard = hand.remove(selection - 1);
+        Card discardedCard = player.removeCard(selection - 1);
         discardPile.add(discardedCard);
         System.out.println("You have discarded: " + discardedCard.toString());
         waitForEnter();
@@ -548,17 +712,16 @@ public class VirusBoard {
         while (selection < 1 || selection > hand.size()) {
             System.out.print("Selection: ");
             try {
-                selection = scanner.nextInt();
+                selection = input.nextInt();
                 if (selection < 1 || selection > hand.size()) {
                     System.out.println("Invalid selection. Please choose a number between 1 and " + hand.size());
                 }
-            } catch (Exception e) {
+            } catch (InputMismatchException e) {
                 System.out.println("Please enter a valid number.");
-                scanner.nextLine(); // Clear scanner buffer
             }
         }
         
-        Card discardedCard = hand.remove(selection - 1);
+        Card discardedCard = player.removeCard(selection - 1);
         discardPile.add(discardedCard);
         System.out.println("You have discarded: " + discardedCard.toString());
     }
@@ -572,25 +735,26 @@ public class VirusBoard {
     private void reshuffleDeck() {
         System.out.println("\n=== RESHUFFLING DECK ===");
         System.out.println("Moving " + discardPile.size() + " cards from discard pile to deck...");
+        ReshuffleEvent event = ReshuffleEvent.start();
+        int moved = discardPile.size();
         
         // Add all cards from the discard pile back to the deck
         deck.addAll(discardPile);
         discardPile.clear();
         
         // Shuffle the deck
-        Collections.shuffle(deck);
+        Collections.shuffle(deck, random);
+        event.finish(moved);
         
         System.out.println("Deck successfully reshuffled. New deck size: " + deck.size());
         waitForEnter();
     }
     
     private void waitForEnter() {
-        System.out.println("\nPress Enter to continue...");
-        scanner.nextLine(); // Consume pending newline
-        scanner.nextLine(); // Wait for Enter key
+        input.waitForEnter();
     }
 
-    private boolean hasWon(int currentPlayer) {
+    boolean hasWon(int currentPlayer) {
         // A player wins when they have 4 different organs (not infected) on the table
         Player player = players.get(currentPlayer);
         List<Organ> organs = organsOnTable.get(player);
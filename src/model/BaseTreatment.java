@@ -9,8 +9,8 @@ import java.util.Random;
 public abstract class BaseTreatment extends Card implements SpecialTreatment {
     private final TreatmentType type;
     
-    public BaseTreatment(Color color, TreatmentType type) {
-        super(color);
+    public BaseTreatment(Color color, TreatmentType type, int typeId) {
+        super(color, typeId);
         this.type = type;
     }
     
@@ -20,7 +20,7 @@ public abstract class BaseTreatment extends Card implements SpecialTreatment {
     }
     
     // Helper methods for subclasses
-    protected void drawRandomCard(Player currentPlayer, List<Player> players) {
+    protected void drawRandomCard(Player currentPlayer, List<Player> players, Random random) {
         List<Player> otherPlayers = new java.util.ArrayList<>();
         for (Player p : players) {
             if (p != currentPlayer && !p.getHand().isEmpty()) {
@@ -33,12 +33,10 @@ public abstract class BaseTreatment extends Card implements SpecialTreatment {
             return;
         }
         
-        Random random = new Random();
         Player targetPlayer = otherPlayers.get(random.nextInt(otherPlayers.size()));
-        List<Card> targetHand = targetPlayer.getHand();
-        Card stolenCard = targetHand.remove(random.nextInt(targetHand.size()));
+        Card stolenCard = targetPlayer.removeCard(random.nextInt(targetPlayer.getHand().size()));
         
-        currentPlayer.getHand().add(stolenCard);
+        currentPlayer.addCard(stolenCard);
         System.out.println("You have stolen a random card from " + targetPlayer.getName() + ": " + stolenCard.toString());
     }
     
@@ -0,0 +1,129 @@
+package model;
+
+import enums.Color;
+import java.util.List;
+
+/**
+ * An immutable copy of a whole board, published by a SnapshotPublisher.
+ * Spectators, bots and metrics read these from any thread without locking;
+ * everything reachable from a snapshot is final, so a reader always sees one
+ * consistent position even while the game goes on. Versions grow by one per
+ * published change and never repeat within a publisher.
+ */
+public final class BoardSnapshot {
+    private final long version;
+    private final int turn;
+    private final int currentPlayer;
+    private final List<CardView> deck;
+    private final List<CardView> discardPile;
+    private final List<PlayerView> players;
+
+    BoardSnapshot(long version, int turn, int currentPlayer, List<CardView> deck,
+                  List<CardView> discardPile, List<PlayerView> players) {
+        this.version = version;
+        this.turn = turn;
+        this.currentPlayer = currentPlayer;
+        this.deck = deck;
+        this.discardPile = discardPile;
+        this.players = players;
+    }
+
+    public long version() { return version; }
+    public int turn() { return turn; }
+    public int currentPlayer() { return currentPlayer; }
+    // Index 0 is the next card drawn
+    public List<CardView> deck() { return deck; }
+    public List<CardView> discardPile() { return discardPile; }
+    public List<PlayerView> players() { return players; }
+
+    /**
+     * A card as it was when the snapshot was taken. Views are interned, one per
+     * type, color and organ state, so equal cards are the same object and a
+     * snapshot costs no allocation per card.
+     */
+    public static final class CardView {
+        private static final Color[] COLORS = Color.values();
+        private static final CardView[] INTERNED = new CardView[CardTypes.COUNT * COLORS.length * 4];
+        // Codes run from 0 to CODES - 1; they fit in a byte for the wire
+        public static final int CODES = INTERNED.length;
+
+        static {
+            for (int type = 0; type < CardTypes.COUNT; type++) {
+                for (Color color : COLORS) {
+                    for (int state = 0; state < 4; state++) {
+                        INTERNED[index(type, color, state)] = new CardView(type, color, (state & 1) != 0, (state & 2) != 0);
+                    }
+                }
+            }
+        }
+
+        private final int typeId;
+        private final Color color;
+        private final boolean infected;
+        private final boolean immunized;
+
+        private CardView(int typeId, Color color, boolean infected, boolean immunized) {
+            this.typeId = typeId;
+            this.color = color;
+            this.infected = infected;
+            this.immunized = immunized;
+        }
+
+        static CardView of(Card card) {
+            int state = 0;
+            if (card.getTypeId() == CardTypes.ORGAN) {
+                Organ organ = (Organ) card;
+                state = (organ.isInfected() ? 1 : 0) | (organ.isImmunized() ? 2 : 0);
+            }
+            return INTERNED[index(card.getTypeId(), card.getColor(), state)];
+        }
+
+        private static int index(int type, Color color, int state) {
+            return (type * COLORS.length + color.ordinal()) * 4 + state;
+        }
+
+        public static CardView fromCode(int code) {
+            return INTERNED[code];
+        }
+
+        // Stable across processes: type, color and organ state
+        public int code() {
+            return index(typeId, color, (infected ? 1 : 0) | (immunized ? 2 : 0));
+        }
+
+        public int typeId() { return typeId; }
+        public Color color() { return color; }
+        public boolean infected() { return infected; }
+        public boolean immunized() { return immunized; }
+
+        @Override
+        public String toString() {
+            String state = infected ? "-INFECTED" : immunized ? "-IMMUNIZED" : "";
+            return CardTypes.label(typeId) + state + "(" + color + ")";
+        }
+    }
+
+    /**
+     * One player's hand and table as they were when the snapshot was taken.
+     * handRevealed is set from a Control "view hand" until the hand next
+     * changes, while the opponent still knows exactly what it holds.
+     */
+    public static final class PlayerView {
+        private final String name;
+        private final List<CardView> hand;
+        private final List<CardView> organs;
+        private final boolean handRevealed;
+
+        PlayerView(String name, List<CardView> hand, List<CardView> organs, boolean handRevealed) {
+            this.name = name;
+            this.hand = hand;
+            this.organs = organs;
+            this.handRevealed = handRevealed;
+        }
+
+        public String name() { return name; }
+        public List<CardView> hand() { return hand; }
+        public List<CardView> organs() { return organs; }
+        public boolean handRevealed() { return handRevealed; }
+    }
+}
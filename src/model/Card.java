@@ -9,13 +9,20 @@ import interfaces.Colorable;
 
 public abstract class Card implements Colorable {
     protected Color color;
+    private final int typeId;
     
-    public Card(Color color) {
+    public Card(Color color, int typeId) {
         this.color = color;
+        this.typeId = typeId;
     }
     
     @Override
     public Color getColor() {
         return color;
     }
+    
+    // One of the CardTypes ids
+    public final int getTypeId() {
+        return typeId;
+    }
 }
\ No newline at end of file
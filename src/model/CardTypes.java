@@ -0,0 +1,55 @@
+package model;
+
+import interfaces.CardHandler;
+
+/**
+ * Compact numeric type ids for every card kind, shared by the console game,
+ * the Swing game and the headless engine. Card behaviour is dispatched with a
+ * switch on the id (a jump table) instead of instanceof chains. The handler
+ * call in dispatch is shared by every CardHandler, so the JIT sees several
+ * receivers there and makes an interface call; what the switch buys is that
+ * each onX method works on one concrete card class.
+ */
+public final class CardTypes {
+    public static final int ORGAN = 0;
+    public static final int VIRUS = 1;
+    public static final int MEDICINA = 2;
+    public static final int REIKAN = 3;
+    public static final int EXCHANGE = 4;
+    public static final int CONTROL = 5;
+    public static final int COUNT = 6;
+
+    private static final String[] LABELS = {"ORGAN", "VIRUS", "MEDICINA", "REIKAN", "EXCHANGE", "CONTROL"};
+    private static final boolean[] SPECIAL_TREATMENT = {false, false, false, true, true, true};
+
+    private CardTypes() {
+    }
+
+    public static String label(int typeId) {
+        return LABELS[typeId];
+    }
+
+    // Cards played through "Use special treatment" (Medicina is a treatment class but played like a card)
+    public static boolean isSpecialTreatment(int typeId) {
+        return SPECIAL_TREATMENT[typeId];
+    }
+
+    public static <P> boolean dispatch(Card card, P context, CardHandler<P> handler) {
+        switch (card.getTypeId()) {
+            case ORGAN:
+                return handler.onOrgan(context, (Organ) card);
+            case VIRUS:
+                return handler.onVirus(context, (Virus) card);
+            case MEDICINA:
+                return handler.onMedicina(context, (Medicina) card);
+            case REIKAN:
+                return handler.onReikan(context, (Reikan) card);
+            case EXCHANGE:
+                return handler.onExchange(context, (Exchange) card);
+            case CONTROL:
+                return handler.onControl(context, (Control) card);
+            default:
+                throw new IllegalArgumentException("Unknown card type id: " + card.getTypeId());
+        }
+    }
+}
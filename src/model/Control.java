@@ -1,33 +1,32 @@
 package model;
 import enums.Color;
 import enums.TreatmentType;
+import interfaces.GameInput;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Scanner;
 
 public class Control extends BaseTreatment {
     private Map<Player, List<Organ>> organsOnTable;
     
     public Control() {
-        super(Color.YELLOW, TreatmentType.CONTROL);
+        super(Color.YELLOW, TreatmentType.CONTROL, CardTypes.CONTROL);
     }
     
     @Override
-    public void apply(Player currentPlayer, List<Player> players) {
-        Scanner scanner = new Scanner(System.in);
+    public void apply(Player currentPlayer, List<Player> players, GameInput input, Random random) {
         System.out.println("\nControl options:");
         System.out.println("1. Draw random card from opponent");
         System.out.println("2. View opponent's hand");
         
         try {
             System.out.print("Select an option: ");
-            int option = scanner.nextInt();
+            int option = input.nextInt();
             switch (option) {
                 case 1:
-                    drawRandomCard(currentPlayer, players);
+                    drawRandomCard(currentPlayer, players, random);
                     break;
                 case 2:
                     viewOpponentHand(currentPlayer, players);
@@ -37,11 +36,10 @@ public class Control extends BaseTreatment {
             }
         } catch (InputMismatchException e) {
             System.out.println("Error: You must enter a valid number.");
-            scanner.nextLine(); // Clear scanner buffer
         }
     }
     
-    protected void drawRandomCard(Player currentPlayer, List<Player> players) {
+    protected void drawRandomCard(Player currentPlayer, List<Player> players, Random random) {
         // In a 2-player game, we only have one opponent
         Player opponent = null;
         for (Player p : players) {
@@ -62,10 +60,9 @@ public class Control extends BaseTreatment {
             return;
         }
         
-        Random random = new Random();
-        Card stolenCard = opponentHand.remove(random.nextInt(opponentHand.size()));
+        Card stolenCard = opponent.removeCard(random.nextInt(opponentHand.size()));
         
-        currentPlayer.getHand().add(stolenCard);
+        currentPlayer.addCard(stolenCard);
         System.out.println("You have drawn a random card from " + opponent.getName() + ": " + stolenCard.toString());
     }
     
@@ -89,6 +86,7 @@ public class Control extends BaseTreatment {
             System.out.println(opponent.getName() + " has no cards in hand.");
             return;
         }
+        opponent.revealHand();
         
         System.out.println("\n" + opponent.getName() + "'s hand:");
         for (int i = 0; i < opponentHand.size(); i++) {
@@ -0,0 +1,115 @@
+package model;
+
+import enums.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How many cards of each kind go into a deck. Both front ends build their deck
+ * from one of these presets so the counts are defined in a single place.
+ */
+public final class DeckComposition {
+    public static final List<Color> ORGAN_COLORS =
+        Arrays.asList(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW);
+
+    // Deck used by the console game
+    public static final DeckComposition STANDARD = new DeckComposition(5, 4, 2, 3, 2, 2);
+
+    // Deck used by the Swing game (one of each special treatment)
+    public static final DeckComposition COMPACT = new DeckComposition(5, 4, 2, 1, 1, 1);
+
+    private final int organsPerColor;
+    private final int virusesPerColor;
+    private final int medicinesPerColor;
+    private final int reikanCount;
+    private final int exchangeCount;
+    private final int controlCount;
+
+    public DeckComposition(int organsPerColor, int virusesPerColor, int medicinesPerColor,
+                           int reikanCount, int exchangeCount, int controlCount) {
+        if (organsPerColor < 1 || virusesPerColor < 0 || medicinesPerColor < 0
+                || reikanCount < 0 || exchangeCount < 0 || controlCount < 0) {
+            throw new IllegalArgumentException("Invalid deck composition: at least one organ per color "
+                + "and no negative counts are required");
+        }
+        this.organsPerColor = organsPerColor;
+        this.virusesPerColor = virusesPerColor;
+        this.medicinesPerColor = medicinesPerColor;
+        this.reikanCount = reikanCount;
+        this.exchangeCount = exchangeCount;
+        this.controlCount = controlCount;
+    }
+
+    public int getOrgansPerColor() { return organsPerColor; }
+    public int getVirusesPerColor() { return virusesPerColor; }
+    public int getMedicinesPerColor() { return medicinesPerColor; }
+    public int getReikanCount() { return reikanCount; }
+    public int getExchangeCount() { return exchangeCount; }
+    public int getControlCount() { return controlCount; }
+
+    public int totalCards() {
+        return ORGAN_COLORS.size() * (organsPerColor + virusesPerColor + medicinesPerColor)
+            + reikanCount + exchangeCount + controlCount;
+    }
+
+    // Creates the (unshuffled) cards of this composition
+    public List<Card> buildDeck() {
+        List<Card> deck = new ArrayList<>(totalCards());
+
+        for (Color color : ORGAN_COLORS) {
+            for (int i = 0; i < organsPerColor; i++) {
+                deck.add(new Organ(color));
+            }
+        }
+
+        for (Color color : ORGAN_COLORS) {
+            for (int i = 0; i < virusesPerColor; i++) {
+                deck.add(new Virus(color));
+            }
+        }
+
+        for (int i = 0; i < reikanCount; i++) {
+            deck.add(new Reikan());
+        }
+        for (int i = 0; i < exchangeCount; i++) {
+            deck.add(new Exchange());
+        }
+        for (int i = 0; i < controlCount; i++) {
+            deck.add(new Control());
+        }
+
+        for (Color color : ORGAN_COLORS) {
+            for (int i = 0; i < medicinesPerColor; i++) {
+                deck.add(new Medicina(color));
+            }
+        }
+        return deck;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DeckComposition)) return false;
+        DeckComposition other = (DeckComposition) o;
+        return organsPerColor == other.organsPerColor
+            && virusesPerColor == other.virusesPerColor
+            && medicinesPerColor == other.medicinesPerColor
+            && reikanCount == other.reikanCount
+            && exchangeCount == other.exchangeCount
+            && controlCount == other.controlCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(new int[] {organsPerColor, virusesPerColor, medicinesPerColor,
+            reikanCount, exchangeCount, controlCount});
+    }
+
+    @Override
+    public String toString() {
+        return String.format("organs=%d viruses=%d medicines=%d (per color) reikan=%d exchange=%d control=%d [%d cards]",
+            organsPerColor, virusesPerColor, medicinesPerColor,
+            reikanCount, exchangeCount, controlCount, totalCards());
+    }
+}
@@ -2,17 +2,17 @@ package model;
 
 import enums.Color;
 import enums.TreatmentType;
-import java.util.ArrayList;
+import interfaces.GameInput;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Random;
 
 public class Exchange extends BaseTreatment {
     public Exchange() {
-        super(Color.BLUE, TreatmentType.EXCHANGE);
+        super(Color.BLUE, TreatmentType.EXCHANGE, CardTypes.EXCHANGE);
     }
 
     @Override
-    public void apply(Player currentPlayer, List<Player> players) {
+    public void apply(Player currentPlayer, List<Player> players, GameInput input, Random random) {
         // In a 2-player game, we only have one opponent
         Player opponent = null;
         for (Player player : players) {
@@ -29,14 +29,7 @@ public class Exchange extends BaseTreatment {
         
         System.out.println("Exchanging hands with " + opponent.getName());
         
-        List<Card> currentPlayerCards = new ArrayList<>(currentPlayer.getHand());
-        List<Card> opponentCards = new ArrayList<>(opponent.getHand());
-        
-        currentPlayer.getHand().clear();
-        opponent.getHand().clear();
-        
-        currentPlayer.getHand().addAll(opponentCards);
-        opponent.getHand().addAll(currentPlayerCards);
+        currentPlayer.swapHands(opponent);
         System.out.println("Exchange completed!");
     }
 
@@ -2,19 +2,20 @@ package model;
 
 import enums.Color;
 import enums.TreatmentType;
+import interfaces.GameInput;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Random;
 import java.util.InputMismatchException;
 
 public class Medicina extends BaseTreatment {
     
     public Medicina(Color color) {
-        super(color, TreatmentType.INFORMATION);
+        super(color, TreatmentType.INFORMATION, CardTypes.MEDICINA);
     }
     
     @Override
-    public void apply(Player currentPlayer, List<Player> players) {
+    public void apply(Player currentPlayer, List<Player> players, GameInput input, Random random) {
         // Buscar órganos infectados del jugador actual
         List<Organ> infectedOrgans = new ArrayList<>();
         
@@ -27,7 +28,7 @@ public class Medicina extends BaseTreatment {
     }
     
     // Método para curar órganos (será llamado desde el juego principal)
-    public boolean healOrgan(Player player, List<Organ> playerOrgans) {
+    public boolean healOrgan(Player player, List<Organ> playerOrgans, GameInput input) {
         List<Organ> infectedOrgans = new ArrayList<>();
         
         // Encontrar órganos infectados
@@ -47,10 +48,9 @@ public class Medicina extends BaseTreatment {
             System.out.printf("%d. %s\n", i + 1, infectedOrgans.get(i).toString());
         }
         
-        Scanner scanner = new Scanner(System.in);
         try {
             System.out.print("Selection (0 to cancel): ");
-            int selection = scanner.nextInt();
+            int selection = input.nextInt();
             
             if (selection == 0) {
                 return false;
@@ -67,7 +67,6 @@ public class Medicina extends BaseTreatment {
             }
         } catch (InputMismatchException e) {
             System.out.println("Error: You must enter a valid number.");
-            scanner.nextLine();
             return false;
         }
     }
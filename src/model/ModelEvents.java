@@ -0,0 +1,46 @@
+package model;
+
+import enums.ModelChangeType;
+import interfaces.ModelListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change notifications for one game. Hands, organ lists and piles created here
+ * report every card that enters or leaves them, and organs placed on the table
+ * report infections, heals and immunizations, so views can update only what
+ * changed instead of redrawing the whole board.
+ */
+public final class ModelEvents {
+    private final List<ModelListener> listeners = new ArrayList<>();
+
+    public void addListener(ModelListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    public List<Organ> newTable(Player owner) {
+        return new ObservableCards<>(this, owner, ModelChangeType.ORGAN_PLACED, ModelChangeType.ORGAN_REMOVED);
+    }
+
+    public List<Card> newDeck() {
+        return new ObservableCards<>(this, null, ModelChangeType.DECK_SIZE_CHANGED, ModelChangeType.DECK_SIZE_CHANGED);
+    }
+
+    public List<Card> newDiscardPile() {
+        return new ObservableCards<>(this, null, ModelChangeType.DISCARD_SIZE_CHANGED, ModelChangeType.DISCARD_SIZE_CHANGED);
+    }
+
+    List<Card> newHand(Player owner) {
+        return new ObservableCards<>(this, owner, ModelChangeType.HAND_CARD_ADDED, ModelChangeType.HAND_CARD_REMOVED);
+    }
+
+    void fire(ModelChangeType type, Player owner, Card card, int index) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onModelChange(type, owner, card, index);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package model;
+
+import enums.ModelChangeType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+// A card list that reports additions and removals; piles report their new size instead of the index
+final class ObservableCards<T extends Card> extends AbstractList<T> implements RandomAccess {
+    private final ArrayList<T> cards = new ArrayList<>();
+    private final ModelEvents events;
+    private final Player owner;
+    private final ModelChangeType added;
+    private final ModelChangeType removed;
+    private final boolean pile;
+
+    ObservableCards(ModelEvents events, Player owner, ModelChangeType added, ModelChangeType removed) {
+        this.events = events;
+        this.owner = owner;
+        this.added = added;
+        this.removed = removed;
+        this.pile = owner == null;
+    }
+
+    @Override
+    public T get(int index) {
+        return cards.get(index);
+    }
+
+    @Override
+    public int size() {
+        return cards.size();
+    }
+
+    @Override
+    public void add(int index, T card) {
+        cards.add(index, card);
+        modCount++;
+        attach(card);
+        events.fire(added, owner, card, pile ? cards.size() : index);
+    }
+
+    @Override
+    public T remove(int index) {
+        T card = cards.remove(index);
+        modCount++;
+        detach(card);
+        events.fire(removed, owner, card, pile ? cards.size() : index);
+        return card;
+    }
+
+    @Override
+    public T set(int index, T card) {
+        T old = cards.set(index, card);
+        // Reordering a pile (shuffling) does not change anything a view shows
+        if (!pile) {
+            detach(old);
+            events.fire(removed, owner, old, index);
+            attach(card);
+            events.fire(added, owner, card, index);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(cards.size(), c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        if (!pile) {
+            return super.addAll(index, c);
+        }
+        // A reshuffle moves the whole discard pile at once; report it as one size change
+        boolean changed = cards.addAll(index, c);
+        if (changed) {
+            modCount++;
+            events.fire(added, null, cards.get(index), cards.size());
+        }
+        return changed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (pile) {
+            if (fromIndex < toIndex) {
+                Card first = cards.get(fromIndex);
+                cards.subList(fromIndex, toIndex).clear();
+                modCount++;
+                events.fire(removed, null, first, cards.size());
+            }
+            return;
+        }
+        // From the back, so every reported index is still valid when the view applies it
+        for (int i = toIndex - 1; i >= fromIndex; i--) {
+            remove(i);
+        }
+    }
+
+    private void attach(T card) {
+        if (owner != null && card.getTypeId() == CardTypes.ORGAN && added == ModelChangeType.ORGAN_PLACED) {
+            ((Organ) card).observe(events, owner);
+        }
+    }
+
+    private void detach(T card) {
+        if (owner != null && card.getTypeId() == CardTypes.ORGAN && added == ModelChangeType.ORGAN_PLACED) {
+            ((Organ) card).observe(null, null);
+        }
+    }
+}
@@ -1,26 +1,50 @@
 package model;
 
 import enums.Color;
+import enums.ModelChangeType;
 
 public class Organ extends Card {
     private boolean infected = false;
     private boolean immunized = false;
+    private ModelEvents events;
+    private Player owner;
     
     public Organ(Color color) {
-        super(color);
+        super(color, CardTypes.ORGAN);
     }
     
     public void infect() {
-        if (!immunized) infected = true;
+        if (!immunized && !infected) {
+            infected = true;
+            changed(ModelChangeType.ORGAN_INFECTED);
+        }
     }
     
     public void heal() {
-        infected = false;
+        if (infected) {
+            infected = false;
+            changed(ModelChangeType.ORGAN_HEALED);
+        }
     }
     
     public void immunize() {
-        immunized = true;
-        infected = false;
+        if (!immunized) {
+            immunized = true;
+            infected = false;
+            changed(ModelChangeType.ORGAN_IMMUNIZED);
+        }
+    }
+    
+    // Set while the organ lies on an observed table
+    void observe(ModelEvents events, Player owner) {
+        this.events = events;
+        this.owner = owner;
+    }
+    
+    private void changed(ModelChangeType type) {
+        if (events != null) {
+            events.fire(type, owner, this, -1);
+        }
     }
     
     @Override
@@ -33,4 +57,8 @@ public class Organ extends Card {
     public boolean isInfected() {
         return infected;
     }
+    
+    public boolean isImmunized() {
+        return immunized;
+    }
 }
@@ -4,18 +4,71 @@
  */
 package model;
 
+import enums.ModelChangeType;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class Player {
     private String name;
     private List<Card> hand;
+    private List<Card> handView;
+    private ModelEvents events;
 
     public Player(String name) {
         this.name = name;
         this.hand = new ArrayList<>();
+        this.handView = Collections.unmodifiableList(hand);
+    }
+
+    // A player whose hand reports its changes to events
+    public Player(String name, ModelEvents events) {
+        this.name = name;
+        this.hand = events.newHand(this);
+        this.handView = Collections.unmodifiableList(hand);
+        this.events = events;
     }
 
     public String getName() { return name; }
-    public List<Card> getHand() { return hand; }
-}
\ No newline at end of file
+
+    // Read-only; the hand only changes through the methods below
+    public List<Card> getHand() { return handView; }
+
+    public void addCard(Card card) {
+        hand.add(card);
+    }
+
+    public void addCards(Collection<? extends Card> cards) {
+        hand.addAll(cards);
+    }
+
+    public Card removeCard(int index) {
+        return hand.remove(index);
+    }
+
+    public boolean removeCard(Card card) {
+        return hand.remove(card);
+    }
+
+    public void clearHand() {
+        hand.clear();
+    }
+
+    // Control: the opponent has seen this hand as it is now
+    public void revealHand() {
+        if (events != null) {
+            events.fire(ModelChangeType.HAND_REVEALED, this, null, -1);
+        }
+    }
+
+    // Exchange: each player ends up with the other's cards, in the same order
+    public void swapHands(Player other) {
+        List<Card> mine = new ArrayList<>(hand);
+        List<Card> theirs = new ArrayList<>(other.hand);
+        hand.clear();
+        other.hand.clear();
+        hand.addAll(theirs);
+        other.hand.addAll(mine);
+    }
+}
@@ -2,19 +2,20 @@ package model;
 
 import enums.Color;
 import enums.TreatmentType;
+import interfaces.GameInput;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Random;
 import java.util.InputMismatchException;
 
 public class Reikan extends BaseTreatment {
     
     public Reikan() {
-        super(Color.MULTICOLOR, TreatmentType.INFORMATION);
+        super(Color.MULTICOLOR, TreatmentType.INFORMATION, CardTypes.REIKAN);
     }
     
     @Override
-    public void apply(Player currentPlayer, List<Player> players) {
+    public void apply(Player currentPlayer, List<Player> players, GameInput input, Random random) {
         // Create a list to store all available cards
         List<Card> allCards = new ArrayList<>();
         // List to keep track of the owners of each card
@@ -42,19 +43,18 @@ public class Reikan extends BaseTreatment {
             System.out.printf("%d. %s (%s)\n", i + 1, card.toString(), owner.getName());
         }
         
-        Scanner scanner = new Scanner(System.in);
         int selection = -1;
         
         try {
             System.out.print("Select the number of the card you want to steal: ");
-            selection = scanner.nextInt() - 1;
+            selection = input.nextInt() - 1;
             
             if (selection >= 0 && selection < allCards.size()) {
                 Card selectedCard = allCards.get(selection);
                 Player originalOwner = owners.get(selection);
                 
-                if (originalOwner != null && originalOwner.getHand().remove(selectedCard)) {
-                    currentPlayer.getHand().add(selectedCard);
+                if (originalOwner != null && originalOwner.removeCard(selectedCard)) {
+                    currentPlayer.addCard(selectedCard);
                     System.out.println("You have successfully stolen the card " + selectedCard + " from " + originalOwner.getName() + "!");
                 } else {
                     System.out.println("Error stealing the card.");
@@ -64,7 +64,6 @@ public class Reikan extends BaseTreatment {
             }
         } catch (InputMismatchException e) {
             System.out.println("Error: You must enter a valid number.");
-            scanner.nextLine(); // Clear the scanner buffer
         }
     }
     
@@ -0,0 +1,149 @@
+package model;
+
+import enums.ModelChangeType;
+import interfaces.ModelListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes versioned BoardSnapshots of a live board for concurrent readers.
+ *
+ * The game thread is the only writer: it attaches the board once per game and
+ * calls publish() whenever an action has finished, never in the middle of one,
+ * so readers never see half a move (a card taken from one hand but not yet
+ * added to the other). Readers call current(), a single volatile read.
+ *
+ * Model events mark which parts changed since the last publish; the others
+ * are shared with the previous snapshot instead of copied again, so an action
+ * usually copies one hand, one table and the piles it touched.
+ */
+public final class SnapshotPublisher implements ModelListener {
+    private static final int DECK = 0, DISCARD = 1;
+
+    private volatile BoardSnapshot current;
+    private long version;
+
+    // Writer state, only touched by the game thread
+    private ModelEvents events;
+    private List<Card> deck;
+    private List<Card> discardPile;
+    private List<Player> players;
+    private Map<Player, List<Organ>> organsOnTable;
+    private final boolean[] pilesDirty = new boolean[2];
+    private boolean[] handsDirty = new boolean[0];
+    private boolean[] tablesDirty = new boolean[0];
+    private boolean[] revealed = new boolean[0];
+
+    // Lock-free: the latest published board, or null before the first publish
+    public BoardSnapshot current() {
+        return current;
+    }
+
+    // Starts following a new game's board; the next publish copies everything
+    public void attach(ModelEvents events, List<Card> deck, List<Card> discardPile, List<Player> players,
+                       Map<Player, List<Organ>> organsOnTable) {
+        if (this.events != null) {
+            this.events.removeListener(this);
+        }
+        this.events = events;
+        this.deck = deck;
+        this.discardPile = discardPile;
+        this.players = players;
+        this.organsOnTable = organsOnTable;
+        this.handsDirty = new boolean[players.size()];
+        this.tablesDirty = new boolean[players.size()];
+        this.revealed = new boolean[players.size()];
+        events.addListener(this);
+        current = null;
+    }
+
+    @Override
+    public void onModelChange(ModelChangeType type, Player owner, Card card, int index) {
+        switch (type) {
+            case HAND_CARD_ADDED:
+            case HAND_CARD_REMOVED:
+                // What Control showed is no longer the whole hand
+                setRevealed(owner, false);
+                markPlayer(handsDirty, owner);
+                break;
+            case HAND_REVEALED:
+                setRevealed(owner, true);
+                break;
+            case DECK_SIZE_CHANGED:
+                pilesDirty[DECK] = true;
+                break;
+            case DISCARD_SIZE_CHANGED:
+                pilesDirty[DISCARD] = true;
+                break;
+            default:
+                markPlayer(tablesDirty, owner);
+                break;
+        }
+    }
+
+    private void setRevealed(Player owner, boolean shown) {
+        int p = players.indexOf(owner);
+        if (p >= 0 && revealed[p] != shown) {
+            revealed[p] = shown;
+            handsDirty[p] = true;
+        }
+    }
+
+    private void markPlayer(boolean[] dirty, Player owner) {
+        int p = players.indexOf(owner);
+        if (p >= 0) {
+            dirty[p] = true;
+        }
+    }
+
+    /*
+     * Called by the writer at the end of every action. Returns the new snapshot, or
+     * the current one when nothing changed since the last publish.
+     */
+    public BoardSnapshot publish(int turn, int currentPlayer) {
+        BoardSnapshot previous = current;
+        boolean fresh = previous == null;
+        boolean changed = fresh || previous.turn() != turn || previous.currentPlayer() != currentPlayer
+            || pilesDirty[DECK] || pilesDirty[DISCARD];
+
+        List<BoardSnapshot.PlayerView> views = new ArrayList<>(players.size());
+        for (int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            BoardSnapshot.PlayerView old = fresh ? null : previous.players().get(p);
+            if (old != null && !handsDirty[p] && !tablesDirty[p]) {
+                views.add(old);
+                continue;
+            }
+            changed = true;
+            List<BoardSnapshot.CardView> hand = old != null && !handsDirty[p] ? old.hand() : copy(player.getHand());
+            List<BoardSnapshot.CardView> organs = old != null && !tablesDirty[p]
+                ? old.organs() : copy(organsOnTable.get(player));
+            views.add(new BoardSnapshot.PlayerView(player.getName(), hand, organs, revealed[p]));
+        }
+        if (!changed) {
+            return previous;
+        }
+
+        BoardSnapshot next = new BoardSnapshot(++version, turn, currentPlayer,
+            fresh || pilesDirty[DECK] ? copy(deck) : previous.deck(),
+            fresh || pilesDirty[DISCARD] ? copy(discardPile) : previous.discardPile(),
+            List.copyOf(views));
+        pilesDirty[DECK] = false;
+        pilesDirty[DISCARD] = false;
+        for (int p = 0; p < handsDirty.length; p++) {
+            handsDirty[p] = false;
+            tablesDirty[p] = false;
+        }
+        current = next;
+        return next;
+    }
+
+    private static List<BoardSnapshot.CardView> copy(List<? extends Card> cards) {
+        BoardSnapshot.CardView[] views = new BoardSnapshot.CardView[cards.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = BoardSnapshot.CardView.of(cards.get(i));
+        }
+        return List.of(views);
+    }
+}
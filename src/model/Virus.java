@@ -4,7 +4,7 @@ import enums.Color;
 
 public class Virus extends Card {
     public Virus(Color color) {
-        super(color);
+        super(color, CardTypes.VIRUS);
     }
 
     @Override
@@ -0,0 +1,157 @@
+package net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.BoardSnapshot.CardView;
+
+/**
+ * The thin client's side of DeltaEncoder. Every delta names the board it was
+ * made against, which is the last one the client acknowledged but not always
+ * the last one it received, so the decoder keeps the boards of the encoder's
+ * whole window. A full frame starts over. A frame whose base is gone (or
+ * garbled) is refused, and the client asks the server to resync.
+ */
+public final class DeltaDecoder {
+    private final ThinBoard[] recent = new ThinBoard[DeltaEncoder.WINDOW + 1];
+    private ThinBoard current;
+    private byte[] frame;
+    private int position;
+
+    // The newest board received, or null before the first full frame
+    public ThinBoard board() {
+        return current;
+    }
+
+    /*
+     * Applies one frame; returns the version to acknowledge, or -1 if the frame cannot be
+     * applied and the server should resync. Frames older than the current board are applied
+     * to their own base but do not replace the current board.
+     */
+    public long receive(byte[] frame) {
+        this.frame = frame;
+        this.position = 0;
+        try {
+            ThinBoard board;
+            int kind = readByte();
+            if (kind == DeltaEncoder.FULL) {
+                long version = readVarint();
+                String[] names = new String[readByte()];
+                for (int p = 0; p < names.length; p++) {
+                    int length = (int) readVarint();
+                    names[p] = new String(frame, position, length, StandardCharsets.UTF_8);
+                    position += length;
+                }
+                board = new ThinBoard(names);
+                board.version = version;
+                // The server started over, perhaps with a new game; older boards are no base
+                Arrays.fill(recent, null);
+                current = null;
+            } else if (kind == DeltaEncoder.DELTA) {
+                ThinBoard base = find(readVarint());
+                if (base == null) {
+                    return -1;
+                }
+                board = new ThinBoard(base);
+                board.version = readVarint();
+            } else {
+                return -1;
+            }
+            applyOps(board);
+            recent[(int) (board.version % recent.length)] = board;
+            if (current == null || board.version > current.version) {
+                current = board;
+            }
+            return board.version;
+        } catch (RuntimeException e) {
+            // Truncated or garbled
+            return -1;
+        } finally {
+            this.frame = null;
+        }
+    }
+
+    private ThinBoard find(long version) {
+        ThinBoard board = recent[(int) (version % recent.length)];
+        return board != null && board.version == version ? board : null;
+    }
+
+    private void applyOps(ThinBoard board) {
+        while (true) {
+            int op = readByte();
+            switch (op) {
+                case DeltaEncoder.END:
+                    return;
+                case DeltaEncoder.TURN:
+                    board.turn = (int) readVarint();
+                    board.currentPlayer = readByte();
+                    break;
+                case DeltaEncoder.DECK:
+                    board.deckSize = (int) readVarint();
+                    break;
+                case DeltaEncoder.DISCARD:
+                    board.discardSize = (int) readVarint();
+                    int top = readByte();
+                    board.discardTop = top == DeltaEncoder.NO_CARD ? null : CardView.fromCode(top);
+                    break;
+                case DeltaEncoder.HIDDEN:
+                    int player = readByte();
+                    board.hands.set(player, null);
+                    board.handSizes[player] = (int) readVarint();
+                    break;
+                default:
+                    applyListOp(board, op);
+                    break;
+            }
+        }
+    }
+
+    private void applyListOp(ThinBoard board, int op) {
+        int list = readByte();
+        int player = list >> 1;
+        boolean hand = (list & 1) == 0;
+        if (hand && board.hands.get(player) == null) {
+            board.hands.set(player, new ArrayList<>());
+        }
+        List<CardView> cards = hand ? board.hands.get(player) : board.organs.get(player);
+        int index = (int) readVarint();
+        switch (op) {
+            case DeltaEncoder.SET:
+                cards.set(index, CardView.fromCode(readByte()));
+                break;
+            case DeltaEncoder.INSERT:
+                cards.add(index, CardView.fromCode(readByte()));
+                break;
+            case DeltaEncoder.REMOVE:
+                cards.remove(index);
+                break;
+            case DeltaEncoder.REPLACE:
+                cards.clear();
+                for (int i = 0; i < index; i++) {
+                    cards.add(CardView.fromCode(readByte()));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + op);
+        }
+        if (hand) {
+            board.handSizes[player] = cards.size();
+        }
+    }
+
+    private int readByte() {
+        return frame[position++] & 0xFF;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
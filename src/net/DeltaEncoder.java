@@ -0,0 +1,243 @@
+package net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import model.BoardSnapshot;
+import model.BoardSnapshot.CardView;
+import model.BoardSnapshot.PlayerView;
+
+/**
+ * Encodes one seat's view of a table for a thin client that does not run the
+ * rules: each frame is the change from the last board the client acknowledged
+ * to the latest BoardSnapshot, as a short list of operations (turn passed,
+ * organ changed, hand card added or removed, pile counts). A full frame is the
+ * same operations applied to an empty board and is sent first, after a resync
+ * and whenever the acknowledged board has left the window of unacknowledged
+ * frames.
+ *
+ * The client sees what its player may see: the deck only as a count, the top
+ * of the discard pile, every organ, its own hand, and the opponent's hand as a
+ * count unless the snapshot marks it revealed by Control.
+ *
+ * Frames and numbers are bytes and unsigned varints:
+ *   frame   FULL version names... ops END | DELTA base version ops END
+ *   ops     TURN turn player | DECK n | DISCARD n top | SET list i card
+ *           | INSERT list i card | REMOVE list i | REPLACE list n cards | HIDDEN player n
+ * where list is player * 2 for a hand, player * 2 + 1 for organs, a card is a
+ * CardView code and NO_CARD stands for an empty discard pile.
+ *
+ * One encoder per viewer, used by one thread at a time.
+ */
+public final class DeltaEncoder {
+    static final int FULL = 1, DELTA = 2;
+    static final int END = 0, TURN = 1, DECK = 2, DISCARD = 3, SET = 4, INSERT = 5, REMOVE = 6,
+        REPLACE = 7, HIDDEN = 8;
+    static final int NO_CARD = 0xFF;
+    // Unacknowledged frames a delta may still be based on
+    static final int WINDOW = 32;
+
+    private final int viewer;
+    private final ArrayDeque<BoardSnapshot> sent = new ArrayDeque<>();
+    private BoardSnapshot acknowledged;
+    private byte[] buffer = new byte[256];
+    private int length;
+    private int[] lcs = new int[0];
+
+    public DeltaEncoder(int viewer) {
+        this.viewer = viewer;
+    }
+
+    /*
+     * The frame taking the client from its last acknowledged board to snapshot, or null
+     * if that is the board it acknowledged.
+     */
+    public byte[] encode(BoardSnapshot snapshot) {
+        BoardSnapshot base = acknowledged;
+        if (base != null && base.version() == snapshot.version()) {
+            return null;
+        }
+        length = 0;
+        if (base == null) {
+            writeByte(FULL);
+            writeVarint(snapshot.version());
+            List<PlayerView> players = snapshot.players();
+            writeByte(players.size());
+            for (PlayerView player : players) {
+                byte[] name = player.name().getBytes(StandardCharsets.UTF_8);
+                writeVarint(name.length);
+                ensure(name.length);
+                System.arraycopy(name, 0, buffer, length, name.length);
+                length += name.length;
+            }
+        } else {
+            writeByte(DELTA);
+            writeVarint(base.version());
+            writeVarint(snapshot.version());
+        }
+        writeChanges(base, snapshot);
+        writeByte(END);
+
+        if (sent.isEmpty() || sent.peekLast().version() < snapshot.version()) {
+            sent.addLast(snapshot);
+            if (sent.size() > WINDOW) {
+                // Too far behind: the next frame starts over from an empty board
+                if (sent.removeFirst() == acknowledged) {
+                    acknowledged = null;
+                }
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    // The client holds this version; later deltas are based on it
+    public void acknowledge(long version) {
+        if (acknowledged != null && version <= acknowledged.version()) {
+            return;
+        }
+        while (!sent.isEmpty() && sent.peekFirst().version() < version) {
+            sent.removeFirst();
+        }
+        if (!sent.isEmpty() && sent.peekFirst().version() == version) {
+            acknowledged = sent.peekFirst();
+        }
+    }
+
+    // The client lost track; the next frame is a full one
+    public void resync() {
+        acknowledged = null;
+        sent.clear();
+    }
+
+    public int viewer() { return viewer; }
+
+    public static boolean isFull(byte[] frame) {
+        return frame[0] == FULL;
+    }
+
+    private void writeChanges(BoardSnapshot base, BoardSnapshot next) {
+        if (base == null || base.turn() != next.turn() || base.currentPlayer() != next.currentPlayer()) {
+            writeByte(TURN);
+            writeVarint(next.turn());
+            writeByte(next.currentPlayer());
+        }
+        if (base == null || base.deck().size() != next.deck().size()) {
+            writeByte(DECK);
+            writeVarint(next.deck().size());
+        }
+        if (base == null || base.discardPile().size() != next.discardPile().size()
+                || top(base.discardPile()) != top(next.discardPile())) {
+            writeByte(DISCARD);
+            writeVarint(next.discardPile().size());
+            writeByte(top(next.discardPile()));
+        }
+        List<PlayerView> players = next.players();
+        for (int p = 0; p < players.size(); p++) {
+            PlayerView now = players.get(p);
+            PlayerView was = base == null ? null : base.players().get(p);
+            if (now == was) {
+                continue;
+            }
+            writeList(p * 2 + 1, was == null ? null : was.organs(), now.organs());
+
+            boolean visible = p == viewer || now.handRevealed();
+            boolean wasVisible = was != null && (p == viewer || was.handRevealed());
+            if (visible) {
+                writeList(p * 2, wasVisible ? was.hand() : null, now.hand());
+            } else if (wasVisible || was == null || was.hand().size() != now.hand().size()) {
+                writeByte(HIDDEN);
+                writeByte(p);
+                writeVarint(now.hand().size());
+            }
+        }
+    }
+
+    private static int top(List<CardView> pile) {
+        return pile.isEmpty() ? NO_CARD : pile.get(pile.size() - 1).code();
+    }
+
+    /*
+     * The operations turning list a into b: one SET per changed slot when the sizes match,
+     * otherwise removals and insertions around their longest common subsequence, written
+     * from the end so each index is valid when the client applies it. Falls back to
+     * REPLACE when that is shorter.
+     */
+    private void writeList(int list, List<CardView> a, List<CardView> b) {
+        if (a == b) {
+            return;
+        }
+        int start = length;
+        if (a != null) {
+            int n = a.size();
+            int m = b.size();
+            if (n == m) {
+                for (int i = 0; i < n; i++) {
+                    if (a.get(i) != b.get(i)) {
+                        writeOp(SET, list, i);
+                        writeByte(b.get(i).code());
+                    }
+                }
+            } else {
+                int stride = m + 1;
+                if (lcs.length < (n + 1) * stride) {
+                    lcs = new int[(n + 1) * stride];
+                }
+                for (int i = 0; i <= n; i++) {
+                    for (int j = 0; j <= m; j++) {
+                        lcs[i * stride + j] = i == 0 || j == 0 ? 0
+                            : a.get(i - 1) == b.get(j - 1) ? lcs[(i - 1) * stride + j - 1] + 1
+                            : Math.max(lcs[(i - 1) * stride + j], lcs[i * stride + j - 1]);
+                    }
+                }
+                int i = n;
+                int j = m;
+                while (i > 0 || j > 0) {
+                    if (i > 0 && j > 0 && a.get(i - 1) == b.get(j - 1)) {
+                        i--;
+                        j--;
+                    } else if (j > 0 && (i == 0 || lcs[i * stride + j - 1] >= lcs[(i - 1) * stride + j])) {
+                        writeOp(INSERT, list, i);
+                        writeByte(b.get(--j).code());
+                    } else {
+                        writeOp(REMOVE, list, --i);
+                    }
+                }
+            }
+            if (length - start <= 3 + b.size()) {
+                return;
+            }
+            length = start;
+        }
+        writeOp(REPLACE, list, b.size());
+        for (CardView card : b) {
+            writeByte(card.code());
+        }
+    }
+
+    private void writeOp(int op, int list, int value) {
+        writeByte(op);
+        writeByte(list);
+        writeVarint(value);
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package net;
+
+import java.io.IOException;
+
+// The two sides of a lockstep game no longer hold the same state
+public final class DesyncException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int turn;
+    private final long localHash;
+    private final long remoteHash;
+
+    DesyncException(String message, int turn, long localHash, long remoteHash) {
+        super(String.format("%s on turn %d: local state %016x, remote state %016x",
+            message, turn + 1, localHash, remoteHash));
+        this.turn = turn;
+        this.localHash = localHash;
+        this.remoteHash = remoteHash;
+    }
+
+    public int getTurn() { return turn; }
+    public long getLocalHash() { return localHash; }
+    public long getRemoteHash() { return remoteHash; }
+}
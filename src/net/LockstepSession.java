@@ -0,0 +1,214 @@
+package net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import model.DeckComposition;
+import sim.GameState;
+import sim.Moves;
+
+/**
+ * One side of a two-player game over TCP in which only moves cross the wire.
+ * The host picks the deck and the seed and sends them once; from then on both
+ * sides run the same deterministic sim.GameState and exchange nothing but the
+ * moves, each with the turn it was made on and the mover's state hash after
+ * it (15 bytes a move).
+ *
+ * The receiver applies the move and compares hashes on every turn. A move for
+ * the wrong turn, an illegal move or a different hash is a desync: it is sent
+ * back to the mover at once and both sides throw DesyncException, so neither
+ * plays on from a state the other does not have.
+ *
+ * Every card, hidden or not, is dealt on both machines; lockstep keeps two
+ * honest clients in step, it does not hide the opponent's hand from a
+ * modified one.
+ */
+public final class LockstepSession implements Closeable {
+    private static final int MAGIC = 0x564C5331; // "VLS1"
+    private static final int VERSION = 1;
+    private static final int MOVE = 1;
+    private static final int DESYNC = 2;
+    private static final int QUIT = 3;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int seat;
+    private final long seed;
+    private final GameState state;
+    private long bytesSent;
+    private long bytesReceived;
+    private int moves;
+
+    private LockstepSession(Socket socket, DataInputStream in, int seat, DeckComposition deck, long seed)
+            throws IOException {
+        this.socket = socket;
+        this.in = in;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.seat = seat;
+        this.seed = seed;
+        this.state = GameState.newGame(deck, seed);
+    }
+
+    // Waits for one opponent on the port and deals the game; the host moves first
+    public static LockstepSession host(int port, DeckComposition deck, long seed) throws IOException {
+        Socket socket;
+        try (ServerSocket server = new ServerSocket(port)) {
+            socket = server.accept();
+        }
+        try {
+            socket.setTcpNoDelay(true);
+            LockstepSession session = new LockstepSession(socket, input(socket), 0, deck, seed);
+            DataOutputStream out = session.out;
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(deck.getOrgansPerColor());
+            out.writeByte(deck.getVirusesPerColor());
+            out.writeByte(deck.getMedicinesPerColor());
+            out.writeByte(deck.getReikanCount());
+            out.writeByte(deck.getExchangeCount());
+            out.writeByte(deck.getControlCount());
+            out.writeLong(seed);
+            out.flush();
+            session.bytesSent += 19;
+            return session;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Connects to a host and takes the deck and seed it deals with
+    public static LockstepSession join(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port));
+            socket.setTcpNoDelay(true);
+            DataInputStream in = input(socket);
+            if (in.readInt() != MAGIC) {
+                throw new IOException(host + ":" + port + " is not a lockstep host");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported lockstep version " + version);
+            }
+            DeckComposition deck = new DeckComposition(in.readUnsignedByte(), in.readUnsignedByte(),
+                in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+            long seed = in.readLong();
+            LockstepSession session = new LockstepSession(socket, in, 1, deck, seed);
+            session.bytesReceived += 19;
+            return session;
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private static DataInputStream input(Socket socket) throws IOException {
+        return new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    // The shared game; read it freely, but only play() and receive() may change it
+    public GameState state() { return state; }
+    public int seat() { return seat; }
+    public long seed() { return seed; }
+    public boolean isMyTurn() { return !state.isOver() && state.current() == seat; }
+
+    public long bytesSent() { return bytesSent; }
+    public long bytesReceived() { return bytesReceived; }
+    public int moves() { return moves; }
+
+    // Applies one of this side's moves and sends it with the resulting state hash
+    public void play(int move) throws IOException {
+        if (!isMyTurn()) {
+            throw new IllegalStateException("Not this side's turn");
+        }
+        int turn = state.turn();
+        if (!state.apply(move)) {
+            throw new IllegalArgumentException("Illegal move " + Moves.toString(move));
+        }
+        out.writeByte(MOVE);
+        out.writeInt(turn);
+        out.writeShort(move);
+        out.writeLong(state.hash());
+        out.flush();
+        bytesSent += 15;
+        moves++;
+    }
+
+    /*
+     * Waits for the opponent's move, applies it and checks the hashes, returning the move.
+     * Throws DesyncException (after telling the opponent) if the states differ, and
+     * EOFException if the opponent left.
+     */
+    public int receive() throws IOException {
+        if (state.isOver() || state.current() == seat) {
+            throw new IllegalStateException("Not the opponent's turn");
+        }
+        int type = in.read();
+        switch (type) {
+            case MOVE:
+                int turn = in.readInt();
+                int move = in.readUnsignedShort();
+                long remote = in.readLong();
+                bytesReceived += 15;
+                moves++;
+                if (turn != state.turn()) {
+                    throw desync("Move for turn " + (turn + 1), state.turn(), remote);
+                }
+                if (!state.apply(move)) {
+                    throw desync("Illegal move " + Moves.toString(move), turn, remote);
+                }
+                if (state.hash() != remote) {
+                    throw desync("State hash mismatch after " + Moves.toString(move), turn, remote);
+                }
+                return move;
+            case DESYNC:
+                int at = in.readInt();
+                long theirs = in.readLong();
+                bytesReceived += 13;
+                throw new DesyncException("Opponent reported a desync", at, state.hash(), theirs);
+            case QUIT:
+            case -1:
+                throw new EOFException("The opponent left the game");
+            default:
+                throw new IOException("Unknown lockstep frame " + type);
+        }
+    }
+
+    // Reports the desync to the opponent before failing here
+    private DesyncException desync(String message, int turn, long remote) {
+        long local = state.hash();
+        try {
+            out.writeByte(DESYNC);
+            out.writeInt(turn);
+            out.writeLong(local);
+            out.flush();
+            bytesSent += 13;
+        } catch (IOException e) {
+            // The local report still stands
+        }
+        return new DesyncException(message, turn, local, remote);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!state.isOver()) {
+                out.writeByte(QUIT);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Already gone
+        } finally {
+            socket.close();
+        }
+    }
+}
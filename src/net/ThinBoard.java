@@ -0,0 +1,87 @@
+package net;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import model.BoardSnapshot.CardView;
+
+/**
+ * A thin client's copy of one seat's view of a table, as rebuilt by a
+ * DeltaDecoder. Hands the seat may not see are known only by their size.
+ * Boards are not changed once the decoder has returned them.
+ */
+public final class ThinBoard {
+    long version;
+    int turn;
+    int currentPlayer;
+    int deckSize;
+    int discardSize;
+    CardView discardTop;
+    final String[] names;
+    // A null hand is one this seat may not see
+    final List<List<CardView>> hands;
+    final int[] handSizes;
+    final List<List<CardView>> organs;
+
+    ThinBoard(String[] names) {
+        this.names = names;
+        this.hands = new ArrayList<>(names.length);
+        this.handSizes = new int[names.length];
+        this.organs = new ArrayList<>(names.length);
+        for (int p = 0; p < names.length; p++) {
+            hands.add(null);
+            organs.add(new ArrayList<>());
+        }
+    }
+
+    // A copy to apply the next delta to
+    ThinBoard(ThinBoard other) {
+        this(other.names);
+        version = other.version;
+        turn = other.turn;
+        currentPlayer = other.currentPlayer;
+        deckSize = other.deckSize;
+        discardSize = other.discardSize;
+        discardTop = other.discardTop;
+        for (int p = 0; p < names.length; p++) {
+            List<CardView> hand = other.hands.get(p);
+            hands.set(p, hand == null ? null : new ArrayList<>(hand));
+            handSizes[p] = other.handSizes[p];
+            organs.set(p, new ArrayList<>(other.organs.get(p)));
+        }
+    }
+
+    public long version() { return version; }
+    public int turn() { return turn; }
+    public int currentPlayer() { return currentPlayer; }
+    public int players() { return names.length; }
+    public String name(int player) { return names[player]; }
+    public int deckSize() { return deckSize; }
+    public int discardSize() { return discardSize; }
+    // Null while the discard pile is empty
+    public CardView discardTop() { return discardTop; }
+    public int handSize(int player) { return handSizes[player]; }
+
+    // The cards, or null if this seat may not see them
+    public List<CardView> hand(int player) {
+        return hands.get(player) == null ? null : Collections.unmodifiableList(hands.get(player));
+    }
+
+    public List<CardView> organs(int player) {
+        return Collections.unmodifiableList(organs.get(player));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("v").append(version).append(" turn ").append(turn + 1)
+            .append(", ").append(names[currentPlayer]).append(" to play, deck ").append(deckSize)
+            .append(", discard ").append(discardSize);
+        for (int p = 0; p < names.length; p++) {
+            text.append("\n  ").append(names[p]).append(": hand ")
+                .append(hands.get(p) == null ? handSizes[p] + " hidden" : hands.get(p).toString())
+                .append(", organs ").append(organs.get(p));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package sim;
+
+// Chooses the move of one game in a GameBatch from its legal moves; called for every game on every step, so it must not allocate
+public interface BatchPolicy {
+    // Same choice RandomPolicy makes with the same generator state
+    BatchPolicy RANDOM = (batch, game, moves, count) -> moves[batch.nextPolicyInt(game, count)];
+
+    int chooseMove(GameBatch batch, int game, int[] moves, int count);
+}
@@ -0,0 +1,63 @@
+package sim;
+
+import enums.Color;
+import java.util.List;
+import model.Card;
+import model.CardTypes;
+import model.DeckComposition;
+
+/**
+ * Compact int encoding of cards for the headless engine: the CardTypes id in
+ * the high bits, Color ordinal in the low three bits.
+ */
+public final class CardCodes {
+    public static final int ORGAN = CardTypes.ORGAN;
+    public static final int VIRUS = CardTypes.VIRUS;
+    public static final int MEDICINA = CardTypes.MEDICINA;
+    public static final int REIKAN = CardTypes.REIKAN;
+    public static final int EXCHANGE = CardTypes.EXCHANGE;
+    public static final int CONTROL = CardTypes.CONTROL;
+    public static final int KINDS = CardTypes.COUNT;
+
+    // Every code is below this value, so codes can index small lookup tables
+    public static final int CODE_LIMIT = KINDS << 3;
+
+    private static final Color[] COLORS = Color.values();
+
+    private CardCodes() {
+    }
+
+    public static int of(int kind, int color) {
+        return (kind << 3) | color;
+    }
+
+    public static int kind(int code) {
+        return code >>> 3;
+    }
+
+    public static int color(int code) {
+        return code & 7;
+    }
+
+    public static String kindName(int kind) {
+        return CardTypes.label(kind);
+    }
+
+    public static String toString(int code) {
+        return CardTypes.label(kind(code)) + COLORS[color(code)];
+    }
+
+    public static int encode(Card card) {
+        return of(card.getTypeId(), card.getColor().ordinal());
+    }
+
+    // Codes of every card of the composition, in DeckComposition.buildDeck() order
+    public static int[] deckOf(DeckComposition composition) {
+        List<Card> cards = composition.buildDeck();
+        int[] codes = new int[cards.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = encode(cards.get(i));
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,76 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * Counts of the cards one player cannot see, by card code and by kind, with
+ * constant time updates and draw-chance queries. Drawing from the deck is a
+ * uniform draw from this pool from that player's point of view, since the
+ * opponent's hand is as unknown as the deck order.
+ */
+public final class CardPool {
+    private final int[] codes = new int[CardCodes.CODE_LIMIT];
+    private final int[] kinds = new int[CardCodes.KINDS];
+    private int size;
+
+    public void add(int code) {
+        codes[code]++;
+        kinds[CardCodes.kind(code)]++;
+        size++;
+    }
+
+    public void remove(int code) {
+        if (codes[code] == 0) {
+            throw new IllegalStateException("No card " + CardCodes.toString(code) + " left in the pool");
+        }
+        codes[code]--;
+        kinds[CardCodes.kind(code)]--;
+        size--;
+    }
+
+    // Adds every card of another pool, as when the discard pile is shuffled back in
+    public void addAll(CardPool other) {
+        for (int code = 0; code < codes.length; code++) {
+            codes[code] += other.codes[code];
+        }
+        for (int kind = 0; kind < kinds.length; kind++) {
+            kinds[kind] += other.kinds[kind];
+        }
+        size += other.size;
+    }
+
+    public void clear() {
+        Arrays.fill(codes, 0);
+        Arrays.fill(kinds, 0);
+        size = 0;
+    }
+
+    /**
+     * Loads the pool from an engine position as player sees it: the deck plus
+     * the opponent's hand.
+     */
+    public void load(GameState state, int player) {
+        clear();
+        for (int i = 0; i < state.deckSize(); i++) {
+            add(state.deckCard(i));
+        }
+        int opponent = player ^ 1;
+        for (int i = 0; i < state.handSize(opponent); i++) {
+            add(state.handCard(opponent, i));
+        }
+    }
+
+    public int size() { return size; }
+    public int count(int code) { return codes[code]; }
+    public int countKind(int kind) { return kinds[kind]; }
+
+    // Chance that the next draws cards drawn include at least one card with this code
+    public float chanceWithin(int code, int draws) {
+        return Hypergeometric.atLeastOne(size, codes[code], draws);
+    }
+
+    // The same for any card of a kind, whatever its color
+    public float chanceOfKindWithin(int kind, int draws) {
+        return Hypergeometric.atLeastOne(size, kinds[kind], draws);
+    }
+}
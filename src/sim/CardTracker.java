@@ -0,0 +1,130 @@
+package sim;
+
+import enums.ModelChangeType;
+import interfaces.ModelListener;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import model.Card;
+import model.Player;
+
+/**
+ * Keeps the unseen pool of one player (the deck plus the cards in the other
+ * players' hands it has not seen) up to date from model change events, one
+ * counter update per card drawn, played, discarded or stolen. A card that
+ * leaves the viewer's hand for another hand, stolen or swapped by Exchange,
+ * is known to the viewer and stays out of the pool until it leaves that hand.
+ * When Control reveals another player's hand, the whole hand becomes known;
+ * like Control, this assumes that player is the viewer's only opponent.
+ * A reshuffle adds the discard pile's counts, which are tracked for that
+ * purpose, so it costs one pass over the card codes rather than over the
+ * cards.
+ *
+ * Register it with the game's ModelEvents once the cards are dealt; the
+ * constructor counts the current position once.
+ */
+public final class CardTracker implements ModelListener {
+    private final Player viewer;
+    private final CardPool unseen = new CardPool();
+    private final CardPool discarded = new CardPool();
+    // Cards in other players' hands that the viewer saw go there
+    private final CardPool known = new CardPool();
+    // Cards just taken from the viewer's hand, until another kind of change shows where they went
+    private final Set<Card> leaving = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Scratch counts of a revealed hand
+    private final CardPool shown = new CardPool();
+    private int deckSize;
+    private int discardSize;
+
+    public CardTracker(Player viewer, List<Card> deck, List<Card> discardPile, List<Player> players) {
+        this.viewer = viewer;
+        for (Card card : deck) {
+            unseen.add(CardCodes.encode(card));
+        }
+        for (Player player : players) {
+            if (player != viewer) {
+                for (Card card : player.getHand()) {
+                    unseen.add(CardCodes.encode(card));
+                }
+            }
+        }
+        for (Card card : discardPile) {
+            discarded.add(CardCodes.encode(card));
+        }
+        this.deckSize = deck.size();
+        this.discardSize = discardPile.size();
+    }
+
+    public Player viewer() { return viewer; }
+    public CardPool unseen() { return unseen; }
+
+    @Override
+    public void onModelChange(ModelChangeType type, Player owner, Card card, int index) {
+        if (type != ModelChangeType.HAND_CARD_ADDED && type != ModelChangeType.HAND_CARD_REMOVED) {
+            // A steal or an Exchange moves cards between hands with nothing in between
+            leaving.clear();
+        }
+        switch (type) {
+            case HAND_CARD_ADDED:
+                if (owner != viewer) {
+                    if (leaving.remove(card)) {
+                        known.add(CardCodes.encode(card));
+                    } else {
+                        unseen.add(CardCodes.encode(card));
+                    }
+                }
+                break;
+            case HAND_CARD_REMOVED:
+                if (owner == viewer) {
+                    leaving.add(card);
+                } else if (known.count(CardCodes.encode(card)) > 0) {
+                    known.remove(CardCodes.encode(card));
+                } else {
+                    unseen.remove(CardCodes.encode(card));
+                }
+                break;
+            case HAND_REVEALED:
+                if (owner != viewer) {
+                    reveal(owner);
+                }
+                break;
+            case DECK_SIZE_CHANGED:
+                if (index == deckSize - 1) {
+                    unseen.remove(CardCodes.encode(card));
+                } else if (index == deckSize + 1) {
+                    unseen.add(CardCodes.encode(card));
+                } else if (index > deckSize) {
+                    // Several cards at once: the discard pile shuffled back into the deck
+                    unseen.addAll(discarded);
+                }
+                deckSize = index;
+                break;
+            case DISCARD_SIZE_CHANGED:
+                if (index == discardSize + 1) {
+                    discarded.add(CardCodes.encode(card));
+                } else if (index == discardSize - 1) {
+                    discarded.remove(CardCodes.encode(card));
+                } else if (index == 0) {
+                    discarded.clear();
+                }
+                discardSize = index;
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Copies of a code already known are in this hand; only the rest come out of the pool
+    private void reveal(Player owner) {
+        shown.clear();
+        for (Card card : owner.getHand()) {
+            int code = CardCodes.encode(card);
+            if (shown.count(code) >= known.count(code)) {
+                unseen.remove(code);
+                known.add(code);
+            }
+            shown.add(code);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import model.DeckComposition;
+
+/**
+ * Searches deck compositions for ones that are fair (the first player wins
+ * about half of the decided games) and produce games of a target length.
+ *
+ * Candidates are raced with successive halving: every round each survivor
+ * gets another batch of parallel seeded games, candidates whose score is
+ * confidently worse than the leader are dropped right away, and only the
+ * better half advances. The search stops when one candidate is left, the
+ * round limit is reached or the time budget runs out. A round's batch is cut
+ * down to what the time left allows at the speed games have run so far, and
+ * a candidate the budget left without any games is ranked last.
+ *
+ * Usage: java sim.DeckOptimizer [--candidates N] [--target-turns T]
+ *        [--minutes M] [--games G] [--policy greedy|random] [--threads N] [--seed S]
+ */
+public final class DeckOptimizer {
+    private static final int MAX_ROUNDS = 12;
+    private static final double FAIRNESS_TOLERANCE = 0.02;
+    private static final double DRAW_WEIGHT = 5.0;
+    private static final double CONFIDENCE_Z = 2.0;
+
+    // Inclusive search ranges for each parameter, in DeckComposition constructor order
+    private static final int[][] RANGES = {
+        {3, 7}, // organs per color
+        {2, 6}, // viruses per color
+        {1, 4}, // medicines per color
+        {0, 5}, // reikan
+        {0, 4}, // exchange
+        {0, 4}  // control
+    };
+
+    private final ParallelSimulator simulator;
+    private final Supplier<Policy> policies;
+    private final double targetTurns;
+    private final int maxTurns;
+
+    public DeckOptimizer(ParallelSimulator simulator, Supplier<Policy> policies, double targetTurns) {
+        this.simulator = simulator;
+        this.policies = policies;
+        this.targetTurns = targetTurns;
+        this.maxTurns = (int) Math.max(GameState.DEFAULT_MAX_TURNS, targetTurns * 10);
+    }
+
+    // A candidate composition and the games played with it so far
+    public static final class Candidate {
+        private final DeckComposition composition;
+        private final SimulationStats stats = new SimulationStats();
+        private long nextSeed;
+
+        Candidate(DeckComposition composition) {
+            this.composition = composition;
+        }
+
+        public DeckComposition getComposition() { return composition; }
+        public SimulationStats getStats() { return stats; }
+    }
+
+    // Lower is better: distance from perfect fairness and from the target game length
+    public double score(SimulationStats stats) {
+        return Math.abs(stats.firstPlayerWinRate() - 0.5) / FAIRNESS_TOLERANCE
+            + Math.abs(stats.meanTurns() - targetTurns) / targetTurns
+            + DRAW_WEIGHT * stats.drawRate();
+    }
+
+    // Half-width of the score's confidence interval given the games played so far
+    public double uncertainty(SimulationStats stats) {
+        long decided = stats.wins(0) + stats.wins(1);
+        if (decided == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double p = stats.firstPlayerWinRate();
+        double winError = Math.sqrt(p * (1 - p) / decided) / FAIRNESS_TOLERANCE;
+        double turnError = stats.turnStdDev() / Math.sqrt(stats.games()) / targetTurns;
+        double d = stats.drawRate();
+        double drawError = DRAW_WEIGHT * Math.sqrt(d * (1 - d) / stats.games());
+        return CONFIDENCE_Z * (winError + turnError + drawError);
+    }
+
+    public List<Candidate> race(List<DeckComposition> compositions, int initialGames, long baseSeed, long deadlineNanos) {
+        List<Candidate> alive = new ArrayList<>();
+        for (DeckComposition composition : compositions) {
+            Candidate candidate = new Candidate(composition);
+            // Every candidate sees the same deals (common random numbers) to reduce comparison noise
+            candidate.nextSeed = baseSeed;
+            alive.add(candidate);
+        }
+        // An empty record scores as a fair game of no turns, so untested candidates go last
+        Comparator<Candidate> byScore = Comparator.comparing((Candidate c) -> c.stats.games() == 0)
+            .thenComparingDouble(c -> score(c.stats));
+
+        int games = initialGames;
+        long simulatedGames = 0;
+        long simulatedNanos = 0;
+        for (int round = 1; round <= MAX_ROUNDS && alive.size() > 1; round++) {
+            int batch = games;
+            if (simulatedGames > 0) {
+                // Fit the round into the time left at the speed seen so far
+                double nanosPerGame = (double) simulatedNanos / simulatedGames;
+                long affordable = (long) ((deadlineNanos - System.nanoTime()) / (nanosPerGame * alive.size()));
+                batch = (int) Math.max(0, Math.min(batch, affordable));
+            }
+            for (Candidate candidate : alive) {
+                if (batch == 0 || System.nanoTime() > deadlineNanos) {
+                    System.out.println("Time budget exhausted during round " + round + ".");
+                    alive.sort(byScore);
+                    return alive;
+                }
+                long start = System.nanoTime();
+                candidate.stats.merge(simulator.run(candidate.composition, policies,
+                    candidate.nextSeed, batch, maxTurns));
+                simulatedNanos += System.nanoTime() - start;
+                simulatedGames += batch;
+                candidate.nextSeed += batch;
+            }
+
+            alive.sort(byScore);
+            Candidate leader = alive.get(0);
+            double leaderUpper = score(leader.stats) + uncertainty(leader.stats);
+            List<Candidate> survivors = new ArrayList<>();
+            int keep = Math.max(1, (alive.size() + 1) / 2);
+            for (Candidate candidate : alive) {
+                boolean beaten = score(candidate.stats) - uncertainty(candidate.stats) > leaderUpper;
+                if (survivors.size() < keep && !beaten) {
+                    survivors.add(candidate);
+                }
+            }
+            System.out.printf("Round %d: %d games each, %d -> %d candidates, leader score %.3f (%s)%n",
+                round, leader.stats.games(), alive.size(), survivors.size(),
+                score(leader.stats), leader.composition);
+            alive = survivors;
+            games *= 2;
+        }
+        alive.sort(byScore);
+        return alive;
+    }
+
+    // The current presets, their neighbours and random samples of the search space
+    public static List<DeckComposition> sampleCandidates(int count, long seed) {
+        Set<DeckComposition> result = new LinkedHashSet<>();
+        result.add(DeckComposition.STANDARD);
+        result.add(DeckComposition.COMPACT);
+        for (DeckComposition preset : new DeckComposition[] {DeckComposition.STANDARD, DeckComposition.COMPACT}) {
+            int[] base = toArray(preset);
+            for (int i = 0; i < base.length && result.size() < count; i++) {
+                for (int delta = -1; delta <= 1; delta += 2) {
+                    int[] neighbour = base.clone();
+                    neighbour[i] += delta;
+                    if (inRange(neighbour)) {
+                        result.add(fromArray(neighbour));
+                    }
+                }
+            }
+        }
+
+        Rng rng = new Rng(seed);
+        int attempts = 0;
+        while (result.size() < count && attempts++ < count * 100) {
+            int[] values = new int[RANGES.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = RANGES[i][0] + rng.nextInt(RANGES[i][1] - RANGES[i][0] + 1);
+            }
+            result.add(fromArray(values));
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static boolean inRange(int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < RANGES[i][0] || values[i] > RANGES[i][1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] toArray(DeckComposition c) {
+        return new int[] {c.getOrgansPerColor(), c.getVirusesPerColor(), c.getMedicinesPerColor(),
+            c.getReikanCount(), c.getExchangeCount(), c.getControlCount()};
+    }
+
+    private static DeckComposition fromArray(int[] v) {
+        return new DeckComposition(v[0], v[1], v[2], v[3], v[4], v[5]);
+    }
+
+    public static void main(String[] args) {
+        int candidates = 64;
+        double targetTurns = 40;
+        double minutes = 55;
+        int initialGames = 200;
+        String policy = "greedy";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--candidates": candidates = Integer.parseInt(value); break;
+                case "--target-turns": targetTurns = Double.parseDouble(value); break;
+                case "--minutes": minutes = Double.parseDouble(value); break;
+                case "--games": initialGames = Integer.parseInt(value); break;
+                case "--policy": policy = value; break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        Supplier<Policy> policies = "random".equals(policy) ? RandomPolicy::new : GreedyPolicy::new;
+        List<DeckComposition> compositions = sampleCandidates(candidates, seed);
+        System.out.println("Racing " + compositions.size() + " deck compositions on " + threads
+            + " threads (target " + targetTurns + " turns, " + policy + " players, " + minutes + " min budget)");
+
+        long start = System.nanoTime();
+        long deadline = start + (long) (minutes * 60e9);
+        try (ParallelSimulator simulator = new ParallelSimulator(threads)) {
+            DeckOptimizer optimizer = new DeckOptimizer(simulator, policies, targetTurns);
+            List<Candidate> ranking = optimizer.race(compositions, initialGames, seed * 1_000_003L, deadline);
+
+            System.out.println("\n=== BEST COMPOSITIONS ===");
+            for (int i = 0; i < Math.min(5, ranking.size()); i++) {
+                Candidate c = ranking.get(i);
+                if (c.stats.games() == 0) {
+                    // The rest never got to play
+                    break;
+                }
+                System.out.printf("%d. score %.3f +/- %.3f  %s%n   %s%n", i + 1,
+                    optimizer.score(c.stats), optimizer.uncertainty(c.stats), c.composition, c.stats);
+            }
+        }
+        System.out.printf("Search finished in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
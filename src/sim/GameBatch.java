@@ -0,0 +1,518 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.DeckComposition;
+
+/**
+ * Many games with the same deck, stored field by field in parallel primitive
+ * arrays instead of one GameState per game: card piles and hands are bytes,
+ * the organs of both players are one long of 4-bit counters per game, and
+ * every game has its own generator state. A step advances every running
+ * game by one move in a tight loop that never allocates.
+ *
+ * The rules and the random streams are exactly those of GameState and
+ * GameSimulator, so game firstSeed + i of a batch ends exactly like
+ * GameSimulator.play(firstSeed + i) with RandomPolicy on both sides.
+ */
+public final class GameBatch {
+    private static final int PLAYERS = GameState.PLAYERS;
+    private static final int COLORS = GameState.COLORS;
+    private static final int MAX_HAND = GameState.MAX_HAND;
+    private static final int NO_WINNER = GameState.NO_WINNER;
+    private static final int INFECTED_SHIFT = 32;
+    private static final int COUNTER_LIMIT = 15;
+
+    private final int capacity;
+    private final int totalCards;
+    private final byte[] cards;
+    private final byte[] decks;
+    private final int[] deckSizes;
+    private final byte[] discards;
+    private final int[] discardSizes;
+    private final byte[] hands;
+    private final byte[] handSizes;
+    // Nibble p * 4 + c holds player p's healthy organs of color c, the upper half the infected ones
+    private final long[] organs;
+    private final long[] rngStates;
+    private final long[] policyStates;
+    private final byte[] current;
+    private final int[] turns;
+    private final byte[] winners;
+    private final int[] live;
+    private int liveCount;
+    private int maxTurns = GameState.DEFAULT_MAX_TURNS;
+    private final int[] moves = new int[GameState.MAX_MOVES];
+
+    public GameBatch(DeckComposition composition, int capacity) {
+        if (composition.getOrgansPerColor() > COUNTER_LIMIT) {
+            throw new IllegalArgumentException("A batch holds at most " + COUNTER_LIMIT + " organs per color");
+        }
+        int[] codes = CardCodes.deckOf(composition);
+        this.capacity = capacity;
+        this.totalCards = codes.length;
+        this.cards = new byte[totalCards];
+        for (int i = 0; i < totalCards; i++) {
+            cards[i] = (byte) codes[i];
+        }
+        this.decks = new byte[capacity * totalCards];
+        this.deckSizes = new int[capacity];
+        this.discards = new byte[capacity * totalCards];
+        this.discardSizes = new int[capacity];
+        this.hands = new byte[capacity * PLAYERS * MAX_HAND];
+        this.handSizes = new byte[capacity * PLAYERS];
+        this.organs = new long[capacity];
+        this.rngStates = new long[capacity];
+        this.policyStates = new long[capacity];
+        this.current = new byte[capacity];
+        this.turns = new int[capacity];
+        this.winners = new byte[capacity];
+        this.live = new int[capacity];
+    }
+
+    public int capacity() { return capacity; }
+    public int running() { return liveCount; }
+    public void setMaxTurns(int maxTurns) { this.maxTurns = maxTurns; }
+
+    // Starts a new game in the given slot and marks it running
+    public void start(int game, long seed) {
+        reset(game, seed);
+        live[liveCount++] = game;
+    }
+
+    // Advances every running game by one move; finished games stop running. Returns how many still run.
+    public int step(BatchPolicy policy) {
+        for (int i = 0; i < liveCount; ) {
+            int g = live[i];
+            advance(g, policy);
+            if (winners[g] == NO_WINNER) {
+                i++;
+            } else {
+                live[i] = live[--liveCount];
+            }
+        }
+        return liveCount;
+    }
+
+    // Plays games firstSeed .. firstSeed + games - 1, refilling slots as games finish
+    public SimulationStats play(long firstSeed, int games, BatchPolicy policy) {
+        SimulationStats stats = new SimulationStats();
+        long next = firstSeed;
+        long end = firstSeed + games;
+        liveCount = 0;
+        for (int g = 0; g < capacity && next < end; g++) {
+            start(g, next++);
+        }
+        while (liveCount > 0) {
+            for (int i = 0; i < liveCount; ) {
+                int g = live[i];
+                advance(g, policy);
+                if (winners[g] == NO_WINNER) {
+                    i++;
+                    continue;
+                }
+                stats.record(winners[g], turns[g]);
+                if (next < end) {
+                    reset(g, next++);
+                    i++;
+                } else {
+                    live[i] = live[--liveCount];
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Same as play with BatchPolicy.RANDOM, but every phase of a step runs for
+     * all slots before the next one: the color and win masks and the random
+     * move picks are computed lane-wise by the kernels, and only the hand and
+     * pile updates stay per game. The results are identical to play.
+     */
+    public SimulationStats playLockstep(long firstSeed, int games, LaneKernels kernels) {
+        SimulationStats stats = new SimulationStats();
+        long[] colors = new long[capacity];
+        long[] wins = new long[capacity];
+        long[] bounds = new long[capacity];
+        long[] picks = new long[capacity];
+        int[] slotMoves = new int[capacity * GameState.MAX_MOVES];
+        long next = firstSeed;
+        long end = firstSeed + games;
+        int active = 0;
+        liveCount = 0;
+        for (int g = 0; g < capacity; g++) {
+            if (next < end) {
+                reset(g, next++);
+                active++;
+            } else {
+                // An idle slot: finished games are skipped by every phase
+                winners[g] = (byte) GameState.DRAW;
+            }
+        }
+
+        while (active > 0) {
+            kernels.colorMasks(organs, capacity, colors, wins);
+            for (int g = 0; g < capacity; g++) {
+                bounds[g] = winners[g] == NO_WINNER ? legalMoves(g, slotMoves, g * GameState.MAX_MOVES, colors[g]) : 1;
+            }
+            kernels.nextBounded(policyStates, bounds, capacity, picks);
+            for (int g = 0; g < capacity; g++) {
+                if (winners[g] != NO_WINNER) {
+                    continue;
+                }
+                int move = Moves.NONE;
+                if (bounds[g] == 0) {
+                    // RandomPolicy does not draw when there is nothing to choose
+                    policyStates[g] -= Rng.GAMMA;
+                } else {
+                    move = slotMoves[g * GameState.MAX_MOVES + (int) picks[g]];
+                }
+                applyMove(g, move);
+                refillHand(g, current[g]);
+            }
+            kernels.colorMasks(organs, capacity, colors, wins);
+            for (int g = 0; g < capacity; g++) {
+                if (winners[g] != NO_WINNER) {
+                    continue;
+                }
+                endTurn(g, (wins[g] >>> current[g] & 1) != 0);
+                if (winners[g] != NO_WINNER) {
+                    stats.record(winners[g], turns[g]);
+                    if (next < end) {
+                        reset(g, next++);
+                    } else {
+                        active--;
+                    }
+                }
+            }
+        }
+        return stats;
+    }
+
+    private void advance(int g, BatchPolicy policy) {
+        int count = legalMoves(g, moves);
+        apply(g, count == 0 ? Moves.NONE : policy.chooseMove(this, g, moves, count));
+    }
+
+    // Draws from the game's policy generator (kept apart from the rules' generator, as in GameSimulator)
+    public int nextPolicyInt(int game, int bound) {
+        return Rng.bounded(Rng.mix(policyStates[game] += Rng.GAMMA), bound);
+    }
+
+    private int nextRuleInt(int game, int bound) {
+        return Rng.bounded(Rng.mix(rngStates[game] += Rng.GAMMA), bound);
+    }
+
+    private void reset(int g, long seed) {
+        rngStates[g] = seed;
+        policyStates[g] = ~seed;
+        int base = g * totalCards;
+        System.arraycopy(cards, 0, decks, base, totalCards);
+        deckSizes[g] = totalCards;
+        shuffle(g, base, totalCards);
+        discardSizes[g] = 0;
+        handSizes[g * PLAYERS] = 0;
+        handSizes[g * PLAYERS + 1] = 0;
+        organs[g] = 0;
+        current[g] = 0;
+        turns[g] = 0;
+        winners[g] = NO_WINNER;
+        for (int p = 0; p < PLAYERS; p++) {
+            for (int i = 0; i < GameState.HAND_SIZE; i++) {
+                drawCard(g, p);
+            }
+        }
+    }
+
+    private void shuffle(int g, int base, int n) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = nextRuleInt(g, i + 1);
+            byte tmp = decks[base + i];
+            decks[base + i] = decks[base + j];
+            decks[base + j] = tmp;
+        }
+    }
+
+    // Same moves in the same order as GameState.legalMoves
+    public int legalMoves(int g, int[] out) {
+        return legalMoves(g, out, 0, colorMask(organs[g]));
+    }
+
+    // colors has bit 4 * n set when nibble n of the organ word is non-zero (see LaneKernels)
+    private int legalMoves(int g, int[] out, int offset, long colors) {
+        if (winners[g] != NO_WINNER) {
+            return 0;
+        }
+        int p = current[g];
+        int o = p ^ 1;
+        int opponentHand = handSizes[g * PLAYERS + o];
+        int base = (g * PLAYERS + p) * MAX_HAND;
+        int size = handSizes[g * PLAYERS + p];
+        int n = offset;
+        for (int i = 0; i < size; i++) {
+            int card = hands[base + i];
+            int color = CardCodes.color(card);
+            switch (CardCodes.kind(card)) {
+                case CardCodes.ORGAN:
+                case CardCodes.EXCHANGE:
+                    out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.CONTROL:
+                    if (opponentHand > 0) out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.VIRUS:
+                    if ((colors >>> shift(0, o, color) & 1) != 0) out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.MEDICINA:
+                    if ((colors >>> shift(INFECTED_SHIFT, p, color) & 1) != 0) out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.REIKAN:
+                    for (int j = 0; j < opponentHand; j++) {
+                        out[n++] = Moves.play(i, j);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            out[n++] = Moves.discard(i);
+        }
+        return n - offset;
+    }
+
+    // Applies a legal move (not checked, moves come from legalMoves) and ends the turn
+    private void apply(int g, int move) {
+        applyMove(g, move);
+        int p = current[g];
+        refillHand(g, p);
+        endTurn(g, hasWon(g, p));
+    }
+
+    // The card effect alone; the turn still has to be finished
+    private void applyMove(int g, int move) {
+        int p = current[g];
+        int o = p ^ 1;
+        if (move == Moves.NONE) {
+            return;
+        }
+        int card = removeFromHand(g, p, Moves.slot(move));
+        if (Moves.type(move) == Moves.DISCARD) {
+            discard(g, card);
+        } else {
+            int color = CardCodes.color(card);
+            switch (CardCodes.kind(card)) {
+                case CardCodes.ORGAN:
+                    organs[g] += 1L << shift(0, p, color);
+                    break;
+                case CardCodes.VIRUS:
+                    organs[g] += (1L << shift(INFECTED_SHIFT, o, color)) - (1L << shift(0, o, color));
+                    discard(g, card);
+                    break;
+                case CardCodes.MEDICINA:
+                    organs[g] += (1L << shift(0, p, color)) - (1L << shift(INFECTED_SHIFT, p, color));
+                    discard(g, card);
+                    break;
+                case CardCodes.REIKAN:
+                    addToHand(g, p, removeFromHand(g, o, Moves.target(move)));
+                    discard(g, card);
+                    break;
+                case CardCodes.EXCHANGE:
+                    swapHands(g);
+                    discard(g, card);
+                    break;
+                case CardCodes.CONTROL:
+                    addToHand(g, p, removeFromHand(g, o, nextRuleInt(g, handSizes[g * PLAYERS + o])));
+                    discard(g, card);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // Called once the mover's hand is refilled
+    private void endTurn(int g, boolean moverWon) {
+        int p = current[g];
+        if (moverWon) {
+            winners[g] = (byte) p;
+            return;
+        }
+        int next = p ^ 1;
+        current[g] = (byte) next;
+        turns[g]++;
+        refillHand(g, next);
+        if (turns[g] >= maxTurns || handSizes[g * PLAYERS + next] == 0) {
+            winners[g] = (byte) GameState.DRAW;
+        }
+    }
+
+    private void refillHand(int g, int p) {
+        int sizeIndex = g * PLAYERS + p;
+        while (handSizes[sizeIndex] > GameState.HAND_SIZE) {
+            discard(g, removeFromHand(g, p, handSizes[sizeIndex] - 1));
+        }
+        while (handSizes[sizeIndex] < GameState.HAND_SIZE && drawCard(g, p)) {
+            // keep drawing
+        }
+    }
+
+    private boolean drawCard(int g, int p) {
+        int base = g * totalCards;
+        if (deckSizes[g] == 0) {
+            int discarded = discardSizes[g];
+            if (discarded == 0) {
+                return false;
+            }
+            System.arraycopy(discards, base, decks, base, discarded);
+            deckSizes[g] = discarded;
+            discardSizes[g] = 0;
+            shuffle(g, base, discarded);
+        }
+        addToHand(g, p, decks[base + --deckSizes[g]]);
+        return true;
+    }
+
+    private void discard(int g, int card) {
+        discards[g * totalCards + discardSizes[g]++] = (byte) card;
+    }
+
+    private int removeFromHand(int g, int p, int slot) {
+        int sizeIndex = g * PLAYERS + p;
+        int base = sizeIndex * MAX_HAND;
+        int card = hands[base + slot];
+        int size = --handSizes[sizeIndex];
+        System.arraycopy(hands, base + slot + 1, hands, base + slot, size - slot);
+        return card;
+    }
+
+    private void addToHand(int g, int p, int card) {
+        int sizeIndex = g * PLAYERS + p;
+        hands[sizeIndex * MAX_HAND + handSizes[sizeIndex]++] = (byte) card;
+    }
+
+    private void swapHands(int g) {
+        int first = g * PLAYERS * MAX_HAND;
+        for (int i = first; i < first + MAX_HAND; i++) {
+            byte tmp = hands[i];
+            hands[i] = hands[i + MAX_HAND];
+            hands[i + MAX_HAND] = tmp;
+        }
+        byte tmp = handSizes[g * PLAYERS];
+        handSizes[g * PLAYERS] = handSizes[g * PLAYERS + 1];
+        handSizes[g * PLAYERS + 1] = tmp;
+    }
+
+    // A healthy organ of every color: each of the player's four healthy nibbles is non-zero
+    private boolean hasWon(int g, int p) {
+        return (colorMask(organs[g]) >>> (p * COLORS * 4) & 0x1111L) == 0x1111L;
+    }
+
+    // Bit 4 * n is set when nibble n is non-zero
+    static long colorMask(long board) {
+        long x = board | board >>> 1;
+        x |= x >>> 2;
+        return x & 0x1111111111111111L;
+    }
+
+    private static int shift(int half, int p, int color) {
+        return half + (p * COLORS + color) * 4;
+    }
+
+    private static int counter(long board, int half, int p, int color) {
+        return (int) (board >>> shift(half, p, color)) & 0xF;
+    }
+
+    public boolean isOver(int game) { return winners[game] != NO_WINNER; }
+    public int winner(int game) { return winners[game]; }
+    public int turn(int game) { return turns[game]; }
+    public int current(int game) { return current[game]; }
+    public int deckSize(int game) { return deckSizes[game]; }
+    public int discardSize(int game) { return discardSizes[game]; }
+    public int handSize(int game, int p) { return handSizes[game * PLAYERS + p]; }
+    public int handCard(int game, int p, int slot) { return hands[(game * PLAYERS + p) * MAX_HAND + slot]; }
+    public int healthy(int game, int p, int color) { return counter(organs[game], 0, p, color); }
+    public int infected(int game, int p, int color) { return counter(organs[game], INFECTED_SHIFT, p, color); }
+
+    /**
+     * Checks the batch against GameSimulator on the same seeds, then measures
+     * throughput of both on all cores.
+     * Usage: java sim.GameBatch [games] [batch-size] [threads]
+     */
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        DeckComposition composition = DeckComposition.STANDARD;
+
+        GameBatch check = new GameBatch(composition, 64);
+        GameSimulator reference = new GameSimulator(composition, new RandomPolicy(), new RandomPolicy());
+        int checked = 1000;
+        for (int first = 0; first < checked; first += check.capacity()) {
+            for (int g = 0; g < check.capacity(); g++) {
+                check.start(g, first + g);
+            }
+            while (check.step(BatchPolicy.RANDOM) > 0) {
+                // run all to the end
+            }
+            for (int g = 0; g < check.capacity(); g++) {
+                GameState expected = reference.play(first + g);
+                if (!check.matches(g, expected)) {
+                    throw new IllegalStateException("Batch game with seed " + (first + g) + " differs from GameSimulator");
+                }
+            }
+        }
+        System.out.println(checked + " games match GameSimulator exactly");
+
+        try (ParallelSimulator objects = new ParallelSimulator(threads)) {
+            int objectGames = games / 4;
+            long start = System.nanoTime();
+            SimulationStats perObject = objects.run(composition, RandomPolicy::new, 1, objectGames, GameState.DEFAULT_MAX_TURNS);
+            report("GameState per game", perObject, System.nanoTime() - start);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<SimulationStats>> parts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long first = 1 + (long) games * t / threads;
+                int count = (int) (1 + (long) games * (t + 1) / threads - first);
+                parts.add(pool.submit(() -> new GameBatch(composition, batchSize).play(first, count, BatchPolicy.RANDOM)));
+            }
+            SimulationStats batched = new SimulationStats();
+            for (Future<SimulationStats> part : parts) {
+                batched.merge(part.get());
+            }
+            report("GameBatch of " + batchSize, batched, System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private boolean matches(int g, GameState s) {
+        if (winners[g] != s.winner() || turns[g] != s.turn() || current[g] != s.current()
+                || deckSizes[g] != s.deckSize() || discardSizes[g] != s.discardSize()) {
+            return false;
+        }
+        for (int p = 0; p < PLAYERS; p++) {
+            if (handSize(g, p) != s.handSize(p)) return false;
+            for (int i = 0; i < s.handSize(p); i++) {
+                if (handCard(g, p, i) != s.handCard(p, i)) return false;
+            }
+            for (int c = 0; c < COLORS; c++) {
+                if (healthy(g, p, c) != s.healthy(p, c) || infected(g, p, c) != s.infected(p, c)) return false;
+            }
+        }
+        for (int i = 0; i < deckSizes[g]; i++) {
+            if (decks[g * totalCards + i] != s.deckCard(i)) return false;
+        }
+        return rngStates[g] == s.rng().getState();
+    }
+
+    private static void report(String label, SimulationStats stats, long nanos) {
+        System.out.printf("%-22s %,d games in %.2f s = %,.0f games/min  (%s)%n",
+            label, stats.games(), nanos / 1e9, stats.games() * 60e9 / nanos, stats);
+    }
+}
@@ -0,0 +1,35 @@
+package sim;
+
+import model.DeckComposition;
+
+/**
+ * Plays complete games between two policies. A game is fully determined by
+ * its seed, so any result can be replayed. Reuses one state between games.
+ */
+public final class GameSimulator {
+    private final GameState state;
+    private final Policy[] policies;
+    private final Rng policyRng = new Rng(0);
+
+    public GameSimulator(DeckComposition composition, Policy first, Policy second) {
+        this.state = new GameState(CardCodes.deckOf(composition));
+        this.policies = new Policy[] {first, second};
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        state.setMaxTurns(maxTurns);
+    }
+
+    // Plays one game and returns the final state (valid until the next call)
+    public GameState play(long seed) {
+        state.reset(seed);
+        policyRng.setState(~seed);
+        while (!state.isOver()) {
+            int move = policies[state.current()].chooseMove(state, policyRng);
+            if (!state.apply(move)) {
+                throw new IllegalStateException("Policy chose an illegal move: " + Moves.toString(move));
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,455 @@
+package sim;
+
+import enums.GameEventType;
+import interfaces.GameEventSink;
+import java.util.Arrays;
+import model.DeckComposition;
+
+/**
+ * Headless rules engine for a two-player game, used by simulations and bots.
+ * Cards are CardCodes ints and the organs on the table are per-color counters,
+ * which is all the rules look at. The rules follow the console game: a virus
+ * infects a healthy opponent organ of its color, a medicine heals one of the
+ * player's infected organs of its color, Reikan steals a chosen card, Exchange
+ * swaps hands and Control steals a random card. Played viruses, medicines and
+ * treatments go to the discard pile so the deck keeps cycling.
+ *
+ * Nothing here allocates after construction, so states can be copied into
+ * preallocated scratch instances by search code. An optional GameEventSink
+ * sees every draw, play, discard, reshuffle and turn end; copies never
+ * inherit it, so searches stay silent.
+ */
+public final class GameState {
+    public static final int PLAYERS = 2;
+    public static final int COLORS = 4;
+    public static final int HAND_SIZE = 3;
+    public static final int MAX_HAND = 12;
+    public static final int MAX_MOVES = MAX_HAND * (MAX_HAND + 1);
+    public static final int DEFAULT_MAX_TURNS = 400;
+
+    public static final int NO_WINNER = -1;
+    public static final int DRAW = PLAYERS;
+
+    private final int[] cards;
+    private final int[] deck;
+    private int deckSize;
+    private final int[] discard;
+    private int discardSize;
+    private final int[] hands = new int[PLAYERS * MAX_HAND];
+    private final int[] handSizes = new int[PLAYERS];
+    private final int[] healthy = new int[PLAYERS * COLORS];
+    private final int[] infected = new int[PLAYERS * COLORS];
+    private final Rng rng = new Rng(0);
+    private int current;
+    private int turn;
+    private int winner = NO_WINNER;
+    private int maxTurns = DEFAULT_MAX_TURNS;
+    private int forcedSteal = -1;
+    private GameEventSink sink;
+
+    public GameState(int[] cards) {
+        this.cards = cards.clone();
+        this.deck = new int[cards.length];
+        this.discard = new int[cards.length];
+    }
+
+    public GameState(GameState other) {
+        this(other.cards);
+        copyFrom(other);
+    }
+
+    public static GameState newGame(DeckComposition composition, long seed) {
+        GameState state = new GameState(CardCodes.deckOf(composition));
+        state.reset(seed);
+        return state;
+    }
+
+    // Starts a new game: shuffles the full deck and deals the initial hands
+    public void reset(long seed) {
+        rng.setState(seed);
+        System.arraycopy(cards, 0, deck, 0, cards.length);
+        deckSize = cards.length;
+        rng.shuffle(deck, deckSize);
+        discardSize = 0;
+        Arrays.fill(handSizes, 0);
+        Arrays.fill(healthy, 0);
+        Arrays.fill(infected, 0);
+        current = 0;
+        turn = 0;
+        winner = NO_WINNER;
+        emit(GameEventType.GAME_START, NO_WINNER, 0, deckSize);
+
+        for (int p = 0; p < PLAYERS; p++) {
+            for (int i = 0; i < HAND_SIZE; i++) {
+                drawCard(p);
+            }
+        }
+    }
+
+    public void copyFrom(GameState other) {
+        if (other.cards.length != cards.length) {
+            throw new IllegalArgumentException("Cannot copy a state built from a different deck size");
+        }
+        System.arraycopy(other.deck, 0, deck, 0, other.deckSize);
+        deckSize = other.deckSize;
+        System.arraycopy(other.discard, 0, discard, 0, other.discardSize);
+        discardSize = other.discardSize;
+        System.arraycopy(other.hands, 0, hands, 0, hands.length);
+        System.arraycopy(other.handSizes, 0, handSizes, 0, PLAYERS);
+        System.arraycopy(other.healthy, 0, healthy, 0, healthy.length);
+        System.arraycopy(other.infected, 0, infected, 0, infected.length);
+        rng.setState(other.rng.getState());
+        current = other.current;
+        turn = other.turn;
+        winner = other.winner;
+        maxTurns = other.maxTurns;
+        forcedSteal = -1;
+    }
+
+    // Empties the state so that an arbitrary position can be loaded (see ModelStates)
+    public void clearPosition() {
+        deckSize = 0;
+        discardSize = 0;
+        Arrays.fill(handSizes, 0);
+        Arrays.fill(healthy, 0);
+        Arrays.fill(infected, 0);
+        current = 0;
+        turn = 0;
+        winner = NO_WINNER;
+    }
+
+    // Puts a card on top of the deck, so it is the next one drawn
+    public void pushDeckCard(int card) {
+        deck[deckSize++] = card;
+    }
+
+    public void addDiscardCard(int card) {
+        discard[discardSize++] = card;
+    }
+
+    public void addHandCard(int player, int card) {
+        addToHand(player, card);
+    }
+
+    public void addOrgan(int player, int color, boolean isInfected) {
+        if (isInfected) {
+            infected[player * COLORS + color]++;
+        } else {
+            healthy[player * COLORS + color]++;
+        }
+    }
+
+    public void setCurrent(int player) {
+        current = player;
+    }
+
+    public void setTurn(int turn) {
+        this.turn = turn;
+    }
+
+    /**
+     * Replaces what the given player cannot see (the deck order and the
+     * opponent's hand) with a random arrangement of the same cards, so search
+     * code only uses information the player actually has.
+     */
+    public void determinize(int player, Rng random) {
+        int o = player ^ 1;
+        int hidden = handSizes[o];
+        System.arraycopy(hands, o * MAX_HAND, deck, deckSize, hidden);
+        int pool = deckSize + hidden;
+        random.shuffle(deck, pool);
+        System.arraycopy(deck, deckSize, hands, o * MAX_HAND, hidden);
+        rng.setState(random.nextLong());
+    }
+
+    // Search hook: moves a copy of the card to the top of the deck so it is drawn next
+    public boolean putOnTop(int card) {
+        for (int i = deckSize - 1; i >= 0; i--) {
+            if (deck[i] == card) {
+                deck[i] = deck[deckSize - 1];
+                deck[deckSize - 1] = card;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Search hook: the next Control played steals this slot instead of a random one
+    public void forceNextSteal(int slot) {
+        forcedSteal = slot;
+    }
+
+    // Fills out with the legal moves of the current player and returns how many there are
+    public int legalMoves(int[] out) {
+        if (winner != NO_WINNER) {
+            return 0;
+        }
+        int p = current;
+        int o = p ^ 1;
+        int n = 0;
+        int size = handSizes[p];
+        for (int i = 0; i < size; i++) {
+            int card = hands[p * MAX_HAND + i];
+            int color = CardCodes.color(card);
+            switch (CardCodes.kind(card)) {
+                case CardCodes.ORGAN:
+                case CardCodes.EXCHANGE:
+                    out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.CONTROL:
+                    if (handSizes[o] > 0) out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.VIRUS:
+                    if (healthy[o * COLORS + color] > 0) out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.MEDICINA:
+                    if (infected[p * COLORS + color] > 0) out[n++] = Moves.play(i);
+                    break;
+                case CardCodes.REIKAN:
+                    for (int j = 0; j < handSizes[o]; j++) {
+                        out[n++] = Moves.play(i, j);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            out[n++] = Moves.discard(i);
+        }
+        return n;
+    }
+
+    public boolean isLegal(int move) {
+        if (winner != NO_WINNER) {
+            return false;
+        }
+        int p = current;
+        int o = p ^ 1;
+        int slot = Moves.slot(move);
+        int target = Moves.target(move);
+        if (slot >= handSizes[p]) {
+            return false;
+        }
+        int type = Moves.type(move);
+        if (type == Moves.DISCARD) {
+            return target == 0;
+        }
+        if (type != Moves.PLAY) {
+            return false;
+        }
+        int card = hands[p * MAX_HAND + slot];
+        int color = CardCodes.color(card);
+        switch (CardCodes.kind(card)) {
+            case CardCodes.REIKAN:
+                return target < handSizes[o];
+            case CardCodes.ORGAN:
+            case CardCodes.EXCHANGE:
+                return target == 0;
+            case CardCodes.CONTROL:
+                return target == 0 && handSizes[o] > 0;
+            case CardCodes.VIRUS:
+                return target == 0 && healthy[o * COLORS + color] > 0;
+            case CardCodes.MEDICINA:
+                return target == 0 && infected[p * COLORS + color] > 0;
+            default:
+                return false;
+        }
+    }
+
+    // Applies a move of the current player and ends the turn; returns false (state untouched) if illegal
+    public boolean apply(int move) {
+        if (!isLegal(move)) {
+            return false;
+        }
+        int p = current;
+        int o = p ^ 1;
+        int card = removeFromHand(p, Moves.slot(move));
+
+        if (Moves.type(move) == Moves.DISCARD) {
+            discard[discardSize++] = card;
+            emit(GameEventType.DISCARD, p, card, discardSize);
+        } else {
+            int color = CardCodes.color(card);
+            switch (CardCodes.kind(card)) {
+                case CardCodes.ORGAN:
+                    healthy[p * COLORS + color]++;
+                    emit(GameEventType.ORGAN_PLACED, p, card, healthy[p * COLORS + color]);
+                    break;
+                case CardCodes.VIRUS:
+                    healthy[o * COLORS + color]--;
+                    infected[o * COLORS + color]++;
+                    discard[discardSize++] = card;
+                    emit(GameEventType.INFECTION, p, card, o);
+                    break;
+                case CardCodes.MEDICINA:
+                    infected[p * COLORS + color]--;
+                    healthy[p * COLORS + color]++;
+                    discard[discardSize++] = card;
+                    emit(GameEventType.HEAL, p, card, p);
+                    break;
+                case CardCodes.REIKAN:
+                    addToHand(p, removeFromHand(o, Moves.target(move)));
+                    discard[discardSize++] = card;
+                    emit(GameEventType.TREATMENT, p, card, handSizes[o]);
+                    break;
+                case CardCodes.EXCHANGE:
+                    swapHands();
+                    discard[discardSize++] = card;
+                    emit(GameEventType.TREATMENT, p, card, handSizes[o]);
+                    break;
+                case CardCodes.CONTROL:
+                    int stolen = forcedSteal >= 0 && forcedSteal < handSizes[o] ? forcedSteal : rng.nextInt(handSizes[o]);
+                    forcedSteal = -1;
+                    addToHand(p, removeFromHand(o, stolen));
+                    discard[discardSize++] = card;
+                    emit(GameEventType.TREATMENT, p, card, handSizes[o]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        finishTurn();
+        return true;
+    }
+
+    private void finishTurn() {
+        int p = current;
+        refillHand(p);
+        if (hasWon(p)) {
+            winner = p;
+            emit(GameEventType.WIN, p, 0, healthyColors(p));
+            return;
+        }
+        current = p ^ 1;
+        turn++;
+        refillHand(current);
+        if (turn >= maxTurns || handSizes[current] == 0) {
+            winner = DRAW;
+            emit(GameEventType.WIN, DRAW, 0, 0);
+            return;
+        }
+        emit(GameEventType.TURN_END, p, 0, current);
+    }
+
+    // Same as ensureHandSize in the console game, discarding surplus cards from the end of the hand
+    private void refillHand(int p) {
+        while (handSizes[p] > HAND_SIZE) {
+            int card = removeFromHand(p, handSizes[p] - 1);
+            discard[discardSize++] = card;
+            emit(GameEventType.DISCARD, p, card, discardSize);
+        }
+        while (handSizes[p] < HAND_SIZE && drawCard(p)) {
+            // keep drawing
+        }
+    }
+
+    private boolean drawCard(int p) {
+        if (deckSize == 0) {
+            if (discardSize == 0) {
+                return false;
+            }
+            reshuffle();
+        }
+        int card = deck[--deckSize];
+        addToHand(p, card);
+        emit(GameEventType.DRAW, p, card, deckSize);
+        return true;
+    }
+
+    private void reshuffle() {
+        System.arraycopy(discard, 0, deck, deckSize, discardSize);
+        deckSize += discardSize;
+        discardSize = 0;
+        rng.shuffle(deck, deckSize);
+        emit(GameEventType.RESHUFFLE, NO_WINNER, 0, deckSize);
+    }
+
+    private void emit(GameEventType type, int player, int card, int value) {
+        if (sink != null) {
+            sink.onEvent(type, player, card, value, turn);
+        }
+    }
+
+    private int removeFromHand(int p, int slot) {
+        int base = p * MAX_HAND;
+        int card = hands[base + slot];
+        int size = --handSizes[p];
+        System.arraycopy(hands, base + slot + 1, hands, base + slot, size - slot);
+        return card;
+    }
+
+    private void addToHand(int p, int card) {
+        hands[p * MAX_HAND + handSizes[p]++] = card;
+    }
+
+    private void swapHands() {
+        for (int i = 0; i < MAX_HAND; i++) {
+            int tmp = hands[i];
+            hands[i] = hands[MAX_HAND + i];
+            hands[MAX_HAND + i] = tmp;
+        }
+        int tmp = handSizes[0];
+        handSizes[0] = handSizes[1];
+        handSizes[1] = tmp;
+    }
+
+    // A player wins with a healthy organ of each of the four colors
+    public boolean hasWon(int p) {
+        int base = p * COLORS;
+        for (int c = 0; c < COLORS; c++) {
+            if (healthy[base + c] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int healthyColors(int p) {
+        int count = 0;
+        for (int c = 0; c < COLORS; c++) {
+            if (healthy[p * COLORS + c] > 0) count++;
+        }
+        return count;
+    }
+
+    // Hash of the complete state (including the random generator), equal for equal states
+    public long hash() {
+        long h = 0x84222325CBF29CE4L;
+        h = mix(h, deckSize);
+        for (int i = 0; i < deckSize; i++) h = mix(h, deck[i]);
+        h = mix(h, discardSize);
+        for (int i = 0; i < discardSize; i++) h = mix(h, discard[i]);
+        for (int p = 0; p < PLAYERS; p++) {
+            h = mix(h, handSizes[p]);
+            for (int i = 0; i < handSizes[p]; i++) h = mix(h, hands[p * MAX_HAND + i]);
+        }
+        for (int i = 0; i < healthy.length; i++) h = mix(h, healthy[i] << 8 | infected[i]);
+        h = mix(h, current);
+        h = mix(h, turn);
+        h = mix(h, winner);
+        return mix(h, rng.getState());
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0x100000001B3L;
+        return h ^ (h >>> 29);
+    }
+
+    public int current() { return current; }
+    public int turn() { return turn; }
+    public int winner() { return winner; }
+    public boolean isOver() { return winner != NO_WINNER; }
+    public int deckSize() { return deckSize; }
+    public int discardSize() { return discardSize; }
+    public int totalCards() { return cards.length; }
+    public int handSize(int p) { return handSizes[p]; }
+    public int handCard(int p, int slot) { return hands[p * MAX_HAND + slot]; }
+    public int healthy(int p, int color) { return healthy[p * COLORS + color]; }
+    public int infected(int p, int color) { return infected[p * COLORS + color]; }
+    public int deckCard(int index) { return deck[index]; }
+    public int discardCard(int index) { return discard[index]; }
+    public int maxTurns() { return maxTurns; }
+    public void setMaxTurns(int maxTurns) { this.maxTurns = maxTurns; }
+    public Rng rng() { return rng; }
+    public void setEventSink(GameEventSink sink) { this.sink = sink; }
+}
@@ -0,0 +1,51 @@
+package sim;
+
+/**
+ * One-ply lookahead: plays the move with the best Heuristic value after it,
+ * preferring to discard the least useful card and breaking ties at random.
+ * The lookahead runs on a determinized copy of the state, so it never peeks
+ * at the real deck order or the opponent's hand.
+ */
+public final class GreedyPolicy implements Policy {
+    private static final double DISCARD_WEIGHT = 0.05;
+
+    private final int[] moves = new int[GameState.MAX_MOVES];
+    private GameState view;
+    private GameState scratch;
+
+    @Override
+    public int chooseMove(GameState state, Rng rng) {
+        int count = state.legalMoves(moves);
+        if (count == 0) {
+            return Moves.NONE;
+        }
+        if (scratch == null || scratch.totalCards() != state.totalCards()) {
+            view = new GameState(state);
+            scratch = new GameState(state);
+        }
+
+        int player = state.current();
+        view.copyFrom(state);
+        view.determinize(player, rng);
+        double best = Double.NEGATIVE_INFINITY;
+        int bestMove = moves[0];
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            scratch.copyFrom(view);
+            scratch.apply(move);
+            double value = Heuristic.evaluate(scratch, player);
+            if (Moves.type(move) == Moves.DISCARD) {
+                value -= DISCARD_WEIGHT * Heuristic.cardValue(state, player, state.handCard(player, Moves.slot(move)));
+            }
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                ties = 1;
+            } else if (value == best && rng.nextInt(++ties) == 0) {
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+}
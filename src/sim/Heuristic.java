@@ -0,0 +1,67 @@
+package sim;
+
+/**
+ * Static evaluation of a position from one player's point of view, in [-1, 1].
+ * Mostly the organs on the table, plus a small term for how useful each
+ * player's hand is.
+ */
+public final class Heuristic {
+    private static final double INFECTED_ORGAN = 0.35;
+    private static final double HAND_WEIGHT = 0.1;
+
+    private Heuristic() {
+    }
+
+    public static double evaluate(GameState state, int player) {
+        int winner = state.winner();
+        if (winner == player) return 1.0;
+        if (winner == 1 - player) return -1.0;
+        if (winner == GameState.DRAW) return 0.0;
+        double body = bodyScore(state, player) - bodyScore(state, 1 - player);
+        double hand = handScore(state, player) - handScore(state, 1 - player);
+        return (body + HAND_WEIGHT * hand) / (GameState.COLORS + 1);
+    }
+
+    public static double handScore(GameState state, int player) {
+        double score = 0;
+        for (int i = 0; i < state.handSize(player); i++) {
+            score += cardValue(state, player, state.handCard(player, i));
+        }
+        return score;
+    }
+
+    // Roughly how close a player is to a complete healthy body (0..4)
+    public static double bodyScore(GameState state, int player) {
+        double score = 0;
+        for (int c = 0; c < GameState.COLORS; c++) {
+            if (state.healthy(player, c) > 0) {
+                score += state.healthy(player, c) > 1 ? 1.1 : 1.0;
+            } else if (state.infected(player, c) > 0) {
+                score += INFECTED_ORGAN;
+            }
+        }
+        return score;
+    }
+
+    // How much a card in hand is worth to a player right now, used to choose discards
+    public static double cardValue(GameState state, int player, int card) {
+        int opponent = 1 - player;
+        int color = CardCodes.color(card);
+        switch (CardCodes.kind(card)) {
+            case CardCodes.ORGAN:
+                return state.healthy(player, color) == 0 ? 1.0 : 0.1;
+            case CardCodes.VIRUS:
+                return state.healthy(opponent, color) > 0 ? 0.8 : 0.3;
+            case CardCodes.MEDICINA:
+                return state.infected(player, color) > 0 ? 0.9 : 0.4;
+            case CardCodes.REIKAN:
+                return 0.7;
+            case CardCodes.CONTROL:
+                return 0.5;
+            case CardCodes.EXCHANGE:
+                return 0.3;
+            default:
+                return 0.0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package sim;
+
+/**
+ * Precomputed chances of drawing at least one wanted card: from a pool of n
+ * cards holding k wanted ones, within d draws without replacement. Built once
+ * for every pool up to MAX_POOL cards and up to MAX_DRAWS draws, so a query
+ * is a single array read.
+ */
+public final class Hypergeometric {
+    public static final int MAX_POOL = 128;
+    public static final int MAX_DRAWS = 12;
+
+    // AT_LEAST_ONE[(n * (MAX_POOL + 1) + k) * (MAX_DRAWS + 1) + d]
+    private static final float[] AT_LEAST_ONE = build();
+
+    private Hypergeometric() {
+    }
+
+    private static float[] build() {
+        float[] table = new float[(MAX_POOL + 1) * (MAX_POOL + 1) * (MAX_DRAWS + 1)];
+        for (int n = 0; n <= MAX_POOL; n++) {
+            for (int k = 0; k <= n; k++) {
+                int base = (n * (MAX_POOL + 1) + k) * (MAX_DRAWS + 1);
+                // Chance that the first d draws miss every wanted card
+                double miss = 1;
+                for (int d = 1; d <= MAX_DRAWS; d++) {
+                    int left = n - (d - 1);
+                    if (left > 0) {
+                        miss *= Math.max(0, left - k) / (double) left;
+                    }
+                    table[base + d] = (float) (1 - miss);
+                }
+            }
+        }
+        return table;
+    }
+
+    // Chance of at least one of wanted cards in draws draws from a pool of pool cards
+    public static float atLeastOne(int pool, int wanted, int draws) {
+        if (pool > MAX_POOL || draws > MAX_DRAWS) {
+            return (float) exact(pool, wanted, draws);
+        }
+        return AT_LEAST_ONE[(pool * (MAX_POOL + 1) + wanted) * (MAX_DRAWS + 1) + draws];
+    }
+
+    // The same product, for the rare query outside the table
+    static double exact(int pool, int wanted, int draws) {
+        double miss = 1;
+        for (int d = 0; d < draws && pool - d > 0; d++) {
+            miss *= Math.max(0, pool - d - wanted) / (double) (pool - d);
+        }
+        return 1 - miss;
+    }
+}
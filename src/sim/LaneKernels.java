@@ -0,0 +1,55 @@
+package sim;
+
+/**
+ * The data-parallel parts of a GameBatch lockstep step, applied to every
+ * slot of the batch at once. SCALAR is plain Java; VectorLaneKernels (in
+ * src-vector, built with --add-modules jdk.incubator.vector) does the same
+ * with the Vector API. best() picks the vector version when that module is
+ * present at run time and falls back to SCALAR otherwise.
+ */
+public interface LaneKernels {
+    String name();
+
+    /**
+     * For each of the first n organ words: colors gets bit 4 * k set when
+     * nibble k is non-zero (which colors each player has healthy and infected
+     * organs of, so the virus and heal targets), and wins gets bit p set when
+     * player p has a healthy organ of every color.
+     */
+    void colorMasks(long[] organs, int n, long[] colors, long[] wins);
+
+    // out[i] is a uniform draw in [0, bounds[i]) from generator states[i], exactly as Rng.nextInt
+    void nextBounded(long[] states, long[] bounds, int n, long[] out);
+
+    LaneKernels SCALAR = new LaneKernels() {
+        @Override
+        public String name() {
+            return "scalar";
+        }
+
+        @Override
+        public void colorMasks(long[] organs, int n, long[] colors, long[] wins) {
+            for (int i = 0; i < n; i++) {
+                long x = GameBatch.colorMask(organs[i]);
+                colors[i] = x;
+                wins[i] = ((x & 0x1111L) == 0x1111L ? 1 : 0) | ((x >>> 16 & 0x1111L) == 0x1111L ? 2 : 0);
+            }
+        }
+
+        @Override
+        public void nextBounded(long[] states, long[] bounds, int n, long[] out) {
+            for (int i = 0; i < n; i++) {
+                out[i] = Rng.bounded(Rng.mix(states[i] += Rng.GAMMA), (int) bounds[i]);
+            }
+        }
+    };
+
+    static LaneKernels best() {
+        try {
+            return (LaneKernels) Class.forName("sim.VectorLaneKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or jdk.incubator.vector is not in the module graph
+            return SCALAR;
+        }
+    }
+}
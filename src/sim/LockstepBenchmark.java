@@ -0,0 +1,125 @@
+package sim;
+
+import model.DeckComposition;
+
+/**
+ * Compares the lockstep batch simulator on scalar and vector lane kernels
+ * with the plain per-game batch loop, and the kernels on their own. All
+ * versions must produce the same results, which is checked first.
+ *
+ * Usage (see VectorLaneKernels for building it):
+ *   java --add-modules jdk.incubator.vector -cp out sim.LockstepBenchmark [games] [batch-size]
+ * Without --add-modules the vector kernels are unavailable and only the scalar ones run.
+ */
+public final class LockstepBenchmark {
+    private static final int KERNEL_LANES = 4096;
+    private static final int KERNEL_ROUNDS = 20_000;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        DeckComposition composition = DeckComposition.STANDARD;
+        LaneKernels best = LaneKernels.best();
+        System.out.println("Lane kernels available: " + best.name());
+
+        checkKernels(best);
+        SimulationStats expected = new GameBatch(composition, batchSize).play(1, 20_000, BatchPolicy.RANDOM);
+        for (LaneKernels kernels : new LaneKernels[] {LaneKernels.SCALAR, best}) {
+            SimulationStats actual = new GameBatch(composition, batchSize).playLockstep(1, 20_000, kernels);
+            if (!actual.toString().equals(expected.toString()) || actual.wins(0) != expected.wins(0)) {
+                throw new IllegalStateException("Lockstep with " + kernels.name() + " kernels differs: " + actual + " vs " + expected);
+            }
+        }
+        System.out.println("Lockstep results match the per-game batch loop");
+
+        // Each one twice; the first pass is JIT warm-up
+        for (int pass = 0; pass < 2; pass++) {
+            boolean report = pass == 1;
+            long perGame = time(() -> new GameBatch(composition, batchSize).play(1, games, BatchPolicy.RANDOM));
+            long scalar = time(() -> new GameBatch(composition, batchSize).playLockstep(1, games, LaneKernels.SCALAR));
+            long vector = time(() -> new GameBatch(composition, batchSize).playLockstep(1, games, best));
+            if (report) {
+                System.out.printf("Per-game batch loop:    %,12.0f games/min%n", games * 60e9 / perGame);
+                System.out.printf("Lockstep, scalar lanes: %,12.0f games/min%n", games * 60e9 / scalar);
+                System.out.printf("Lockstep, %-13s %,12.0f games/min  (%.2fx scalar lockstep)%n",
+                    best.name() + ":", games * 60e9 / vector, (double) scalar / vector);
+            }
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            long[] scalarTimes = kernelTimes(LaneKernels.SCALAR);
+            long[] vectorTimes = kernelTimes(best);
+            if (pass == 1) {
+                System.out.printf("colorMasks:  scalar %.2f ns/lane, %s %.2f ns/lane (%.2fx)%n",
+                    perLane(scalarTimes[0]), best.name(), perLane(vectorTimes[0]), (double) scalarTimes[0] / vectorTimes[0]);
+                System.out.printf("nextBounded: scalar %.2f ns/lane, %s %.2f ns/lane (%.2fx)%n",
+                    perLane(scalarTimes[1]), best.name(), perLane(vectorTimes[1]), (double) scalarTimes[1] / vectorTimes[1]);
+            }
+        }
+    }
+
+    // Both kernel sets on the same random lanes, including a tail shorter than a vector
+    private static void checkKernels(LaneKernels kernels) {
+        int n = 1021;
+        Rng rng = new Rng(7);
+        long[] organs = new long[n];
+        long[] bounds = new long[n];
+        for (int i = 0; i < n; i++) {
+            organs[i] = rng.nextLong() & rng.nextLong();
+            bounds[i] = rng.nextInt(GameState.MAX_MOVES + 1);
+        }
+        long[] statesA = new long[n];
+        long[] statesB = new long[n];
+        for (int i = 0; i < n; i++) {
+            statesA[i] = statesB[i] = rng.nextLong();
+        }
+        long[] colorsA = new long[n], winsA = new long[n], outA = new long[n];
+        long[] colorsB = new long[n], winsB = new long[n], outB = new long[n];
+        LaneKernels.SCALAR.colorMasks(organs, n, colorsA, winsA);
+        kernels.colorMasks(organs, n, colorsB, winsB);
+        LaneKernels.SCALAR.nextBounded(statesA, bounds, n, outA);
+        kernels.nextBounded(statesB, bounds, n, outB);
+        for (int i = 0; i < n; i++) {
+            if (colorsA[i] != colorsB[i] || winsA[i] != winsB[i] || outA[i] != outB[i] || statesA[i] != statesB[i]) {
+                throw new IllegalStateException(kernels.name() + " kernels differ from scalar at lane " + i);
+            }
+        }
+    }
+
+    private static long[] kernelTimes(LaneKernels kernels) {
+        long[] organs = new long[KERNEL_LANES];
+        long[] states = new long[KERNEL_LANES];
+        long[] bounds = new long[KERNEL_LANES];
+        long[] colors = new long[KERNEL_LANES];
+        long[] wins = new long[KERNEL_LANES];
+        long[] out = new long[KERNEL_LANES];
+        Rng rng = new Rng(3);
+        for (int i = 0; i < KERNEL_LANES; i++) {
+            organs[i] = rng.nextLong();
+            states[i] = rng.nextLong();
+            bounds[i] = 1 + rng.nextInt(20);
+        }
+        long start = System.nanoTime();
+        for (int r = 0; r < KERNEL_ROUNDS; r++) {
+            kernels.colorMasks(organs, KERNEL_LANES, colors, wins);
+            organs[r & (KERNEL_LANES - 1)] ^= wins[r & 63];
+        }
+        long masks = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int r = 0; r < KERNEL_ROUNDS; r++) {
+            kernels.nextBounded(states, bounds, KERNEL_LANES, out);
+        }
+        long randoms = System.nanoTime() - start;
+        return new long[] {masks, randoms};
+    }
+
+    private static double perLane(long nanos) {
+        return (double) nanos / KERNEL_ROUNDS / KERNEL_LANES;
+    }
+
+    private static long time(Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        return System.nanoTime() - start;
+    }
+}
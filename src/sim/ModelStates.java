@@ -0,0 +1,95 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import model.BoardSnapshot;
+import model.BoardSnapshot.CardView;
+import model.BoardSnapshot.PlayerView;
+import model.Card;
+import model.Organ;
+import model.Player;
+
+/**
+ * Converts a board made of model objects (as kept by the console and Swing
+ * games), or a published snapshot of one, into an engine GameState, so bots
+ * can search from it.
+ */
+public final class ModelStates {
+    private ModelStates() {
+    }
+
+    public static GameState fromBoard(List<Card> deck, List<Card> discardPile, List<Player> players,
+                                      Map<Player, List<Organ>> organsOnTable, int currentPlayer) {
+        List<Card> all = new ArrayList<>(deck);
+        all.addAll(discardPile);
+        for (Player player : players) {
+            all.addAll(player.getHand());
+            all.addAll(organsOnTable.get(player));
+        }
+        int[] codes = new int[all.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = CardCodes.encode(all.get(i));
+        }
+
+        GameState state = new GameState(codes);
+        state.clearPosition();
+        // The model decks draw from index 0, the engine from the top
+        for (int i = deck.size() - 1; i >= 0; i--) {
+            state.pushDeckCard(CardCodes.encode(deck.get(i)));
+        }
+        for (Card card : discardPile) {
+            state.addDiscardCard(CardCodes.encode(card));
+        }
+        for (int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            for (Card card : player.getHand()) {
+                state.addHandCard(p, CardCodes.encode(card));
+            }
+            for (Organ organ : organsOnTable.get(player)) {
+                state.addOrgan(p, organ.getColor().ordinal(), organ.isInfected());
+            }
+        }
+        state.setCurrent(currentPlayer);
+        return state;
+    }
+
+    // Safe off the game thread: reads only the immutable snapshot
+    public static GameState fromSnapshot(BoardSnapshot snapshot) {
+        List<CardView> all = new ArrayList<>(snapshot.deck());
+        all.addAll(snapshot.discardPile());
+        for (PlayerView player : snapshot.players()) {
+            all.addAll(player.hand());
+            all.addAll(player.organs());
+        }
+        int[] codes = new int[all.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = encode(all.get(i));
+        }
+
+        GameState state = new GameState(codes);
+        state.clearPosition();
+        List<CardView> deck = snapshot.deck();
+        for (int i = deck.size() - 1; i >= 0; i--) {
+            state.pushDeckCard(encode(deck.get(i)));
+        }
+        for (CardView card : snapshot.discardPile()) {
+            state.addDiscardCard(encode(card));
+        }
+        for (int p = 0; p < snapshot.players().size(); p++) {
+            PlayerView player = snapshot.players().get(p);
+            for (CardView card : player.hand()) {
+                state.addHandCard(p, encode(card));
+            }
+            for (CardView organ : player.organs()) {
+                state.addOrgan(p, organ.color().ordinal(), organ.infected());
+            }
+        }
+        state.setCurrent(snapshot.currentPlayer());
+        return state;
+    }
+
+    private static int encode(CardView card) {
+        return CardCodes.of(card.typeId(), card.color().ordinal());
+    }
+}
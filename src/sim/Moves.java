@@ -0,0 +1,49 @@
+package sim;
+
+/**
+ * Int encoding of a turn action: type, hand slot and an optional target
+ * (the opponent's hand slot for Reikan).
+ */
+public final class Moves {
+    public static final int NONE = 0;
+    public static final int PLAY = 1;
+    public static final int DISCARD = 2;
+
+    private Moves() {
+    }
+
+    public static int play(int slot) {
+        return play(slot, 0);
+    }
+
+    public static int play(int slot, int target) {
+        return (PLAY << 8) | (slot << 4) | target;
+    }
+
+    public static int discard(int slot) {
+        return (DISCARD << 8) | (slot << 4);
+    }
+
+    public static int type(int move) {
+        return move >>> 8;
+    }
+
+    public static int slot(int move) {
+        return (move >>> 4) & 0xF;
+    }
+
+    public static int target(int move) {
+        return move & 0xF;
+    }
+
+    public static String toString(int move) {
+        switch (type(move)) {
+            case PLAY:
+                return "play " + (slot(move) + 1) + (target(move) != 0 ? " " + (target(move) + 1) : "");
+            case DISCARD:
+                return "discard " + (slot(move) + 1);
+            default:
+                return "none";
+        }
+    }
+}
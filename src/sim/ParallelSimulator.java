@@ -0,0 +1,71 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import model.DeckComposition;
+
+/**
+ * Runs batches of seeded games on a fixed thread pool. Game i of a batch uses
+ * seed firstSeed + i, so results do not depend on the number of threads.
+ */
+public final class ParallelSimulator implements AutoCloseable {
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ExecutorService pool;
+    private final int threads;
+
+    public ParallelSimulator(int threads) {
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "simulator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    public SimulationStats run(DeckComposition composition, Supplier<Policy> policies,
+                               long firstSeed, int games, int maxTurns) {
+        int chunks = Math.max(1, Math.min(games, threads * CHUNKS_PER_THREAD));
+        List<Future<SimulationStats>> futures = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            long start = firstSeed + (long) games * c / chunks;
+            long end = firstSeed + (long) games * (c + 1) / chunks;
+            futures.add(pool.submit(() -> {
+                GameSimulator simulator = new GameSimulator(composition, policies.get(), policies.get());
+                simulator.setMaxTurns(maxTurns);
+                SimulationStats stats = new SimulationStats();
+                for (long seed = start; seed < end; seed++) {
+                    stats.record(simulator.play(seed));
+                }
+                return stats;
+            }));
+        }
+
+        SimulationStats total = new SimulationStats();
+        try {
+            for (Future<SimulationStats> future : futures) {
+                total.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,6 @@
+package sim;
+
+// Chooses the move of the current player; implementations keep their own buffers and are not thread-safe
+public interface Policy {
+    int chooseMove(GameState state, Rng rng);
+}
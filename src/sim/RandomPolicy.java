@@ -0,0 +1,12 @@
+package sim;
+
+// Plays a uniformly random legal move
+public final class RandomPolicy implements Policy {
+    private final int[] moves = new int[GameState.MAX_MOVES];
+
+    @Override
+    public int chooseMove(GameState state, Rng rng) {
+        int count = state.legalMoves(moves);
+        return count == 0 ? Moves.NONE : moves[rng.nextInt(count)];
+    }
+}
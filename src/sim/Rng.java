@@ -0,0 +1,56 @@
+package sim;
+
+/**
+ * Seedable SplitMix64 generator. The whole state is a single long, so a game
+ * state can be copied, hashed and replayed exactly without allocating.
+ */
+public final class Rng {
+    static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public Rng(long seed) {
+        this.state = seed;
+    }
+
+    public long getState() { return state; }
+    public void setState(long state) { this.state = state; }
+
+    public long nextLong() {
+        return mix(state += GAMMA);
+    }
+
+    // Uniform int in [0, bound) using a multiply-shift instead of a modulo
+    public int nextInt(int bound) {
+        return bounded(nextLong(), bound);
+    }
+
+    /**
+     * The output function, shared with code that keeps many generator states
+     * in one array, and the mixer for position keys: a sum of per-card mixes
+     * hashes a hand whatever the order of its cards.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static int bounded(long random, int bound) {
+        return (int) (((random >>> 32) * bound) >>> 32);
+    }
+
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // Fisher-Yates shuffle of the first n entries of the array
+    public void shuffle(int[] values, int n) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package sim;
+
+/**
+ * Aggregated results of a batch of games. Not thread-safe; each worker fills
+ * its own instance and the results are merged.
+ */
+public final class SimulationStats {
+    private long games;
+    private final long[] wins = new long[GameState.PLAYERS];
+    private long draws;
+    private long turnSum;
+    private long turnSquareSum;
+
+    public void record(GameState finished) {
+        record(finished.winner(), finished.turn());
+    }
+
+    // winner is a player, or GameState.DRAW; lastTurn is the index of the final turn
+    public void record(int winner, int lastTurn) {
+        games++;
+        if (winner == GameState.DRAW) {
+            draws++;
+        } else {
+            wins[winner]++;
+        }
+        long turns = lastTurn + 1;
+        turnSum += turns;
+        turnSquareSum += turns * turns;
+    }
+
+    public void merge(SimulationStats other) {
+        games += other.games;
+        for (int p = 0; p < GameState.PLAYERS; p++) {
+            wins[p] += other.wins[p];
+        }
+        draws += other.draws;
+        turnSum += other.turnSum;
+        turnSquareSum += other.turnSquareSum;
+    }
+
+    public long games() { return games; }
+    public long wins(int player) { return wins[player]; }
+    public long draws() { return draws; }
+
+    // Share of decided games won by the player who moves first
+    public double firstPlayerWinRate() {
+        long decided = wins[0] + wins[1];
+        return decided == 0 ? 0.5 : (double) wins[0] / decided;
+    }
+
+    public double drawRate() {
+        return games == 0 ? 0 : (double) draws / games;
+    }
+
+    public double meanTurns() {
+        return games == 0 ? 0 : (double) turnSum / games;
+    }
+
+    public double turnStdDev() {
+        if (games < 2) return 0;
+        double mean = meanTurns();
+        return Math.sqrt(Math.max(0, (double) turnSquareSum / games - mean * mean));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d first-player-wins=%.3f draws=%.3f turns=%.1f+/-%.1f",
+            games, firstPlayerWinRate(), drawRate(), meanTurns(), turnStdDev());
+    }
+}